@@ -1,8 +1,8 @@
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * MultiThreadedServer.java
@@ -10,6 +10,20 @@ import java.util.concurrent.Executors;
  * using a thread pool (ExecutorService). Each client connection is delegated to a separate
  * `ClientHandler` thread.
  *
+ * Connections are accepted by an `AcceptorGroup`: several accept threads (optionally one
+ * `SO_REUSEPORT` socket each) that hand sockets round-robin or least-loaded to worker pools,
+ * so the accept loop stays fast during connection storms.
+ *
+ * Before a connection is dispatched, an `AdmissionController` checks it: an address opening
+ * connections faster than `-Dadmission.perIpRate` per second (bursts of `-Dadmission.perIpBurst`),
+ * more than `-Dadmission.maxConnections` open connections, or more than `-Dadmission.maxWaiting`
+ * connections queued for a worker thread (default 20 and 5) get a one-line refusal instead of a handler.
+ *
+ * On Ctrl+C (or SIGTERM) a `LifecycleManager` shuts the server down in phases: stop accepting,
+ * let connected clients finish their current request for up to `-Dserver.drainSeconds`
+ * (default 10), then close the connections that are left. The shutdown report shows how long
+ * each phase took.
+ *
  * Design Principles:
  * - **Concurrency:** Uses `ExecutorService` to manage a pool of threads, improving resource utilization
  *   and preventing the overhead of creating a new thread for every client.
@@ -17,64 +31,79 @@ import java.util.concurrent.Executors;
  *   client communication (`ClientHandler`).
  * - **Robustness:** Includes basic error handling for server operations.
  * - **Resource Management:** Ensures the server socket and thread pool are properly shut down.
+ * - **Graceful Shutdown:** Ordered phases with a drain deadline instead of closing everything at once.
+ * - **Scalability:** Accepting is spread over several threads and reported through accept metrics.
  *
  * Execution Steps:
- * 1. Compile: `javac MultiThreadedServer.java ClientHandler.java`
+ * 1. Compile: `javac MultiThreadedServer.java ClientHandler.java AcceptorGroup.java AdmissionController.java TokenBucket.java InstrumentedThreadPoolExecutor.java LifecycleManager.java`
  * 2. Run: `java MultiThreadedServer`
  *    The server will start and listen on port 12345. It will accept multiple client connections.
  *    You can run multiple `SimpleClient.java` instances to test concurrent connections.
+ *    Optional: `java -Dacceptor.mode=REUSE_PORT -Dacceptor.dispatch=LEAST_LOADED MultiThreadedServer`
  */
 public class MultiThreadedServer {
     private static final int PORT = 12345;
     private static final int THREAD_POOL_SIZE = 10; // Max concurrent clients
+    private static final int ACCEPTOR_THREADS = 2; // Threads calling accept()
+    private static final int WORKER_POOLS = 2; // THREAD_POOL_SIZE is split evenly across these pools
+    private static final int BACKLOG = 128; // Pending connections the OS may queue per listening socket
+    private static final int METRICS_INTERVAL_SECONDS = 30;
 
     public static void main(String[] args) {
         System.out.println("Multi-threaded Server started. Listening on port " + PORT);
-        ServerSocket serverSocket = null;
-        ExecutorService executorService = null;
-        int clientCount = 0;
+        AtomicInteger clientCount = new AtomicInteger();
 
-        try {
-            // 1. Create a ServerSocket to listen for incoming connections
-            serverSocket = new ServerSocket(PORT);
+        // 1. Create the acceptor group; each accepted client is handled on a worker pool thread
+        AcceptorGroup acceptorGroup = new AcceptorGroup(
+                PORT, ACCEPTOR_THREADS, BACKLOG,
+                AcceptorGroup.Mode.valueOf(System.getProperty("acceptor.mode", "SHARED_SOCKET")),
+                AcceptorGroup.Dispatch.valueOf(System.getProperty("acceptor.dispatch", "ROUND_ROBIN")),
+                WORKER_POOLS, THREAD_POOL_SIZE / WORKER_POOLS,
+                clientSocket -> {
+                    // 2. Runs on the worker thread, so logging and construction stay off the accept path
+                    int clientNumber = clientCount.incrementAndGet();
+                    System.out.println("Client " + clientNumber + " connected: " + clientSocket.getInetAddress().getHostAddress());
+                    new ClientHandler(clientSocket, clientNumber).run();
+                });
+        // Refuse connections from hosts that connect too fast, and when the pools are saturated
+        acceptorGroup.setAdmissionController(AdmissionController.fromSystemProperties(THREAD_POOL_SIZE * 2, THREAD_POOL_SIZE / 2));
 
-            // 2. Create a fixed-size thread pool to manage client handlers
-            executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+        // 3. Periodically report accept rate, worker load and per-pool task timings
+        ScheduledExecutorService metricsReporter = Executors.newSingleThreadScheduledExecutor();
+        metricsReporter.scheduleAtFixedRate(() -> {
+            System.out.println(acceptorGroup.metrics());
+            acceptorGroup.workerSnapshots().forEach(System.out::println); // Queue wait and handler time per pool
+        }, METRICS_INTERVAL_SECONDS, METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS);
 
-            System.out.println("Waiting for clients to connect...");
-            while (true) { // Server runs indefinitely
-                // 3. Accept a new client connection
-                Socket clientSocket = serverSocket.accept();
-                clientCount++;
-                System.out.println("Client " + clientCount + " connected: " + clientSocket.getInetAddress().getHostAddress());
+        // 4. Shutdown phases: stop accepting, drain the connected clients, close what is left
+        LifecycleManager lifecycle = new LifecycleManager("Multi-threaded Server",
+                Long.getLong("server.drainSeconds", 10), TimeUnit.SECONDS);
+        lifecycle.register(LifecycleManager.Phase.STOP_ACCEPTING, "close listening sockets",
+                deadline -> acceptorGroup.stopAccepting(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS));
+        lifecycle.register(LifecycleManager.Phase.DRAIN, "finish in-flight requests",
+                deadline -> acceptorGroup.drain(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS));
+        lifecycle.register(LifecycleManager.Phase.CLOSE, "close remaining connections",
+                deadline -> acceptorGroup.closeConnections() == 0);
+        lifecycle.register(LifecycleManager.Phase.CLOSE, "stop metrics reporter", deadline -> {
+            metricsReporter.shutdownNow();
+            System.out.println(acceptorGroup.metrics());
+            return true;
+        });
+        lifecycle.installShutdownHook();
 
-                // 4. Create a ClientHandler for the new client and submit it to the thread pool
-                ClientHandler clientHandler = new ClientHandler(clientSocket, clientCount);
-                executorService.execute(clientHandler);
-            }
+        try {
+            acceptorGroup.start();
+            System.out.println("Waiting for clients to connect... (Ctrl+C to shut down)");
+            lifecycle.awaitTermination(); // Server runs until the shutdown hook has run every phase
         } catch (IOException e) {
             System.err.println("Server error: " + e.getMessage());
             // e.printStackTrace(); // Uncomment for detailed stack trace
-        } finally {
-            // 5. Close resources
-            try {
-                if (serverSocket != null) {
-                    serverSocket.close();
-                    System.out.println("Server socket closed.");
-                }
-                if (executorService != null) {
-                    executorService.shutdown(); // Initiates an orderly shutdown
-                    System.out.println("Shutting down thread pool...");
-                    // Optional: Wait for all tasks to complete or timeout
-                    if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                        executorService.shutdownNow(); // Forcefully shut down
-                        System.out.println("Thread pool forcefully shut down.");
-                    }
-                }
-                System.out.println("Server resources closed.");
-            } catch (IOException | InterruptedException e) {
-                System.err.println("Error closing server resources: " + e.getMessage());
-            }
+            System.out.println(lifecycle.shutdown());
+        } catch (InterruptedException e) {
+            System.err.println("Server interrupted.");
+            Thread.currentThread().interrupt();
+            System.out.println(lifecycle.shutdown());
         }
+        System.out.println("Server resources closed.");
     }
 }
@@ -1,8 +1,6 @@
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -13,12 +11,13 @@ import java.util.concurrent.TimeUnit;
  *
  * Design Principles:
  * - **Concurrency:** Uses `ExecutorService` for managing client threads.
+ * - **Observability:** The pool is an `InstrumentedThreadPoolExecutor` that periodically prints queue wait and handler times.
  * - **Modularity:** `ClientHandlerSync` encapsulates client-specific logic, `SharedResource` encapsulates shared state.
  * - **Synchronization:** Explicitly uses `synchronized` methods in `SharedResource` to protect shared data.
  * - **Robustness:** Includes error handling and graceful shutdown of resources.
  *
  * Execution Steps:
- * 1. Compile: `javac SynchronizedServer.java ClientHandlerSync.java SharedResource.java`
+ * 1. Compile: `javac SynchronizedServer.java ClientHandlerSync.java SharedResource.java InstrumentedThreadPoolExecutor.java`
  * 2. Run: `java SynchronizedServer`
  *    The server will start and listen on port 12345.
  *    It will accept multiple client connections, and each client will interact with a shared counter.
@@ -26,17 +25,20 @@ import java.util.concurrent.TimeUnit;
 public class SynchronizedServer {
     private static final int PORT = 12345;
     private static final int THREAD_POOL_SIZE = 5;
+    private static final int METRICS_INTERVAL_SECONDS = 30;
     private static SharedResource sharedCounter = new SharedResource();
 
     public static void main(String[] args) {
         System.out.println("Synchronized Server started. Listening on port " + PORT);
         ServerSocket serverSocket = null;
-        ExecutorService executorService = null;
+        InstrumentedThreadPoolExecutor executorService = null;
         int clientCount = 0;
 
         try {
             serverSocket = new ServerSocket(PORT);
-            executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+            executorService = InstrumentedThreadPoolExecutor.newFixedThreadPool("Sync-Handlers", THREAD_POOL_SIZE);
+            // Periodically report how long clients waited for a handler thread and how long sessions lasted
+            executorService.startReporting(METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS, System.out::println);
 
             System.out.println("Waiting for clients to connect...");
             while (true) {
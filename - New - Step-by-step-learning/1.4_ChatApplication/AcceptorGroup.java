@@ -0,0 +1,436 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * AcceptorGroup.java
+ * This class accepts client connections on several threads at once and distributes them
+ * to a set of worker pools. An accept thread does nothing but `accept()` and hand the socket
+ * over, so logging and handler construction no longer slow down the accept loop, and a burst
+ * of new connections is drained by several threads instead of one.
+ *
+ * Two accept modes are supported:
+ * - **SHARED_SOCKET:** one listening socket, with every acceptor thread blocked in its `accept()`.
+ * - **REUSE_PORT:** one listening socket per acceptor, all bound to the same port with `SO_REUSEPORT`,
+ *   so the Linux kernel itself spreads incoming connections across them. Falls back to
+ *   SHARED_SOCKET where the option is not supported.
+ *
+ * Accepted connections are dispatched either ROUND_ROBIN or to the LEAST_LOADED worker pool
+ * (the one with the fewest open connections). `metrics()` reports accepted connections, the
+ * accept rate since the previous call, and connections accepted but still waiting for a worker
+ * thread (the part of the backlog visible to the application). The worker pools are
+ * `InstrumentedThreadPoolExecutor`s; `workerSnapshots()` reports their queue wait and handler times.
+ *
+ * With an `AdmissionController` set, each accepted socket is checked before it is dispatched
+ * (per-address rate, connections waiting for a worker, open connections). A refused client gets
+ * one line and is disconnected on the acceptor thread, without creating streams or a handler.
+ *
+ * Design Principles:
+ * - **Separation of Concerns:** Accepting, dispatching and handling a connection run on different threads.
+ * - **Configurability:** Acceptor count, backlog, mode, dispatch policy and worker sizing are constructor arguments.
+ * - **Resource Management:** `close()` closes every listening socket and shuts the worker pools down.
+ * - **Graceful Shutdown:** `stopAccepting()`, `drain()` and `closeConnections()` are the three steps of
+ *   `close()`, exposed separately so a `LifecycleManager` can run them as phases with their own deadlines.
+ */
+public class AcceptorGroup implements Closeable {
+
+    /** How the acceptor threads share the listening port. */
+    public enum Mode { SHARED_SOCKET, REUSE_PORT }
+
+    /** How accepted connections are assigned to worker pools. */
+    public enum Dispatch { ROUND_ROBIN, LEAST_LOADED }
+
+    /**
+     * A worker pool together with the number of connections it is currently serving.
+     */
+    private static final class Worker {
+        final ThreadPoolExecutor executor;
+        final AtomicInteger openConnections = new AtomicInteger();
+        final AtomicLong dispatched = new AtomicLong();
+
+        Worker(ThreadPoolExecutor executor) {
+            this.executor = executor;
+        }
+    }
+
+    private final int port;
+    private final int acceptorCount;
+    private final int backlog;
+    private final Dispatch dispatch;
+    private final Consumer<Socket> connectionHandler; // Runs on a worker thread for each accepted socket
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<Closeable> listeners = new ArrayList<>(); // ServerSocket or ServerSocketChannel instances
+    private final List<Thread> acceptorThreads = new ArrayList<>();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet(); // Dispatched and not yet closed by their handler
+    private final AtomicInteger nextWorker = new AtomicInteger(); // Round-robin cursor
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong acceptErrors = new AtomicLong();
+    private volatile AdmissionController admission; // Null: every connection is dispatched
+    private Mode mode;
+    private volatile boolean running = false;
+    private long lastAcceptedCount = 0; // Used by metrics() to compute the accept rate
+    private long lastMetricsTime = System.nanoTime();
+
+    /**
+     * Constructor for AcceptorGroup. Call `start()` to begin accepting.
+     * @param port The port to listen on.
+     * @param acceptorCount Number of accept threads.
+     * @param backlog The listen backlog requested for each listening socket.
+     * @param mode How acceptor threads share the port.
+     * @param dispatch How connections are assigned to worker pools.
+     * @param workerCount Number of worker pools.
+     * @param threadsPerWorker Number of threads in each worker pool.
+     * @param connectionHandler Called on a worker thread with each accepted socket; it owns the socket from then on.
+     */
+    public AcceptorGroup(int port, int acceptorCount, int backlog, Mode mode, Dispatch dispatch,
+                         int workerCount, int threadsPerWorker, Consumer<Socket> connectionHandler) {
+        this.port = port;
+        this.acceptorCount = acceptorCount;
+        this.backlog = backlog;
+        this.mode = mode;
+        this.dispatch = dispatch;
+        this.connectionHandler = connectionHandler;
+        for (int i = 0; i < workerCount; i++) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            int workerNumber = i + 1;
+            workers.add(new Worker(new InstrumentedThreadPoolExecutor(
+                    "Worker-" + workerNumber, threadsPerWorker, threadsPerWorker, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(runnable, "Worker-" + workerNumber + "-" + threadNumber.incrementAndGet()))));
+        }
+    }
+
+    /**
+     * Checks every accepted connection with the given controller before dispatching it.
+     * Call before `start()`.
+     * @param admission The controller, or null to admit every connection.
+     */
+    public void setAdmissionController(AdmissionController admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Binds the listening socket(s) and starts the acceptor threads.
+     * @throws IOException If the port cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (mode == Mode.REUSE_PORT && !reusePortSupported()) {
+            System.out.println("SO_REUSEPORT is not supported on this platform; using a shared listening socket.");
+            mode = Mode.SHARED_SOCKET;
+        }
+        running = true;
+
+        if (mode == Mode.SHARED_SOCKET) {
+            ServerSocket serverSocket = new ServerSocket(port, backlog);
+            listeners.add(serverSocket);
+            for (int i = 0; i < acceptorCount; i++) {
+                startAcceptor(i + 1, serverSocket::accept);
+            }
+        } else {
+            for (int i = 0; i < acceptorCount; i++) {
+                ServerSocketChannel channel = ServerSocketChannel.open();
+                channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+                channel.bind(new InetSocketAddress(port), backlog);
+                listeners.add(channel);
+                startAcceptor(i + 1, () -> {
+                    SocketChannel accepted = channel.accept(); // Blocking mode, so this behaves like ServerSocket.accept()
+                    return accepted.socket();
+                });
+            }
+        }
+        System.out.println("AcceptorGroup listening on port " + port + " with " + acceptorCount
+                + " acceptor(s), mode " + mode + ", dispatch " + dispatch + ", " + workers.size() + " worker pool(s).");
+    }
+
+    /**
+     * Blocks until every acceptor thread has stopped (normally only after `close()`).
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        List<Thread> threads;
+        synchronized (this) {
+            threads = new ArrayList<>(acceptorThreads);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /** A blocking accept call, so both modes can share the same acceptor loop. */
+    private interface AcceptCall {
+        Socket accept() throws IOException;
+    }
+
+    private void startAcceptor(int number, AcceptCall acceptCall) {
+        Thread acceptor = new Thread(() -> {
+            while (running) {
+                try {
+                    Socket socket = acceptCall.accept();
+                    accepted.incrementAndGet();
+                    if (admit(socket)) {
+                        dispatchConnection(socket);
+                    }
+                } catch (IOException e) {
+                    if (running) {
+                        acceptErrors.incrementAndGet();
+                        System.err.println("Accept error: " + e.getMessage());
+                    }
+                }
+            }
+        }, "Acceptor-" + number);
+        acceptorThreads.add(acceptor);
+        acceptor.start();
+    }
+
+    /**
+     * Runs the admission check, if any. A refused client is sent the reason and disconnected;
+     * the socket's send buffer is empty, so the write does not block the acceptor thread.
+     * @return True if the connection should be dispatched.
+     */
+    private boolean admit(Socket socket) {
+        AdmissionController controller = admission;
+        if (controller == null) {
+            return true;
+        }
+        AdmissionController.Decision decision = controller.admit(socket.getInetAddress(), waitingForWorker());
+        if (decision == AdmissionController.Decision.ADMITTED) {
+            return true;
+        }
+        try {
+            OutputStream out = socket.getOutputStream();
+            out.write((decision.rejectionMessage() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            // The client is already gone
+        }
+        closeQuietly(socket);
+        return false;
+    }
+
+    /**
+     * Hands an accepted socket to a worker pool. Only the bookkeeping happens on the
+     * acceptor thread; the connection handler runs on the chosen worker.
+     */
+    private void dispatchConnection(Socket socket) {
+        Worker worker = chooseWorker();
+        worker.openConnections.incrementAndGet();
+        worker.dispatched.incrementAndGet();
+        openSockets.add(socket);
+        try {
+            worker.executor.execute(() -> {
+                try {
+                    connectionHandler.accept(socket);
+                } finally {
+                    openSockets.remove(socket);
+                    worker.openConnections.decrementAndGet();
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            openSockets.remove(socket);
+            worker.openConnections.decrementAndGet();
+            release();
+            closeQuietly(socket);
+        }
+    }
+
+    private void release() {
+        AdmissionController controller = admission;
+        if (controller != null) {
+            controller.release();
+        }
+    }
+
+    private Worker chooseWorker() {
+        if (dispatch == Dispatch.ROUND_ROBIN) {
+            return workers.get(Math.floorMod(nextWorker.getAndIncrement(), workers.size()));
+        }
+        Worker least = workers.get(0);
+        for (Worker worker : workers) {
+            if (worker.openConnections.get() < least.openConnections.get()) {
+                least = worker;
+            }
+        }
+        return least;
+    }
+
+    private static boolean reusePortSupported() {
+        try (ServerSocketChannel probe = ServerSocketChannel.open()) {
+            return probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a one-line summary of accept activity and worker load.
+     * The accept rate covers the time since the previous call.
+     * @return The formatted metrics.
+     */
+    public synchronized String metrics() {
+        long now = System.nanoTime();
+        long total = accepted.get();
+        double seconds = (now - lastMetricsTime) / 1e9;
+        double rate = seconds > 0 ? (total - lastAcceptedCount) / seconds : 0;
+        lastAcceptedCount = total;
+        lastMetricsTime = now;
+
+        StringBuilder summary = new StringBuilder(String.format(
+                "Accepted: %d (%.1f/s), accept errors: %d, backlog requested: %d, waiting for a worker thread: %d, workers:",
+                total, rate, acceptErrors.get(), backlog, waitingForWorker()));
+        for (int i = 0; i < workers.size(); i++) {
+            Worker worker = workers.get(i);
+            summary.append(String.format(" [#%d open=%d dispatched=%d]", i + 1, worker.openConnections.get(), worker.dispatched.get()));
+        }
+        AdmissionController controller = admission;
+        if (controller != null) {
+            summary.append(System.lineSeparator()).append(controller.metrics());
+        }
+        return summary.toString();
+    }
+
+    private int waitingForWorker() {
+        int waiting = 0;
+        for (Worker worker : workers) {
+            waiting += worker.executor.getQueue().size();
+        }
+        return waiting;
+    }
+
+    /**
+     * Returns the task metrics of every worker pool.
+     * @return One snapshot per worker pool.
+     */
+    public List<InstrumentedThreadPoolExecutor.Snapshot> workerSnapshots() {
+        return InstrumentedThreadPoolExecutor.snapshots(getWorkerExecutors());
+    }
+
+    /**
+     * Returns the worker pools, e.g. to inspect or instrument them.
+     * @return The executors backing the worker pools.
+     */
+    public List<ExecutorService> getWorkerExecutors() {
+        List<ExecutorService> executors = new ArrayList<>();
+        for (Worker worker : workers) {
+            executors.add(worker.executor);
+        }
+        return executors;
+    }
+
+    /**
+     * Shutdown step 1: closes the listening socket(s) and waits for the acceptor threads to exit.
+     * Connections already accepted are not touched.
+     * @param timeout How long to wait for the acceptor threads.
+     * @param unit The unit of `timeout`.
+     * @return True if every acceptor thread stopped in time.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean stopAccepting(long timeout, TimeUnit unit) throws InterruptedException {
+        List<Thread> threads;
+        synchronized (this) {
+            running = false;
+            for (Closeable listener : listeners) {
+                closeQuietly(listener); // Unblocks accept() with an exception that is ignored once running is false
+            }
+            threads = new ArrayList<>(acceptorThreads);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : threads) {
+            TimeUnit.NANOSECONDS.timedJoin(thread, Math.max(1, deadline - System.nanoTime()));
+            if (thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shutdown step 2: lets the open connections finish. The input side of every socket is shut
+     * down, so a handler finishes the request it is working on, then reads end-of-stream and
+     * closes its connection. Connections still queued for a worker thread end the same way as
+     * soon as they start.
+     * @param timeout How long to wait for the handlers.
+     * @param unit The unit of `timeout`.
+     * @return True if every worker pool finished in time.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        for (Socket socket : openSockets) {
+            try {
+                socket.shutdownInput();
+            } catch (IOException e) {
+                // Already closed by its handler
+            }
+        }
+        for (Worker worker : workers) {
+            worker.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            if (!worker.executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shutdown step 3: closes the connections that are still open and interrupts their handlers.
+     * @return The number of connections that had to be closed.
+     */
+    public int closeConnections() {
+        int closed = 0;
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+            closed++;
+        }
+        for (Worker worker : workers) {
+            worker.executor.shutdownNow();
+        }
+        return closed;
+    }
+
+    /**
+     * Stops accepting, then gives the open connections up to 60 seconds to finish before
+     * closing them and interrupting their handlers.
+     */
+    @Override
+    public void close() {
+        try {
+            stopAccepting(5, TimeUnit.SECONDS);
+            if (!drain(60, TimeUnit.SECONDS)) {
+                System.out.println("Worker pools forcefully shut down; " + closeConnections() + " connection(s) closed.");
+            }
+        } catch (InterruptedException e) {
+            closeConnections();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("AcceptorGroup closed.");
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + closeable + ": " + e.getMessage());
+        }
+    }
+}
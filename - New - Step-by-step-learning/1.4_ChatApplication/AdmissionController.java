@@ -0,0 +1,149 @@
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdmissionController.java
+ * This class decides, right after `accept()` and before any stream or handler is created,
+ * whether a new connection may be served. A connection is refused when:
+ * - **RATE_LIMITED:** its source address opened connections faster than its `TokenBucket` allows
+ *   (`perIpRate` per second, bursts of up to `perIpBurst`);
+ * - **OVERLOADED:** more than `maxWaiting` accepted connections are already waiting for a worker
+ *   thread, so a new one would only queue behind them;
+ * - **AT_CAPACITY:** `maxConnections` connections are already open.
+ *
+ * A refused client is sent one short line and disconnected at once, so a misbehaving host
+ * cannot tie up the worker threads or fill the worker queues. Every decision is counted.
+ *
+ * Per-address buckets are created on first use. Every `CLEANUP_INTERVAL` decisions, buckets that
+ * have refilled completely are dropped: forgetting a full bucket changes nothing, and it keeps the
+ * map from growing with every address ever seen.
+ *
+ * Design Principles:
+ * - **Fail Fast:** Rejecting costs one small write on the acceptor thread, far less than serving the client.
+ * - **Fairness:** One address cannot use up the connection budget of everyone else.
+ * - **Observability:** Admitted and rejected connections are counted per reason in `metrics()`.
+ */
+public class AdmissionController {
+
+    /** The outcome of an admission check. */
+    public enum Decision {
+        ADMITTED(null),
+        RATE_LIMITED("SERVER: Too many connections from your address. Please try again later."),
+        OVERLOADED("SERVER: The server is busy. Please try again later."),
+        AT_CAPACITY("SERVER: The server is full. Please try again later.");
+
+        private final String rejectionMessage;
+
+        Decision(String rejectionMessage) {
+            this.rejectionMessage = rejectionMessage;
+        }
+
+        /**
+         * Returns the line sent to a refused client.
+         * @return The message, or null for `ADMITTED`.
+         */
+        public String rejectionMessage() {
+            return rejectionMessage;
+        }
+    }
+
+    private static final int CLEANUP_INTERVAL = 1024; // Decisions between sweeps of idle buckets
+
+    private final double perIpRate;
+    private final int perIpBurst;
+    private final int maxConnections;
+    private final int maxWaiting;
+    private final Map<InetAddress, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger(); // Admitted and not yet released
+    private final AtomicLong decisions = new AtomicLong();
+    private final AtomicLong[] counts = new AtomicLong[Decision.values().length]; // Per decision
+
+    /**
+     * Constructor for AdmissionController.
+     * @param perIpRate Connections per second one address may open, sustained.
+     * @param perIpBurst Connections one address may open at once after being idle.
+     * @param maxConnections Most connections open at the same time.
+     * @param maxWaiting Most accepted connections waiting for a worker thread before new ones are refused.
+     */
+    public AdmissionController(double perIpRate, int perIpBurst, int maxConnections, int maxWaiting) {
+        this.perIpRate = perIpRate;
+        this.perIpBurst = perIpBurst;
+        this.maxConnections = maxConnections;
+        this.maxWaiting = maxWaiting;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Creates a controller configured by system properties: `-Dadmission.perIpRate` (default 5 per
+     * second), `-Dadmission.perIpBurst` (default 10), `-Dadmission.maxConnections` and `-Dadmission.maxWaiting`.
+     * @param defaultMaxConnections The default for `admission.maxConnections`.
+     * @param defaultMaxWaiting The default for `admission.maxWaiting`.
+     * @return The controller.
+     */
+    public static AdmissionController fromSystemProperties(int defaultMaxConnections, int defaultMaxWaiting) {
+        return new AdmissionController(
+                Double.parseDouble(System.getProperty("admission.perIpRate", "5")),
+                Integer.getInteger("admission.perIpBurst", 10),
+                Integer.getInteger("admission.maxConnections", defaultMaxConnections),
+                Integer.getInteger("admission.maxWaiting", defaultMaxWaiting));
+    }
+
+    /**
+     * Decides whether a new connection is served. An `ADMITTED` connection holds one of the
+     * `maxConnections` slots until `release()` is called.
+     * @param address The client's address.
+     * @param waitingForWorker Accepted connections currently waiting for a worker thread.
+     * @return The decision.
+     */
+    public Decision admit(InetAddress address, int waitingForWorker) {
+        if (decisions.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            buckets.values().removeIf(TokenBucket::isFull);
+        }
+        Decision decision = decide(address, waitingForWorker);
+        counts[decision.ordinal()].incrementAndGet();
+        return decision;
+    }
+
+    private Decision decide(InetAddress address, int waitingForWorker) {
+        // Every attempt costs a token, even one refused for another reason, so retrying in a loop does not help
+        TokenBucket bucket = buckets.computeIfAbsent(address, a -> new TokenBucket(perIpRate, perIpBurst));
+        if (!bucket.tryAcquire(1)) {
+            return Decision.RATE_LIMITED;
+        }
+        if (waitingForWorker > maxWaiting) {
+            return Decision.OVERLOADED;
+        }
+        while (true) {
+            int open = openConnections.get();
+            if (open >= maxConnections) {
+                return Decision.AT_CAPACITY;
+            }
+            if (openConnections.compareAndSet(open, open + 1)) {
+                return Decision.ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of an admitted connection once it has closed.
+     */
+    public void release() {
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * Returns a one-line summary of admission decisions.
+     * @return The formatted counters.
+     */
+    public String metrics() {
+        return String.format("Admission: admitted %d, open %d/%d, rejected: rate-limited %d, overloaded %d, at capacity %d, tracked addresses %d",
+                counts[Decision.ADMITTED.ordinal()].get(), openConnections.get(), maxConnections,
+                counts[Decision.RATE_LIMITED.ordinal()].get(), counts[Decision.OVERLOADED.ordinal()].get(),
+                counts[Decision.AT_CAPACITY.ordinal()].get(), buckets.size());
+    }
+}
@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AsyncTransport.java
+ * This class is the completion-based transport, built on NIO.2 `AsynchronousSocketChannel`.
+ * Reads and writes are submitted to the channel and a `CompletionHandler` runs when the
+ * operation has finished, on a small fixed thread group shared by all connections.
+ * Each connection keeps exactly one read and at most one write outstanding. Lines sent while a
+ * write is in flight are queued and go out together in the next write, so under load the
+ * number of write calls per line drops well below one. A client that stops reading is
+ * disconnected once `Transport.MAX_QUEUED_BYTES` are waiting for it.
+ *
+ * Java has no io_uring binding; on Linux this API is implemented with epoll, so it shows what a
+ * completion-style, submit-and-batch API buys at the application level.
+ *
+ * Design Principles:
+ * - **Completion-Based I/O:** No thread ever blocks on a socket.
+ * - **Write Batching:** One outstanding write per connection; everything queued meanwhile is written next in one call.
+ * - **Bounded Memory:** The bytes queued per connection are capped.
+ * - **Serialized Reads:** Only one read per connection is outstanding, so `onLine` calls for a connection never overlap.
+ */
+public class AsyncTransport implements Transport {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final TransportStats stats = new TransportStats();
+    private final int threads; // Size of the completion thread group
+    private final Set<AsyncConnection> openConnections = ConcurrentHashMap.newKeySet();
+    private AsynchronousChannelGroup group;
+    private AsynchronousServerSocketChannel serverChannel;
+    private Handler handler;
+
+    /**
+     * Constructor for AsyncTransport.
+     * @param threads Number of threads that run completion handlers.
+     */
+    public AsyncTransport(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public int start(int port, Handler handler) throws IOException {
+        this.handler = handler;
+        AtomicInteger threadNumber = new AtomicInteger();
+        group = AsynchronousChannelGroup.withFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "AsyncTransport-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        serverChannel = AsynchronousServerSocketChannel.open(group).bind(new InetSocketAddress(port), 1024);
+        serverChannel.accept(null, new CompletionHandler<AsynchronousSocketChannel, Void>() {
+            @Override
+            public void completed(AsynchronousSocketChannel channel, Void unused) {
+                serverChannel.accept(null, this); // Keep accepting while this connection is set up
+                try {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    AsyncConnection connection = new AsyncConnection(channel);
+                    openConnections.add(connection);
+                    handler.onOpen(connection);
+                    connection.readNext();
+                } catch (IOException e) {
+                    System.err.println("Error setting up connection: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void unused) {
+                if (serverChannel.isOpen()) {
+                    System.err.println("Accept error: " + error.getMessage());
+                    serverChannel.accept(null, this);
+                }
+            }
+        });
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    private final class AsyncConnection implements Connection {
+        final AsynchronousSocketChannel channel;
+        final String address;
+        final LineDecoder decoder = new LineDecoder();
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        final Queue<byte[]> outbox = new ConcurrentLinkedQueue<>(); // Encoded lines not yet handed to a write
+        final AtomicBoolean writing = new AtomicBoolean(); // True while a write is outstanding
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicLong queuedBytes = new AtomicLong(); // Sent to this connection but not yet written
+        volatile boolean closeRequested = false;
+        volatile boolean overflowed = false; // Too much unsent; the channel has been closed
+        private volatile Object attachment;
+
+        AsyncConnection(AsynchronousSocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.address = ((InetSocketAddress) channel.getRemoteAddress()).getAddress().getHostAddress();
+        }
+
+        void readNext() {
+            readBuffer.clear();
+            stats.readCalls.increment();
+            channel.read(readBuffer, null, new CompletionHandler<Integer, Void>() {
+                @Override
+                public void completed(Integer read, Void unused) {
+                    if (read < 0) {
+                        closeNow();
+                        return;
+                    }
+                    stats.bytesIn.add(read);
+                    readBuffer.flip();
+                    try {
+                        decoder.decode(readBuffer, line -> {
+                            stats.linesIn.increment();
+                            handler.onLine(AsyncConnection.this, line);
+                        });
+                    } catch (IOException e) {
+                        closeNow();
+                        return;
+                    }
+                    if (!closed.get()) {
+                        readNext();
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void unused) {
+                    closeNow();
+                }
+            });
+        }
+
+        @Override
+        public void send(String line) {
+            if (overflowed || closed.get()) {
+                return;
+            }
+            byte[] bytes = LineDecoder.encode(line);
+            if (queuedBytes.addAndGet(bytes.length) > MAX_QUEUED_BYTES) {
+                overflowed = true;
+                System.err.println("Disconnecting " + address + ": more than " + MAX_QUEUED_BYTES + " bytes unsent.");
+                try {
+                    channel.close(); // The outstanding read fails and runs closeNow() on a completion thread
+                } catch (IOException e) {
+                    System.err.println("Error closing connection: " + e.getMessage());
+                }
+                return;
+            }
+            outbox.add(bytes);
+            stats.linesOut.increment();
+            if (writing.compareAndSet(false, true)) {
+                writeQueued();
+            }
+        }
+
+        /**
+         * Gathers every queued line into one buffer and writes it. Called only by the
+         * thread that owns the `writing` flag.
+         */
+        private void writeQueued() {
+            List<byte[]> lines = new ArrayList<>();
+            int size = 0;
+            byte[] line;
+            while ((line = outbox.poll()) != null) {
+                lines.add(line);
+                size += line.length;
+            }
+            if (lines.isEmpty()) {
+                writing.set(false);
+                // A line may have been queued after the poll but before the flag was cleared
+                if (!outbox.isEmpty() && writing.compareAndSet(false, true)) {
+                    writeQueued();
+                } else if (closeRequested) {
+                    closeNow();
+                }
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (byte[] bytes : lines) {
+                buffer.put(bytes);
+            }
+            buffer.flip();
+            write(buffer);
+        }
+
+        private void write(ByteBuffer buffer) {
+            stats.writeCalls.increment();
+            channel.write(buffer, null, new CompletionHandler<Integer, Void>() {
+                @Override
+                public void completed(Integer written, Void unused) {
+                    stats.bytesOut.add(written);
+                    queuedBytes.addAndGet(-written);
+                    if (buffer.hasRemaining()) {
+                        write(buffer); // Partial write; send the rest before anything newer
+                    } else {
+                        writeQueued();
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void unused) {
+                    closeNow();
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            closeRequested = true;
+            if (writing.compareAndSet(false, true)) {
+                writeQueued(); // Flushes what is queued, then closes
+            }
+        }
+
+        void closeNow() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            openConnections.remove(this);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+            handler.onClose(this);
+        }
+
+        @Override
+        public String remoteAddress() {
+            return address;
+        }
+
+        @Override
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        @Override
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+    }
+
+    @Override
+    public TransportStats stats() {
+        return stats;
+    }
+
+    @Override
+    public String name() {
+        return "async";
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        for (AsyncConnection connection : openConnections) {
+            connection.closeNow();
+        }
+        if (group != null) {
+            group.shutdown();
+        }
+    }
+}
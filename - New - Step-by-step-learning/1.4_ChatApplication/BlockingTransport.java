@@ -0,0 +1,191 @@
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BlockingTransport.java
+ * This class is the classic thread-per-connection transport, doing exactly what
+ * `ClientHandlerChat` does: `BufferedReader.readLine()` for input and an auto-flushing
+ * `PrintWriter.println()` for output. Every line sent costs one socket write.
+ * It is the baseline the other transports are measured against.
+ *
+ * Design Principles:
+ * - **Simplicity:** Straight-line blocking code, one thread per client.
+ * - **Measurability:** The socket streams are wrapped to count the read and write calls that reach the socket.
+ */
+public class BlockingTransport implements Transport {
+    private final TransportStats stats = new TransportStats();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final ExecutorService connectionThreads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "BlockingTransport-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ServerSocket serverSocket;
+    private volatile boolean running = false;
+
+    @Override
+    public int start(int port, Handler handler) throws IOException {
+        serverSocket = new ServerSocket(port, 1024);
+        running = true;
+        Thread acceptor = new Thread(() -> {
+            while (running) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connectionThreads.execute(() -> serve(socket, handler));
+                } catch (IOException e) {
+                    if (running) {
+                        System.err.println("Accept error: " + e.getMessage());
+                    }
+                }
+            }
+        }, "BlockingTransport-Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Runs one connection on its own thread: read lines until the client disconnects.
+     */
+    private void serve(Socket socket, Handler handler) {
+        openSockets.add(socket);
+        BlockingConnection connection = null;
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(new CountingInputStream(socket.getInputStream()), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(new CountingOutputStream(socket.getOutputStream()), StandardCharsets.UTF_8), true);
+            connection = new BlockingConnection(socket, out);
+            handler.onOpen(connection);
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                stats.linesIn.increment();
+                handler.onLine(connection, line);
+            }
+        } catch (IOException e) {
+            // Connection reset or closed; fall through to onClose
+        } finally {
+            openSockets.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                System.err.println("Error closing socket: " + e.getMessage());
+            }
+            if (connection != null) {
+                handler.onClose(connection);
+            }
+        }
+    }
+
+    private final class BlockingConnection implements Connection {
+        private final Socket socket;
+        private final PrintWriter out; // PrintWriter locks internally, so any thread may send
+        private final String address;
+        private volatile Object attachment;
+
+        BlockingConnection(Socket socket, PrintWriter out) {
+            this.socket = socket;
+            this.out = out;
+            this.address = socket.getInetAddress().getHostAddress();
+        }
+
+        @Override
+        public void send(String line) {
+            out.println(line); // Auto-flush: one socket write per line
+            stats.linesOut.increment();
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close(); // The reading thread sees the closed socket and runs onClose
+            } catch (IOException e) {
+                System.err.println("Error closing socket: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public String remoteAddress() {
+            return address;
+        }
+
+        @Override
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        @Override
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+    }
+
+    /** Counts every read call that reaches the socket. */
+    private final class CountingInputStream extends FilterInputStream {
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            stats.readCalls.increment();
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                stats.bytesIn.add(read);
+            }
+            return read;
+        }
+    }
+
+    /** Counts every write call that reaches the socket. */
+    private final class CountingOutputStream extends FilterOutputStream {
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            stats.writeCalls.increment();
+            stats.bytesOut.add(length);
+            out.write(buffer, offset, length); // FilterOutputStream would otherwise write byte by byte
+        }
+    }
+
+    @Override
+    public TransportStats stats() {
+        return stats;
+    }
+
+    @Override
+    public String name() {
+        return "blocking";
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+        connectionThreads.shutdown();
+    }
+}
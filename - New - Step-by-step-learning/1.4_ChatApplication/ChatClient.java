@@ -11,6 +11,9 @@ import java.util.Scanner;
  * `ChatServer`, allows the user to enter a name, send messages to specific recipients,
  * and receive messages from other participants in the chat.
  *
+ * If the server offers compression (`CAPS deflate`), the client accepts it, unless started with
+ * `-Dchat.compression=false`, and decodes the compressed lines it receives with `CompressedLineCodec`.
+ *
  * Design Principles:
  * - **Modularity:** Encapsulates client-side chat logic.
  * - **Resource Management:** Ensures proper closing of sockets and streams.
@@ -18,9 +21,10 @@ import java.util.Scanner;
  * - **Concurrency:** Uses a separate thread to continuously read server messages,
  *   allowing the main thread to handle user input for sending messages.
  * - **Robustness:** Handles server disconnections and I/O errors.
+ * - **Bandwidth:** Long lines from the server, like big user lists, arrive compressed when both sides support it.
  *
  * Execution Steps:
- * 1. Compile: `javac ChatClient.java`
+ * 1. Compile: `javac ChatClient.java CompressedLineCodec.java`
  * 2. Run: `java ChatClient`
  *    The client will connect to `localhost` on port 12345.
  *    You will be prompted to enter your name. Then you can start sending messages.
@@ -30,6 +34,7 @@ import java.util.Scanner;
 public class ChatClient {
     private static final String SERVER_ADDRESS = "localhost";
     private static final int SERVER_PORT = 12345;
+    private static final boolean ACCEPT_COMPRESSION = Boolean.parseBoolean(System.getProperty("chat.compression", "true"));
 
     public static void main(String[] args) {
         System.out.println("Chat Client started.");
@@ -47,22 +52,19 @@ public class ChatClient {
             out = new PrintWriter(socket.getOutputStream(), true);
             scanner = new Scanner(System.in);
 
-            // Thread to read messages from the server
-            Thread readThread = new Thread(() -> {
-                try {
-                    String serverResponse;
-                    while ((serverResponse = in.readLine()) != null) {
-                        System.out.println(serverResponse);
-                    }
-                } catch (IOException e) {
-                    System.err.println("Disconnected from server or error reading: " + e.getMessage());
-                }
-            });
-            readThread.start();
-
-            // Handle initial name registration with the server
+            // Handle compression negotiation and initial name registration with the server
+            CompressedLineCodec codec = null; // Set once compression is accepted
             String serverPrompt;
             while ((serverPrompt = in.readLine()) != null) {
+                if (codec != null) {
+                    serverPrompt = codec.decode(serverPrompt);
+                } else if (serverPrompt.equals(CompressedLineCodec.CAPABILITY)) {
+                    if (ACCEPT_COMPRESSION) {
+                        out.println(CompressedLineCodec.CAPABILITY); // Sent before the name, as the server expects
+                        codec = new CompressedLineCodec(Integer.MAX_VALUE); // Only decodes; nothing is sent compressed
+                    }
+                    continue;
+                }
                 System.out.println(serverPrompt);
                 if (serverPrompt.startsWith("SERVER: Enter your unique name:")) {
                     String clientName = scanner.nextLine();
@@ -76,6 +78,22 @@ public class ChatClient {
                 }
             }
 
+            // Thread to read messages from the server, started only now so it does not compete
+            // with the registration loop for the server's lines
+            BufferedReader reader = in;
+            CompressedLineCodec decoder = codec;
+            Thread readThread = new Thread(() -> {
+                try {
+                    String serverResponse;
+                    while ((serverResponse = reader.readLine()) != null) {
+                        System.out.println(decoder == null ? serverResponse : decoder.decode(serverResponse));
+                    }
+                } catch (IOException e) {
+                    System.err.println("Disconnected from server or error reading: " + e.getMessage());
+                }
+            });
+            readThread.start();
+
             // Main thread to send messages to the server
             String messageToSend;
             while (true) {
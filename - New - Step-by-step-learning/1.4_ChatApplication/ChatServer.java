@@ -1,9 +1,6 @@
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -11,65 +8,108 @@ import java.util.concurrent.TimeUnit;
  * This class implements a multi-user chat server. It listens for incoming client connections,
  * and for each connection, it creates a `ClientHandlerChat` to manage communication.
  * It maintains a map of all connected clients (name to handler) to facilitate direct messaging.
+ * Connections are accepted by an `AcceptorGroup` (several accept threads, optionally with
+ * `SO_REUSEPORT`) that dispatches them to worker pools round-robin or least-loaded.
+ * Outgoing lines are queued in each connection's `Mailbox` and written by that connection's own
+ * writer thread, so a client sending a private message never writes to another client's socket,
+ * and a client that stops reading cannot hold up the writes to anyone else.
+ *
+ * Before a connection is dispatched, an `AdmissionController` checks it: an address opening
+ * connections faster than `-Dadmission.perIpRate` per second (bursts of `-Dadmission.perIpBurst`),
+ * more than `-Dadmission.maxConnections` open connections, or more than `-Dadmission.maxWaiting`
+ * connections queued for a worker thread (default 20 and 0) get a one-line refusal instead of a handler.
+ *
+ * On Ctrl+C (or SIGTERM) a `LifecycleManager` shuts the server down in phases: stop accepting,
+ * tell every client the server is going down and let them finish for up to
+ * `-Dserver.drainSeconds` (default 10), then close the connections that are left. The
+ * shutdown report shows how long each phase took.
  *
  * Design Principles:
  * - **Modularity:** Separates server responsibilities (accepting connections) from client handling (`ClientHandlerChat`).
  * - **Concurrency:** Uses an `ExecutorService` to efficiently manage threads for multiple clients.
- * - **Shared State Management:** Uses a `ConcurrentHashMap` to safely manage the map of active client handlers
- *   across multiple threads, allowing for name-based lookup.
+ * - **Shared State Management:** Uses a `UserRegistry` to safely manage the active client handlers across
+ *   multiple threads: names are claimed atomically and looked up ignoring case, by exact name or prefix.
  * - **Robustness:** Includes comprehensive error handling and graceful shutdown procedures.
- * - **Scalability:** Designed to handle multiple concurrent clients.
+ * - **Graceful Shutdown:** Ordered phases with a drain deadline instead of closing everything at once.
+ * - **Scalability:** Designed to handle multiple concurrent clients; accepting is spread over several threads.
  *
  * Execution Steps:
- * 1. Compile: `javac ChatServer.java ClientHandlerChat.java`
+ * 1. Compile: `javac ChatServer.java ClientHandlerChat.java Mailbox.java UserRegistry.java CompressedLineCodec.java AcceptorGroup.java AdmissionController.java TokenBucket.java InstrumentedThreadPoolExecutor.java LifecycleManager.java`
  * 2. Run: `java ChatServer`
  *    The server will start and listen on port 12345.
  *    It will accept multiple client connections, and clients can send direct messages to each other.
+ *    Optional: `java -Dacceptor.mode=REUSE_PORT -Dacceptor.dispatch=LEAST_LOADED ChatServer`
  */
 public class ChatServer {
     private static final int PORT = 12345;
     private static final int THREAD_POOL_SIZE = 20; // Max concurrent clients
+    private static final int ACCEPTOR_THREADS = 2; // Threads calling accept()
+    private static final int WORKER_POOLS = 4; // THREAD_POOL_SIZE is split evenly across these pools
+    private static final int BACKLOG = 128; // Pending connections the OS may queue per listening socket
+    private static final int METRICS_INTERVAL_SECONDS = 30;
 
     // A thread-safe map to keep track of all connected client handlers, mapping client names to their handlers
-    private static ConcurrentHashMap<String, ClientHandlerChat> clientHandlers = new ConcurrentHashMap<>();
+    private static UserRegistry<ClientHandlerChat> clientHandlers = new UserRegistry<>();
 
     public static void main(String[] args) {
         System.out.println("Chat Server started. Listening on port " + PORT);
-        ServerSocket serverSocket = null;
-        ExecutorService executorService = null;
 
-        try {
-            serverSocket = new ServerSocket(PORT);
-            executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+        AcceptorGroup acceptorGroup = new AcceptorGroup(
+                PORT, ACCEPTOR_THREADS, BACKLOG,
+                AcceptorGroup.Mode.valueOf(System.getProperty("acceptor.mode", "SHARED_SOCKET")),
+                AcceptorGroup.Dispatch.valueOf(System.getProperty("acceptor.dispatch", "LEAST_LOADED")),
+                WORKER_POOLS, THREAD_POOL_SIZE / WORKER_POOLS,
+                clientSocket -> {
+                    // Runs on the worker thread, so logging and construction stay off the accept path
+                    System.out.println("New client connected from: " + clientSocket.getInetAddress().getHostAddress());
+                    new ClientHandlerChat(clientSocket, clientHandlers).run();
+                });
+        // A chat client keeps its worker thread for the whole session, so queueing for one is
+        // pointless: beyond the pool size, refuse at once (unless configured otherwise)
+        acceptorGroup.setAdmissionController(AdmissionController.fromSystemProperties(THREAD_POOL_SIZE, 0));
 
-            System.out.println("Waiting for clients to connect...");
-            while (true) { // Server runs indefinitely
-                Socket clientSocket = serverSocket.accept();
-                System.out.println("New client connected from: " + clientSocket.getInetAddress().getHostAddress());
+        ScheduledExecutorService metricsReporter = Executors.newSingleThreadScheduledExecutor();
+        metricsReporter.scheduleAtFixedRate(() -> {
+            System.out.println(acceptorGroup.metrics());
+            acceptorGroup.workerSnapshots().forEach(System.out::println); // Queue wait and handler time per pool
+            System.out.println(ClientHandlerChat.throttleMetrics());
+            System.out.println(CompressedLineCodec.totals());
+        }, METRICS_INTERVAL_SECONDS, METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS);
 
-                ClientHandlerChat clientHandler = new ClientHandlerChat(clientSocket, clientHandlers);
-                executorService.execute(clientHandler);
+        // Shutdown phases: stop accepting, warn and drain the connected clients, close what is left
+        LifecycleManager lifecycle = new LifecycleManager("Chat Server",
+                Long.getLong("server.drainSeconds", 10), TimeUnit.SECONDS);
+        lifecycle.register(LifecycleManager.Phase.STOP_ACCEPTING, "close listening sockets",
+                deadline -> acceptorGroup.stopAccepting(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS));
+        lifecycle.register(LifecycleManager.Phase.DRAIN, "notify clients and drain", deadline -> {
+            for (ClientHandlerChat handler : clientHandlers.values()) {
+                handler.sendMessage("SERVER: The server is shutting down. Goodbye!");
             }
+            return acceptorGroup.drain(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        });
+        lifecycle.register(LifecycleManager.Phase.CLOSE, "close remaining connections",
+                deadline -> acceptorGroup.closeConnections() == 0);
+        lifecycle.register(LifecycleManager.Phase.CLOSE, "stop metrics reporter", deadline -> {
+            metricsReporter.shutdownNow();
+            System.out.println(acceptorGroup.metrics());
+            System.out.println(ClientHandlerChat.throttleMetrics());
+            System.out.println(CompressedLineCodec.totals());
+            return true;
+        });
+        lifecycle.installShutdownHook();
+
+        try {
+            acceptorGroup.start();
+            System.out.println("Waiting for clients to connect... (Ctrl+C to shut down)");
+            lifecycle.awaitTermination(); // Server runs until the shutdown hook has run every phase
         } catch (IOException e) {
             System.err.println("Server error: " + e.getMessage());
-        } finally {
-            try {
-                if (serverSocket != null) {
-                    serverSocket.close();
-                    System.out.println("Server socket closed.");
-                }
-                if (executorService != null) {
-                    executorService.shutdown();
-                    System.out.println("Shutting down thread pool...");
-                    if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                        executorService.shutdownNow();
-                        System.out.println("Thread pool forcefully shut down.");
-                    }
-                }
-                System.out.println("Chat Server resources closed.");
-            } catch (IOException | InterruptedException e) {
-                System.err.println("Error closing server resources: " + e.getMessage());
-            }
+            System.out.println(lifecycle.shutdown());
+        } catch (InterruptedException e) {
+            System.err.println("Server interrupted.");
+            Thread.currentThread().interrupt();
+            System.out.println(lifecycle.shutdown());
         }
+        System.out.println("Chat Server resources closed.");
     }
 }
@@ -3,43 +3,113 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ClientHandlerChat.java
  * This class handles communication with a single chat client. It reads messages from its client
  * and forwards them to a specific recipient based on the recipient's name.
  *
+ * Nothing writes to the client's socket directly: every outgoing line, whether a reply from this
+ * handler or a private message from another client's handler, goes through the connection's
+ * `Mailbox`, which a single writer drains. Senders never wait for the recipient's socket, and since
+ * each connection has its own writer thread, a client that stops reading only stalls its own writes.
+ *
+ * Names are claimed in a shared `UserRegistry`, atomically and ignoring case, so "Bob" and "bob"
+ * cannot both join and "bob: hi" reaches "Bob". `list <prefix>` lists the users whose name
+ * starts with the prefix, and a line of just `@prefix` autocompletes a name.
+ *
+ * Each session has two `TokenBucket`s: one for private messages and one for commands. Every line
+ * costs tokens before it is handled (`COST_MESSAGE`, `COST_LIST` and so on: a full roster costs more
+ * than a chat line). When a bucket is empty the handler waits for it to refill before handling the
+ * line and reading the next one, so a flooding client is slowed down by TCP backpressure instead of
+ * having its lines dropped, and cannot take more than its share of the server.
+ *
+ * Before the first prompt the server offers compression (`CAPS deflate`). A client that answers
+ * with the same line before its name gets long lines, such as big rosters, as compressed frames
+ * (see `CompressedLineCodec`); the handler reports the connection's compression stats when it ends.
+ *
  * Design Principles:
  * - **Modularity:** Encapsulates client-specific chat logic.
  * - **Concurrency:** Implements `Runnable` to allow each client to be handled in a separate thread.
  * - **Resource Management:** Ensures proper closing of client-specific sockets and streams.
  * - **Direct Messaging:** Facilitates one-to-one communication between clients via the server.
+ * - **Single Writer:** Outgoing lines are queued in a per-connection `Mailbox` instead of written concurrently.
  * - **Robustness:** Handles client disconnections and invalid recipient names gracefully.
+ * - **Flood Protection:** Per-session rate limits pause reading from an abusive client instead of dropping its data.
  */
 public class ClientHandlerChat implements Runnable {
     private Socket clientSocket;
     private BufferedReader in;
     private PrintWriter out;
     private String clientName;
-    private ConcurrentHashMap<String, ClientHandlerChat> clientHandlers; // Reference to all connected clients
+    private static final int LIST_LIMIT = 50; // Most names shown by 'list' and '@' completion
+
+    // Token costs of a line, by what the server has to do for it
+    private static final double COST_MESSAGE = 1; // Private message: one write to another client
+    private static final double COST_COMPLETE = 2; // '@prefix' or 'list <prefix>': a bounded range scan
+    private static final double COST_LIST = 5; // 'list': the whole roster, sorted and formatted
+    private static final double COST_OTHER = 1; // Unknown or malformed lines still cost a reply
+
+    // Per-session rates, the same for every client: -Dchat.messageRate (lines/s) and -Dchat.commandRate (tokens/s)
+    private static final double MESSAGE_RATE = Double.parseDouble(System.getProperty("chat.messageRate", "10"));
+    private static final double MESSAGE_BURST = Double.parseDouble(System.getProperty("chat.messageBurst", "20"));
+    private static final double COMMAND_RATE = Double.parseDouble(System.getProperty("chat.commandRate", "2"));
+    private static final double COMMAND_BURST = Double.parseDouble(System.getProperty("chat.commandBurst", "10"));
+
+    private static final AtomicLong throttledLines = new AtomicLong(); // Lines, over all sessions, that had to wait
+    private static final AtomicLong throttledNanos = new AtomicLong(); // Total time they waited
+
+    private final TokenBucket messageBucket = new TokenBucket(MESSAGE_RATE, MESSAGE_BURST);
+    private final TokenBucket commandBucket = new TokenBucket(COMMAND_RATE, Math.max(COMMAND_BURST, COST_LIST));
+    private boolean throttled = false; // True while this client's lines are being delayed; it is told once per episode
+
+    // Compression of long outgoing lines: -Dchat.compression=false turns the offer off
+    private static final boolean OFFER_COMPRESSION = Boolean.parseBoolean(System.getProperty("chat.compression", "true"));
+    private static final int COMPRESS_THRESHOLD = Integer.getInteger("chat.compressThreshold", 256); // Characters
+    private CompressedLineCodec codec; // Set if the client accepted compression
+
+    private UserRegistry<ClientHandlerChat> clientHandlers; // Reference to all connected clients
+    private final Executor mailboxWriter; // Drains the mailbox; null: a writer thread of this connection's own
+    private ExecutorService ownWriter; // This connection's writer thread, if it has one
+    private volatile Mailbox mailbox; // Outgoing lines; created once the output stream is open
+
+    /**
+     * Constructor for ClientHandlerChat. The mailbox is drained by a writer thread of the connection's own,
+     * started with the session and stopped when it ends.
+     * @param socket The client socket connected to this handler.
+     * @param clientHandlers The registry of all active client handlers in the chat server (name -> handler).
+     */
+    public ClientHandlerChat(Socket socket, UserRegistry<ClientHandlerChat> clientHandlers) {
+        this(socket, clientHandlers, null);
+    }
 
     /**
      * Constructor for ClientHandlerChat.
      * @param socket The client socket connected to this handler.
-     * @param clientHandlers A map of all active client handlers in the chat server (name -> handler).
+     * @param clientHandlers The registry of all active client handlers in the chat server (name -> handler).
+     * @param mailboxWriter Runs the task that writes queued lines to the client, e.g. `Runnable::run` to write on
+     *                      the sending thread; null gives the connection a writer thread of its own.
      */
-    public ClientHandlerChat(Socket socket, ConcurrentHashMap<String, ClientHandlerChat> clientHandlers) {
+    public ClientHandlerChat(Socket socket, UserRegistry<ClientHandlerChat> clientHandlers, Executor mailboxWriter) {
         this.clientSocket = socket;
         this.clientHandlers = clientHandlers;
+        this.mailboxWriter = mailboxWriter;
     }
 
     /**
-     * Sends a message to this specific client.
+     * Sends a message to this specific client. The line is queued in the client's mailbox; this never blocks.
      * @param message The message to send.
+     * @return False if the client is not reading fast enough (its mailbox is full) or has left.
      */
-    public void sendMessage(String message) {
-        out.println(message);
+    public boolean sendMessage(String message) {
+        Mailbox target = mailbox;
+        return target != null && target.deliver(message);
     }
 
     /**
@@ -50,25 +120,47 @@ public class ClientHandlerChat implements Runnable {
     public void run() {
         try {
             in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            out = new PrintWriter(clientSocket.getOutputStream(), true);
+            out = new PrintWriter(clientSocket.getOutputStream()); // Flushed by the mailbox, once per batch of lines
+            Executor writer = mailboxWriter;
+            if (writer == null) {
+                String writerName = "Mailbox-Writer-" + clientSocket.getRemoteSocketAddress();
+                ownWriter = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, writerName));
+                writer = ownWriter;
+            }
+            mailbox = new Mailbox(out, writer);
 
-            // 1. Ask client for their name and register it
+            // 1. Offer compression, then ask client for their name and register it
+            if (OFFER_COMPRESSION) {
+                sendMessage(CompressedLineCodec.CAPABILITY);
+            }
+            boolean prompt = true;
             while (true) {
-                out.println("SERVER: Enter your unique name:");
-                clientName = in.readLine();
-                if (clientName == null) {
+                if (prompt) {
+                    sendMessage("SERVER: Enter your unique name:");
+                }
+                prompt = true;
+                String requestedName = in.readLine();
+                if (requestedName == null) {
                     // Client disconnected before providing a name
                     return;
                 }
-                clientName = clientName.trim();
-                if (clientName.isEmpty()) {
-                    out.println("SERVER: Name cannot be empty. Please try again.");
-                } else if (clientHandlers.containsKey(clientName)) {
-                    out.println("SERVER: Name '" + clientName + "' is already taken. Please choose another.");
+                if (OFFER_COMPRESSION && codec == null && requestedName.equals(CompressedLineCodec.CAPABILITY)) {
+                    // Accepted; the client sends its name next, answering the prompt it already has
+                    codec = new CompressedLineCodec(COMPRESS_THRESHOLD);
+                    mailbox.setCodec(codec);
+                    prompt = false;
+                    continue;
+                }
+                requestedName = requestedName.trim();
+                String problem = UserRegistry.validate(requestedName);
+                if (problem != null) {
+                    sendMessage("SERVER: " + problem + " Please try again.");
+                } else if (!clientHandlers.claim(requestedName, this)) { // Atomic: no check-then-put race
+                    sendMessage("SERVER: Name '" + requestedName + "' is already taken. Please choose another.");
                 } else {
-                    clientHandlers.put(clientName, this);
+                    clientName = requestedName;
                     System.out.println(clientName + " has joined the chat from " + clientSocket.getInetAddress().getHostAddress());
-                    sendMessage("SERVER: Welcome, " + clientName + "! Type 'list' to see online users. To send a message, use format 'RecipientName: Your message'. Type 'bye' to exit.");
+                    sendMessage("SERVER: Welcome, " + clientName + "! Type 'list' (or 'list <prefix>') to see online users and '@<prefix>' to complete a name. To send a message, use format 'RecipientName: Your message'. Type 'bye' to exit.");
                     break;
                 }
             }
@@ -76,13 +168,23 @@ public class ClientHandlerChat implements Runnable {
             String clientMessage;
             // 2. Read messages from the client and process them
             while ((clientMessage = in.readLine()) != null) {
+                if (!pace(clientMessage)) {
+                    break; // Interrupted while waiting: the server is closing connections
+                }
                 if (clientMessage.equalsIgnoreCase("bye")) {
                     break;
                 } else if (clientMessage.equalsIgnoreCase("list")) {
-                    listOnlineUsers();
+                    listOnlineUsers("");
+                } else if (clientMessage.regionMatches(true, 0, "list ", 0, 5)) {
+                    listOnlineUsers(clientMessage.substring(5).trim());
+                } else if (clientMessage.startsWith("@") && !clientMessage.contains(":") && !clientMessage.trim().contains(" ")) {
+                    completeName(clientMessage.trim().substring(1));
                 } else if (clientMessage.contains(":")) {
                     int colonIndex = clientMessage.indexOf(":");
                     String recipientName = clientMessage.substring(0, colonIndex).trim();
+                    if (recipientName.startsWith("@")) {
+                        recipientName = recipientName.substring(1); // "@Bob: hi" works like "Bob: hi"
+                    }
                     String messageContent = clientMessage.substring(colonIndex + 1).trim();
 
                     if (recipientName.isEmpty() || messageContent.isEmpty()) {
@@ -90,11 +192,15 @@ public class ClientHandlerChat implements Runnable {
                         continue;
                     }
 
-                    ClientHandlerChat recipientHandler = clientHandlers.get(recipientName);
+                    ClientHandlerChat recipientHandler = clientHandlers.get(recipientName); // Ignores case
                     if (recipientHandler != null) {
-                        recipientHandler.sendMessage(clientName + " (private): " + messageContent);
-                        sendMessage("SERVER: Message sent to " + recipientName + ".");
-                        System.out.println(clientName + " sent to " + recipientName + ": " + messageContent);
+                        recipientName = recipientHandler.clientName; // As the recipient wrote it
+                        if (recipientHandler.sendMessage(clientName + " (private): " + messageContent)) {
+                            sendMessage("SERVER: Message sent to " + recipientName + ".");
+                            System.out.println(clientName + " sent to " + recipientName + ": " + messageContent);
+                        } else {
+                            sendMessage("SERVER: " + recipientName + " is not receiving messages right now; message dropped.");
+                        }
                     } else {
                         sendMessage("SERVER: User '" + recipientName + "' not found or offline.");
                     }
@@ -106,7 +212,17 @@ public class ClientHandlerChat implements Runnable {
         } catch (IOException e) {
             System.err.println("Error handling client " + clientName + ": " + e.getMessage());
         } finally {
-            // 3. Clean up resources and remove from active handlers map
+            // 3. Stop receiving messages, write what is still queued, then clean up resources
+            if (clientName != null) {
+                clientHandlers.release(clientName, this);
+            }
+            boolean flushed = mailbox == null || mailbox.close(1, TimeUnit.SECONDS);
+            if (codec != null) {
+                System.out.println("Compression for " + (clientName != null ? clientName : "unnamed client") + ": " + codec.stats());
+                if (flushed) {
+                    codec.close(); // Otherwise a writer may still be using it; it is then left to the garbage collector
+                }
+            }
             try {
                 if (out != null) out.close();
                 if (in != null) in.close();
@@ -114,26 +230,94 @@ public class ClientHandlerChat implements Runnable {
             } catch (IOException e) {
                 System.err.println("Error closing resources for client " + clientName + ": " + e.getMessage());
             }
+            if (ownWriter != null) {
+                ownWriter.shutdown(); // A write stuck on a stalled client failed when the socket closed
+            }
             if (clientName != null) {
-                clientHandlers.remove(clientName);
                 System.out.println(clientName + " has left the chat.");
             }
         }
     }
 
     /**
-     * Sends a list of currently online users to this client.
+     * Charges a line to this session's rate limits, waiting until the buckets have enough tokens.
+     * Nothing else is read from the client meanwhile, so a flood backs up into its socket.
+     * @param line The line about to be handled.
+     * @return False if the wait was interrupted.
+     */
+    private boolean pace(String line) {
+        boolean command = !line.contains(":") || line.regionMatches(true, 0, "list", 0, 4) && (line.length() == 4 || line.charAt(4) == ' ');
+        try {
+            long waited = command ? commandBucket.acquire(commandCost(line)) : messageBucket.acquire(COST_MESSAGE);
+            if (waited == 0) {
+                throttled = false;
+            } else {
+                throttledLines.incrementAndGet();
+                throttledNanos.addAndGet(waited);
+                if (!throttled) {
+                    throttled = true;
+                    sendMessage("SERVER: You are sending " + (command ? "commands" : "messages") + " too fast; they are being delayed.");
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static double commandCost(String line) {
+        if (line.equalsIgnoreCase("list")) {
+            return COST_LIST;
+        }
+        if (line.regionMatches(true, 0, "list ", 0, 5) || line.startsWith("@")) {
+            return COST_COMPLETE;
+        }
+        return line.equalsIgnoreCase("bye") ? 0 : COST_OTHER;
+    }
+
+    /**
+     * Returns a one-line summary of flood protection over all sessions.
+     * @return How many lines were delayed and for how long in total.
+     */
+    public static String throttleMetrics() {
+        return String.format("Flood protection: %d line(s) delayed, %.1f s in total (messages %.0f/s burst %.0f, commands %.0f/s burst %.0f)",
+                throttledLines.get(), throttledNanos.get() / 1e9, MESSAGE_RATE, MESSAGE_BURST, COMMAND_RATE, COMMAND_BURST);
+    }
+
+    /**
+     * Sends a list of currently online users to this client, in alphabetical order.
+     * @param prefix Only list users whose name starts with this, ignoring case; empty lists everyone.
      */
-    private void listOnlineUsers() {
+    private void listOnlineUsers(String prefix) {
+        List<String> names = clientHandlers.complete(prefix, LIST_LIMIT);
+        if (names.isEmpty()) {
+            sendMessage(prefix.isEmpty() ? "SERVER: No users online." : "SERVER: No online users start with '" + prefix + "'.");
+            return;
+        }
         StringBuilder userList = new StringBuilder("SERVER: Online users: ");
-        boolean first = true;
-        for (String name : clientHandlers.keySet()) {
-            if (!first) {
-                userList.append(", ");
+        userList.append(String.join(", ", names));
+        if (names.size() == LIST_LIMIT) {
+            int more = clientHandlers.countPrefix(prefix) - names.size();
+            if (more > 0) {
+                userList.append(" and ").append(more).append(" more");
             }
-            userList.append(name);
-            first = false;
         }
         sendMessage(userList.toString());
     }
+
+    /**
+     * Suggests the online users whose name starts with what the client typed after '@'.
+     * @param prefix The start of a name, e.g. "al" for "@al".
+     */
+    private void completeName(String prefix) {
+        List<String> names = clientHandlers.complete(prefix, LIST_LIMIT);
+        if (names.isEmpty()) {
+            sendMessage("SERVER: No online users start with '" + prefix + "'.");
+        } else if (names.size() == 1) {
+            sendMessage("SERVER: @" + names.get(0) + " - type '" + names.get(0) + ": Your message' to message them.");
+        } else {
+            sendMessage("SERVER: Did you mean: @" + String.join(", @", names) + "?");
+        }
+    }
 }
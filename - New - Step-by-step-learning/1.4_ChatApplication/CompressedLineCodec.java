@@ -0,0 +1,212 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * CompressedLineCodec.java
+ * This class compresses long lines of the chat protocol, for connections that negotiated it.
+ *
+ * Negotiation: a server that supports compression sends the line `CAPS deflate` before its first
+ * prompt. A client that wants it answers with the same line before its name; any other client just
+ * sees an extra line and carries on, and a client that never hears the offer never sends it. From
+ * then on the server may send compressed frames to that client:
+ * - A line shorter than the threshold is sent as it is.
+ * - A longer line is deflated and sent as `~Z` + Base64, if that is actually shorter.
+ * - A line that happens to start with `~` is sent with one more `~` in front, so it cannot be
+ *   mistaken for a frame; the client removes it again.
+ *
+ * Every frame is compressed on its own (so a frame can be decoded without the ones before it),
+ * with a preset dictionary of the phrases the server sends most, such as "SERVER: Online users: ".
+ * The dictionary gives even a single frame the context a long stream would have built up.
+ *
+ * A codec is not thread-safe: the server uses one per connection, only from the connection's
+ * mailbox writer. Each codec counts the lines and bytes it encoded and the time it spent; the
+ * totals over all connections are in `totals()`.
+ *
+ * Design Principles:
+ * - **Negotiation:** Compression is only used when both sides asked for it; old clients keep working.
+ * - **Selectivity:** Short lines, and lines that do not shrink, are never compressed.
+ * - **Observability:** Compression ratio and CPU time are measured per connection and in total.
+ */
+public class CompressedLineCodec {
+    /** The line that offers (from the server) or accepts (from the client) compression. */
+    public static final String CAPABILITY = "CAPS deflate";
+
+    private static final String FRAME_PREFIX = "~Z"; // A compressed frame
+    private static final char ESCAPE = '~'; // Doubled at the start of a plain line that begins with it
+
+    // Phrases the server sends most; deflate finds matches in the later bytes most cheaply, so the most common come last
+    private static final byte[] DICTIONARY = ("SERVER: Did you mean: @ - type ': Your message' to message them."
+            + " is not receiving messages right now; message dropped. and more"
+            + "SERVER: Message sent to . (private): , SERVER: Online users: ").getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicLong totalLines = new AtomicLong();
+    private static final AtomicLong totalFrames = new AtomicLong();
+    private static final AtomicLong totalBytesIn = new AtomicLong();
+    private static final AtomicLong totalBytesOut = new AtomicLong();
+    private static final AtomicLong totalNanos = new AtomicLong();
+
+    private final int threshold; // Lines shorter than this (in characters) are not compressed
+    private final byte[] buffer = new byte[8192];
+    private Deflater deflater; // Created on first use, since a decoding client never needs one
+    private Inflater inflater; // Created on first use, since an encoding server never needs one
+    private long lines; // Lines encoded
+    private long frames; // Of those, sent compressed
+    private long bytesIn; // UTF-8 bytes of the encoded lines
+    private long bytesOut; // Bytes actually sent for them
+    private long nanos; // Time spent encoding
+
+    /**
+     * Constructor for CompressedLineCodec.
+     * @param threshold Lines shorter than this many characters are sent uncompressed.
+     */
+    public CompressedLineCodec(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Encodes a line for a connection that negotiated compression.
+     * @param line The line to send, without a line terminator.
+     * @return The line to write instead: a frame, an escaped line, or the line itself.
+     */
+    public String encode(String line) {
+        long start = System.nanoTime();
+        String encoded = line;
+        if (line.length() >= threshold) {
+            String frame = FRAME_PREFIX + Base64.getEncoder().encodeToString(deflate(line.getBytes(StandardCharsets.UTF_8)));
+            if (frame.length() < line.length()) {
+                encoded = frame;
+                frames++;
+                totalFrames.incrementAndGet();
+            }
+        }
+        if (encoded == line && !line.isEmpty() && line.charAt(0) == ESCAPE) {
+            encoded = ESCAPE + line;
+        }
+        long elapsed = System.nanoTime() - start;
+        long in = utf8Length(line);
+        long out = encoded == line ? in : utf8Length(encoded);
+        lines++;
+        bytesIn += in;
+        bytesOut += out;
+        nanos += elapsed;
+        totalLines.incrementAndGet();
+        totalBytesIn.addAndGet(in);
+        totalBytesOut.addAndGet(out);
+        totalNanos.addAndGet(elapsed);
+        return encoded;
+    }
+
+    /**
+     * Decodes a line received on a connection that negotiated compression.
+     * @param line The line as read.
+     * @return The original line.
+     * @throws ZipException If the line is a frame that cannot be decompressed.
+     */
+    public String decode(String line) throws ZipException {
+        if (line.startsWith(FRAME_PREFIX)) {
+            try {
+                return new String(inflate(Base64.getDecoder().decode(line.substring(FRAME_PREFIX.length()))), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException | DataFormatException e) {
+                throw new ZipException("Corrupt compressed line: " + e.getMessage());
+            }
+        }
+        if (!line.isEmpty() && line.charAt(0) == ESCAPE) {
+            return line.substring(1);
+        }
+        return line;
+    }
+
+    private byte[] deflate(byte[] input) {
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED); // Lines are short; speed matters more than the last few bytes
+        }
+        deflater.reset(); // Every frame stands alone
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2 + 16);
+        while (!deflater.finished()) {
+            output.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return output.toByteArray();
+    }
+
+    private byte[] inflate(byte[] input) throws DataFormatException {
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        inflater.reset();
+        inflater.setInput(input);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 3);
+        while (!inflater.finished()) {
+            int n = inflater.inflate(buffer);
+            if (n == 0) {
+                if (inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                } else if (inflater.needsInput()) {
+                    throw new DataFormatException("truncated frame");
+                }
+            }
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+
+    private static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Frees the native compression buffers. The codec must not be used afterwards.
+     */
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns what this codec encoded so far.
+     * @return Lines, frames, bytes before and after, and encoding time.
+     */
+    public String stats() {
+        return format(lines, frames, bytesIn, bytesOut, nanos);
+    }
+
+    /**
+     * Returns what all codecs encoded so far.
+     * @return Lines, frames, bytes before and after, and encoding time, over all connections.
+     */
+    public static String totals() {
+        return "Compression: " + format(totalLines.get(), totalFrames.get(), totalBytesIn.get(), totalBytesOut.get(), totalNanos.get());
+    }
+
+    private static String format(long lines, long frames, long bytesIn, long bytesOut, long nanos) {
+        return String.format("%d line(s), %d compressed, %d -> %d bytes (%.0f%%), %.2f ms encoding (%.1f us/line)",
+                lines, frames, bytesIn, bytesOut, bytesIn == 0 ? 100.0 : 100.0 * bytesOut / bytesIn,
+                nanos / 1e6, lines == 0 ? 0.0 : nanos / 1e3 / lines);
+    }
+}
@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * LineDecoder.java
+ * This class splits the bytes of a non-blocking connection into UTF-8 text lines, as
+ * `BufferedReader.readLine()` does for a blocking stream. Bytes of an unfinished line are
+ * kept until the rest arrives in a later read. Accepts "\n" and "\r\n" terminators.
+ * Also provides the matching `encode` for outgoing lines.
+ *
+ * Design Principles:
+ * - **Incremental:** Works on whatever a single read returned, however the lines are split.
+ * - **Bounded Memory:** A line longer than `MAX_LINE_BYTES` is rejected instead of buffered forever.
+ */
+public class LineDecoder {
+    static final int MAX_LINE_BYTES = 64 * 1024;
+
+    private byte[] partial = new byte[256]; // Bytes of the line currently being received
+    private int length = 0;
+
+    /**
+     * Consumes all remaining bytes of the buffer and passes every completed line to the consumer.
+     * @param in A buffer in read mode.
+     * @param lineConsumer Receives each complete line, without its terminator.
+     * @throws IOException If a line exceeds `MAX_LINE_BYTES`.
+     */
+    public void decode(ByteBuffer in, Consumer<String> lineConsumer) throws IOException {
+        while (in.hasRemaining()) {
+            byte b = in.get();
+            if (b == '\n') {
+                int end = (length > 0 && partial[length - 1] == '\r') ? length - 1 : length;
+                lineConsumer.accept(new String(partial, 0, end, StandardCharsets.UTF_8));
+                length = 0;
+                continue;
+            }
+            if (length == partial.length) {
+                if (length >= MAX_LINE_BYTES) {
+                    throw new IOException("Line longer than " + MAX_LINE_BYTES + " bytes");
+                }
+                partial = Arrays.copyOf(partial, Math.min(length * 2, MAX_LINE_BYTES));
+            }
+            partial[length++] = b;
+        }
+    }
+
+    /**
+     * Encodes a line with a "\n" terminator.
+     * @param line The line to encode.
+     * @return The UTF-8 bytes including the terminator.
+     */
+    public static byte[] encode(String line) {
+        byte[] text = line.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = Arrays.copyOf(text, text.length + 1);
+        encoded[text.length] = '\n';
+        return encoded;
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.PrintWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mailbox.java
+ * This class is the outgoing message queue of one chat connection. Every thread that wants to
+ * send the client a line (the connection's own handler, other clients' handlers delivering private
+ * messages, the server broadcasting a notice) appends it to the mailbox; only one writer at a time
+ * ever touches the connection's `PrintWriter`.
+ *
+ * How it works:
+ * - `deliver()` adds the line to a lock-free `ConcurrentLinkedQueue` (many producers, one consumer)
+ *   and returns. Lines from one sender keep their order.
+ * - The first sender to find the mailbox idle flips a `scheduled` flag and hands a drain task to the
+ *   writer executor (the connection's own writer thread); later senders see the flag set and just return. The drain task writes every
+ *   queued line and flushes once, so a burst of messages costs one flush instead of one per line.
+ * - A mailbox holds at most `MAX_PENDING` lines. When a client reads too slowly, further lines are
+ *   refused and the sender is told, instead of the server buffering without limit.
+ * - If the connection negotiated compression, the drain task encodes each line with the
+ *   connection's `CompressedLineCodec` as it writes it, so the CPU cost is paid by the writer
+ *   and not by the sender.
+ * - A line delivered while the mailbox closes is either written by `close()` or refused, never
+ *   left in the queue with nobody to write it.
+ *
+ * Design Principles:
+ * - **Single Writer:** Only the drain task writes to the socket, so writes never interleave or contend.
+ * - **Lock-Free Delivery:** Senders never block on the recipient's socket or on each other.
+ * - **Bounded Memory:** A slow reader cannot make the server queue messages forever.
+ */
+public class Mailbox {
+    private static final int MAX_PENDING = 1000; // Most lines waiting for one client
+
+    private final PrintWriter out; // The connection's writer; not auto-flushing, the drain task flushes
+    private final Executor writer; // Runs the drain tasks
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(); // pending.size() is O(n), so count separately
+    private final AtomicBoolean scheduled = new AtomicBoolean(); // True while a drain task owns the writer
+    private final AtomicInteger dropped = new AtomicInteger(); // Lines refused because the mailbox was full
+    private volatile boolean closed = false;
+    private volatile CompressedLineCodec codec; // Null: lines are written as they are
+
+    /**
+     * Constructor for Mailbox.
+     * @param out The connection's output; it should not auto-flush.
+     * @param writer Runs the drain tasks, e.g. a single thread owned by the connection, so a client that
+     *               stops reading only blocks its own writer. `Runnable::run` drains on the sending
+     *               thread that found the mailbox idle.
+     */
+    public Mailbox(PrintWriter out, Executor writer) {
+        this.out = out;
+        this.writer = writer;
+    }
+
+    /**
+     * Encodes every line written from now on. The codec is only used by whoever holds the
+     * writer role, one thread at a time.
+     * @param codec The connection's codec, or null to stop encoding.
+     */
+    public void setCodec(CompressedLineCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Queues a line for the client. Never blocks.
+     * @param line The line to send.
+     * @return False if the mailbox is full or closed and the line was dropped.
+     */
+    public boolean deliver(String line) {
+        if (closed) {
+            return false;
+        }
+        if (size.incrementAndGet() > MAX_PENDING) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        pending.add(line);
+        if (closed) {
+            // close() may have written its last batch before the line was added; then nobody would write it
+            if (pending.remove(line)) {
+                size.decrementAndGet();
+                return false;
+            }
+            return true; // close() took it and wrote it
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false); // Writer shut down; close() still writes what is left
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes everything queued, then releases the writer role. A line added after the last poll
+     * but before the release would otherwise be stranded, so the drain goes on if it can
+     * take the role straight back.
+     */
+    private void drain() {
+        do {
+            writePending();
+            scheduled.set(false);
+        } while (!pending.isEmpty() && !closed && scheduled.compareAndSet(false, true));
+    }
+
+    private void writePending() {
+        CompressedLineCodec encoder = codec;
+        String line;
+        while ((line = pending.poll()) != null) {
+            size.decrementAndGet();
+            out.println(encoder == null ? line : encoder.encode(line));
+        }
+        out.flush(); // One flush per drain, however many lines it wrote
+    }
+
+    /**
+     * Takes over the writer role, writes what is still queued and refuses further lines. Called
+     * by the connection before it closes its socket, so a last notice (e.g. a shutdown message)
+     * is not lost.
+     * @param timeout How long to wait for a drain task that is still writing.
+     * @param unit The unit of `timeout`.
+     * @return False if a drain task was still busy when the time ran out (the remaining lines are dropped).
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!scheduled.compareAndSet(false, true)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000); // A drain task is writing; it finishes after its current batch
+        }
+        writePending(); // The writer role is never released again, so no drain task will start
+        return true;
+    }
+
+    /**
+     * Returns the number of lines waiting to be written.
+     * @return The queue depth.
+     */
+    public int pending() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of lines refused because the mailbox was full.
+     * @return The dropped count.
+     */
+    public int dropped() {
+        return dropped.get();
+    }
+}
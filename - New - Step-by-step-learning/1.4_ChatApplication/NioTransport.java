@@ -0,0 +1,291 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NioTransport.java
+ * This class serves all connections from one thread with a NIO `Selector`. Reads are done into
+ * one large buffer, so a single read call can pick up many lines a client sent back to back.
+ * Outgoing lines are not written immediately: `send()` only queues them, and the selector
+ * thread writes each connection's queue with one gathering `write` after it has finished handling
+ * the current batch of events. Replies to a burst of requests therefore leave in one system call
+ * instead of one per line, and no line is copied on the way: the queued lines are handed to the
+ * socket as they are, and after a partial write only the lines not yet sent are kept.
+ * A client that stops reading is disconnected once `Transport.MAX_QUEUED_BYTES` are waiting for it.
+ *
+ * Design Principles:
+ * - **Event-Driven:** No thread per connection; idle clients cost only a registered key.
+ * - **Write Coalescing:** Lines queued for a connection are gathered into a single write.
+ * - **Bounded Memory:** The bytes queued per connection are capped.
+ * - **Thread Safety:** `send()` may be called from any thread; only the selector thread touches channels.
+ */
+public class NioTransport implements Transport {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_GATHERED_BUFFERS = 256; // Lines handed to one gathering write
+
+    private final TransportStats stats = new TransportStats();
+    private final Queue<NioConnection> pendingFlushes = new ConcurrentLinkedQueue<>(); // Connections with queued lines
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE); // Only used by the selector thread
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHERED_BUFFERS]; // Only used by the selector thread
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private Handler handler;
+    private volatile boolean running = false;
+
+    @Override
+    public int start(int port, Handler handler) throws IOException {
+        this.handler = handler;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(this::eventLoop, "NioTransport-Selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void eventLoop() {
+        try {
+            while (running) {
+                selector.select();
+                stats.waitCalls.increment();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptAll();
+                        continue;
+                    }
+                    NioConnection connection = (NioConnection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    } catch (IOException e) {
+                        closeNow(connection);
+                    }
+                }
+                // Everything queued while handling this round of events goes out now, one write per connection
+                NioConnection connection;
+                while ((connection = pendingFlushes.poll()) != null) {
+                    connection.flushScheduled.set(false);
+                    try {
+                        flush(connection);
+                    } catch (IOException e) {
+                        closeNow(connection);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Selector error: " + e.getMessage());
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection) {
+                    closeNow((NioConnection) key.attachment());
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing selector: " + e.getMessage());
+            }
+        }
+    }
+
+    private void acceptAll() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true); // We batch ourselves; Nagle would only add delay
+            NioConnection connection = new NioConnection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            handler.onOpen(connection);
+        }
+    }
+
+    private void read(NioConnection connection) throws IOException {
+        readBuffer.clear();
+        stats.readCalls.increment();
+        int read = connection.channel.read(readBuffer);
+        if (read < 0) {
+            closeNow(connection);
+            return;
+        }
+        stats.bytesIn.add(read);
+        readBuffer.flip();
+        connection.decoder.decode(readBuffer, line -> {
+            stats.linesIn.increment();
+            handler.onLine(connection, line);
+        });
+    }
+
+    /**
+     * Writes the connection's unwritten lines plus everything queued since, with one gathering
+     * write call per `MAX_GATHERED_BUFFERS` lines. Runs on the selector thread only.
+     */
+    private void flush(NioConnection connection) throws IOException {
+        if (connection.closed) {
+            return;
+        }
+        if (connection.overflowed) {
+            System.err.println("Disconnecting " + connection.address + ": more than " + MAX_QUEUED_BYTES + " bytes unsent.");
+            closeNow(connection);
+            return;
+        }
+        byte[] line;
+        while ((line = connection.outbox.poll()) != null) {
+            connection.unwritten.add(ByteBuffer.wrap(line));
+        }
+
+        while (!connection.unwritten.isEmpty()) {
+            int count = 0;
+            for (ByteBuffer buffer : connection.unwritten) {
+                gathered[count++] = buffer;
+                if (count == gathered.length) {
+                    break;
+                }
+            }
+            stats.writeCalls.increment();
+            long written = connection.channel.write(gathered, 0, count);
+            stats.bytesOut.add(written);
+            connection.queuedBytes.addAndGet(-written);
+            boolean socketFull = gathered[count - 1].hasRemaining();
+            Arrays.fill(gathered, 0, count, null);
+            while (!connection.unwritten.isEmpty() && !connection.unwritten.peekFirst().hasRemaining()) {
+                connection.unwritten.pollFirst();
+            }
+            if (socketFull) {
+                connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+        connection.key.interestOps(SelectionKey.OP_READ);
+        if (connection.closeRequested && connection.outbox.isEmpty()) {
+            closeNow(connection);
+        }
+    }
+
+    private void closeNow(NioConnection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+        handler.onClose(connection);
+    }
+
+    private final class NioConnection implements Connection {
+        final SocketChannel channel;
+        final String address;
+        final LineDecoder decoder = new LineDecoder();
+        final Queue<byte[]> outbox = new ConcurrentLinkedQueue<>(); // Encoded lines waiting for the selector thread
+        final AtomicBoolean flushScheduled = new AtomicBoolean(); // True while in pendingFlushes
+        final AtomicLong queuedBytes = new AtomicLong(); // Sent to this connection but not yet written
+        final Deque<ByteBuffer> unwritten = new ArrayDeque<>(); // Lines taken from the outbox but not fully written; selector thread only
+        SelectionKey key;
+        volatile boolean closeRequested = false;
+        volatile boolean overflowed = false; // Too much unsent; the selector thread closes the connection
+        boolean closed = false; // Selector thread only
+        private volatile Object attachment;
+
+        NioConnection(SocketChannel channel) {
+            this.channel = channel;
+            this.address = channel.socket().getInetAddress().getHostAddress();
+        }
+
+        @Override
+        public void send(String line) {
+            if (overflowed) {
+                return;
+            }
+            byte[] bytes = LineDecoder.encode(line);
+            if (queuedBytes.addAndGet(bytes.length) > MAX_QUEUED_BYTES) {
+                overflowed = true; // The client is not reading; stop queueing for it
+                scheduleFlush();
+                return;
+            }
+            outbox.add(bytes);
+            stats.linesOut.increment();
+            scheduleFlush();
+        }
+
+        @Override
+        public void close() {
+            closeRequested = true;
+            scheduleFlush();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                pendingFlushes.add(this);
+                if (Thread.currentThread() != selectorThread) {
+                    selector.wakeup(); // The selector thread flushes on its own after handling events
+                }
+            }
+        }
+
+        @Override
+        public String remoteAddress() {
+            return address;
+        }
+
+        @Override
+        public Object getAttachment() {
+            return attachment;
+        }
+
+        @Override
+        public void setAttachment(Object attachment) {
+            this.attachment = attachment;
+        }
+    }
+
+    @Override
+    public TransportStats stats() {
+        return stats;
+    }
+
+    @Override
+    public String name() {
+        return "nio";
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup(); // The selector thread closes all channels on its way out
+        }
+    }
+}
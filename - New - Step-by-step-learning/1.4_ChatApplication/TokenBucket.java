@@ -0,0 +1,98 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenBucket.java
+ * This class is a token-bucket rate limiter. The bucket holds up to `capacity` tokens and is
+ * refilled continuously at `ratePerSecond`; an action is allowed if the tokens it costs can be
+ * taken out. A client that has been quiet can therefore do a short burst of up to `capacity`
+ * actions, but over time it can never do more than `ratePerSecond` actions per second.
+ *
+ * The bucket stores only a token count and the time of the last refill; the refill is
+ * computed lazily from the elapsed time whenever the bucket is used, so no timer is needed.
+ *
+ * Design Principles:
+ * - **Thread Safety:** The bucket is only read and updated under its lock; a bucket is typically shared by the few
+ *   threads acting for one client or one address, so contention is low.
+ * - **Burst Tolerance:** Short bursts are allowed up to the capacity, sustained load is capped at the rate.
+ * - **Backpressure:** `tryAcquire()` refuses at once (e.g. a new connection); `acquire()` waits instead
+ *   (e.g. before reading a client's next command), so nothing is dropped.
+ */
+public class TokenBucket {
+    private final double ratePerSecond; // Tokens added per second
+    private final double capacity; // Most tokens the bucket holds, i.e. the largest burst
+    private double tokens; // Tokens available as of lastRefillNanos
+    private long lastRefillNanos;
+
+    /**
+     * Constructor for TokenBucket. The bucket starts full.
+     * @param ratePerSecond Tokens added per second; must be positive.
+     * @param capacity The most tokens the bucket holds; must be at least 1.
+     */
+    public TokenBucket(double ratePerSecond, double capacity) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate must be positive and capacity at least 1: " + ratePerSecond + ", " + capacity);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens out of the bucket if enough are available. Never blocks.
+     * @param cost The tokens the action costs.
+     * @return True if the tokens were taken and the action is allowed.
+     */
+    public synchronized boolean tryAcquire(double cost) {
+        refill();
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    /**
+     * Takes tokens out of the bucket, waiting until enough have been refilled. The wait is
+     * computed from the rate, so the caller sleeps once instead of polling.
+     * @param cost The tokens the action costs; at most the capacity.
+     * @return How long the caller waited, in nanoseconds (0 if the tokens were available at once).
+     * @throws InterruptedException If interrupted while waiting; no tokens are taken then.
+     */
+    public long acquire(double cost) throws InterruptedException {
+        if (cost > capacity) {
+            throw new IllegalArgumentException("Cost " + cost + " exceeds the bucket capacity " + capacity);
+        }
+        long waited = 0;
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= cost) {
+                    tokens -= cost;
+                    return waited;
+                }
+                waitNanos = (long) Math.ceil((cost - tokens) * 1e9 / ratePerSecond);
+            }
+            long start = System.nanoTime();
+            TimeUnit.NANOSECONDS.sleep(waitNanos); // Another thread may take the tokens first; then wait again
+            waited += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Tells whether the bucket has refilled completely, i.e. its owner has been idle long
+     * enough that forgetting the bucket would change nothing.
+     * @return True if the bucket is full.
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / 1e9);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Transport.java
+ * This interface is the pluggable transport layer (SPI) of the line-based chat and echo servers.
+ * A transport owns the sockets: it accepts connections, turns incoming bytes into lines, and
+ * writes outgoing lines. The protocol logic lives in a `Handler` and does not know which
+ * transport it runs on, so the same chat logic can run on:
+ * - `BlockingTransport`: one thread per connection with `BufferedReader`/`PrintWriter`
+ *   (the model used by `ClientHandlerChat`), one `write` per message.
+ * - `NioTransport`: one selector thread for all connections; replies produced while handling
+ *   one read are coalesced into a single `write`.
+ * - `AsyncTransport`: NIO.2 `AsynchronousSocketChannel` completion handlers; lines queued while
+ *   a write is in flight are sent together when it completes.
+ *
+ * Every transport counts its read and write calls in `TransportStats`, so the number of
+ * system calls per message can be compared (see `TransportBenchmark`).
+ *
+ * Design Principles:
+ * - **Separation of Concerns:** I/O strategy and protocol logic are independent of each other.
+ * - **Serialized Callbacks:** Callbacks for one connection never run concurrently, so a handler
+ *   can keep per-connection state without locking.
+ * - **Resource Management:** `close()` stops accepting and closes every open connection.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Most bytes a connection may have queued but not yet written (`-Dtransport.maxQueuedBytes`,
+     * default 1 MB). The queueing transports disconnect a client that has more, i.e. one that
+     * stopped reading, instead of buffering for it without limit.
+     */
+    long MAX_QUEUED_BYTES = Long.getLong("transport.maxQueuedBytes", 1024 * 1024);
+
+    /**
+     * Receives connection events from a transport.
+     */
+    interface Handler {
+        /**
+         * Called once when a connection is established, before any line is delivered.
+         * @param connection The new connection.
+         */
+        void onOpen(Connection connection);
+
+        /**
+         * Called for every complete line received (without the line terminator).
+         * @param connection The connection the line arrived on.
+         * @param line The received line.
+         */
+        void onLine(Connection connection, String line);
+
+        /**
+         * Called once when the connection is closed, by either side.
+         * @param connection The closed connection.
+         */
+        void onClose(Connection connection);
+    }
+
+    /**
+     * One client connection as seen by a `Handler`.
+     */
+    interface Connection {
+        /**
+         * Queues a line for the client. Safe to call from any thread; the transport decides
+         * when the bytes are actually written. If the client has more than `MAX_QUEUED_BYTES`
+         * unsent, the line is dropped and the connection is closed.
+         * @param line The line to send, without a line terminator.
+         */
+        void send(String line);
+
+        /**
+         * Sends any queued lines and then closes the connection.
+         */
+        void close();
+
+        /**
+         * @return The client's IP address, for log messages.
+         */
+        String remoteAddress();
+
+        /**
+         * Lets a handler keep per-connection state on the connection itself.
+         * @return The object set with `setAttachment`, or null.
+         */
+        Object getAttachment();
+
+        /**
+         * @param attachment The handler's per-connection state.
+         */
+        void setAttachment(Object attachment);
+    }
+
+    /**
+     * Binds the port and starts accepting connections in the background.
+     * @param port The port to listen on, or 0 for any free port.
+     * @param handler Receives the events of every connection.
+     * @return The port actually bound.
+     * @throws IOException If the port cannot be bound.
+     */
+    int start(int port, Handler handler) throws IOException;
+
+    /**
+     * @return The read/write call counters of this transport.
+     */
+    TransportStats stats();
+
+    /**
+     * @return A short name for logs and benchmark output.
+     */
+    String name();
+
+    /**
+     * Creates a transport by name: "blocking", "nio" or "async".
+     * @param name The transport name (case-insensitive).
+     * @return A new, not yet started transport.
+     */
+    static Transport create(String name) {
+        switch (name.toLowerCase()) {
+            case "blocking":
+                return new BlockingTransport();
+            case "nio":
+                return new NioTransport();
+            case "async":
+                return new AsyncTransport(Runtime.getRuntime().availableProcessors());
+            default:
+                throw new IllegalArgumentException("Unknown transport '" + name + "' (use blocking, nio or async)");
+        }
+    }
+}
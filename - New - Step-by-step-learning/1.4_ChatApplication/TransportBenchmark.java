@@ -0,0 +1,135 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TransportBenchmark.java
+ * This class compares the `Transport` implementations on loopback. Each transport serves a
+ * line echo handler; several clients send lines in bursts (a burst of 1 is strict request/reply,
+ * larger bursts model clients that pipeline) and read the echoes back. For every transport and
+ * burst size it reports throughput and the server's socket read, write and selector wait calls
+ * per message, i.e. the system calls the server spends on each line.
+ *
+ * Design Principles:
+ * - **Like for Like:** Same handler, clients and message sizes for every transport; only the I/O strategy differs.
+ * - **Warm-Up:** Each transport runs once unmeasured so JIT compilation does not skew the first result.
+ *
+ * Execution Steps:
+ * 1. Compile: `javac TransportBenchmark.java Transport.java TransportStats.java LineDecoder.java BlockingTransport.java NioTransport.java AsyncTransport.java`
+ * 2. Run: `java TransportBenchmark [clients] [messagesPerClient]` (defaults: 16 clients, 20000 messages each)
+ */
+public class TransportBenchmark {
+    private static final int DEFAULT_CLIENTS = 16;
+    private static final int DEFAULT_MESSAGES_PER_CLIENT = 20_000;
+    private static final int[] BURST_SIZES = {1, 32};
+    private static final String[] TRANSPORTS = {"blocking", "nio", "async"};
+
+    /** Echoes every line back to its sender. */
+    private static final Transport.Handler ECHO = new Transport.Handler() {
+        @Override
+        public void onOpen(Transport.Connection connection) {
+        }
+
+        @Override
+        public void onLine(Transport.Connection connection, String line) {
+            connection.send(line);
+        }
+
+        @Override
+        public void onClose(Transport.Connection connection) {
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int messagesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MESSAGES_PER_CLIENT;
+        System.out.println("Transport benchmark: " + clients + " clients x " + messagesPerClient + " messages, loopback.");
+        System.out.printf("%-9s %6s %12s %11s %11s %11s %11s%n",
+                "transport", "burst", "msgs/sec", "reads/msg", "writes/msg", "waits/msg", "calls/msg");
+
+        for (int burst : BURST_SIZES) {
+            for (String name : TRANSPORTS) {
+                try (Transport transport = Transport.create(name)) {
+                    int port = transport.start(0, ECHO);
+                    runClients(port, clients, Math.min(messagesPerClient, 2_000), burst); // Warm-up
+                    transport.stats().reset();
+
+                    long startedAt = System.nanoTime();
+                    runClients(port, clients, messagesPerClient, burst);
+                    double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+                    TransportStats stats = transport.stats();
+                    double messages = Math.max(1, stats.linesIn());
+                    System.out.printf("%-9s %6d %12.0f %11.3f %11.3f %11.3f %11.3f%n",
+                            name, burst, stats.linesIn() / seconds,
+                            stats.readCalls() / messages, stats.writeCalls() / messages, stats.waitCalls() / messages,
+                            (stats.readCalls() + stats.writeCalls() + stats.waitCalls()) / messages);
+                }
+            }
+        }
+    }
+
+    private static void runClients(int port, int clients, int messagesPerClient, int burst) throws InterruptedException {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicLong failures = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int clientNumber = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    startSignal.await();
+                    runClient(port, clientNumber, messagesPerClient, burst);
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                    System.err.println("Benchmark client error: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "BenchmarkClient-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " benchmark client(s) failed");
+        }
+    }
+
+    /**
+     * Sends `burst` lines with a single flush, then reads the same number of echoes, until done.
+     */
+    private static void runClient(int port, int clientNumber, int messages, int burst) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            int sent = 0;
+            while (sent < messages) {
+                int count = Math.min(burst, messages - sent);
+                for (int i = 0; i < count; i++) {
+                    out.write("client-" + clientNumber + ": message " + (sent + i));
+                    out.write('\n');
+                }
+                out.flush();
+                for (int i = 0; i < count; i++) {
+                    if (in.readLine() == null) {
+                        throw new IOException("Server closed the connection early");
+                    }
+                }
+                sent += count;
+            }
+        }
+    }
+}
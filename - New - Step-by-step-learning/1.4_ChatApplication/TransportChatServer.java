@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * TransportChatServer.java
+ * This class runs the chat protocol of `ChatServer`/`ClientHandlerChat` on top of a pluggable
+ * `Transport`, so the same chat can be served by blocking sockets, a NIO selector or NIO.2
+ * asynchronous channels. The protocol is unchanged and `ChatClient` works with every transport:
+ * name registration, `list`, `RecipientName: message` and `bye`.
+ *
+ * Design Principles:
+ * - **Separation of Concerns:** Only protocol logic lives here; all socket handling is in the transport.
+ * - **Event-Driven Handling:** Reacts to `onOpen`/`onLine`/`onClose` instead of owning a reading loop.
+ * - **Shared State Management:** A `ConcurrentHashMap` maps names to connections for direct messaging.
+ *
+ * Execution Steps:
+ * 1. Compile: `javac TransportChatServer.java Transport.java TransportStats.java LineDecoder.java BlockingTransport.java NioTransport.java AsyncTransport.java`
+ * 2. Run: `java -Dchat.transport=nio TransportChatServer` (blocking, nio or async; default nio)
+ *    The server listens on port 12345, like `ChatServer`.
+ */
+public class TransportChatServer implements Transport.Handler {
+    private static final int PORT = 12345;
+
+    // Maps client names to their connections
+    private final ConcurrentHashMap<String, Transport.Connection> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Per-connection state, stored as the connection's attachment.
+     */
+    private static final class Session {
+        String name; // Null until the client has registered a name
+    }
+
+    @Override
+    public void onOpen(Transport.Connection connection) {
+        connection.setAttachment(new Session());
+        System.out.println("New client connected from: " + connection.remoteAddress());
+        connection.send("SERVER: Enter your unique name:");
+    }
+
+    @Override
+    public void onLine(Transport.Connection connection, String line) {
+        Session session = (Session) connection.getAttachment();
+        if (session.name == null) {
+            register(connection, session, line.trim());
+            return;
+        }
+
+        if (line.equalsIgnoreCase("bye")) {
+            connection.close();
+        } else if (line.equalsIgnoreCase("list")) {
+            connection.send("SERVER: Online users: " + String.join(", ", clients.keySet()));
+        } else if (line.contains(":")) {
+            int colonIndex = line.indexOf(":");
+            String recipientName = line.substring(0, colonIndex).trim();
+            String messageContent = line.substring(colonIndex + 1).trim();
+
+            if (recipientName.isEmpty() || messageContent.isEmpty()) {
+                connection.send("SERVER: Invalid message format. Use 'RecipientName: Your message'.");
+                return;
+            }
+
+            Transport.Connection recipient = clients.get(recipientName);
+            if (recipient != null) {
+                recipient.send(session.name + " (private): " + messageContent);
+                connection.send("SERVER: Message sent to " + recipientName + ".");
+                System.out.println(session.name + " sent to " + recipientName + ": " + messageContent);
+            } else {
+                connection.send("SERVER: User '" + recipientName + "' not found or offline.");
+            }
+        } else {
+            connection.send("SERVER: Unknown command or invalid message format. Type 'list' or 'RecipientName: Your message'.");
+        }
+    }
+
+    private void register(Transport.Connection connection, Session session, String name) {
+        if (name.isEmpty()) {
+            connection.send("SERVER: Name cannot be empty. Please try again.");
+            connection.send("SERVER: Enter your unique name:");
+        } else if (clients.putIfAbsent(name, connection) != null) {
+            connection.send("SERVER: Name '" + name + "' is already taken. Please choose another.");
+            connection.send("SERVER: Enter your unique name:");
+        } else {
+            session.name = name;
+            System.out.println(name + " has joined the chat from " + connection.remoteAddress());
+            connection.send("SERVER: Welcome, " + name + "! Type 'list' to see online users. To send a message, use format 'RecipientName: Your message'. Type 'bye' to exit.");
+        }
+    }
+
+    @Override
+    public void onClose(Transport.Connection connection) {
+        Session session = (Session) connection.getAttachment();
+        if (session != null && session.name != null) {
+            clients.remove(session.name, connection);
+            System.out.println(session.name + " has left the chat.");
+        }
+    }
+
+    public static void main(String[] args) {
+        Transport transport = Transport.create(System.getProperty("chat.transport", "nio"));
+        try {
+            transport.start(PORT, new TransportChatServer());
+            System.out.println("Chat Server started with the " + transport.name() + " transport. Listening on port " + PORT);
+            new CountDownLatch(1).await(); // Transport threads are daemons; keep the JVM alive
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println("Server interrupted.");
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                transport.close();
+            } catch (IOException e) {
+                System.err.println("Error closing transport: " + e.getMessage());
+            }
+            System.out.println("Chat Server resources closed.");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TransportStats.java
+ * This class counts the I/O calls a `Transport` makes on its sockets. Each counted read or
+ * write is one call into the socket layer, which on Linux is one `read`/`write` (or
+ * `recvfrom`/`sendto`) system call, so `readCalls` and `writeCalls` divided by the number of
+ * lines approximate system calls per message. Selector and completion waits are counted
+ * separately as `waitCalls` (one `epoll_wait` each).
+ * To confirm the numbers on a real host, run the server under `strace -c -f`.
+ *
+ * Design Principles:
+ * - **Low Overhead:** `LongAdder` counters, so counting does not add contention to the I/O path.
+ */
+public class TransportStats {
+    final LongAdder readCalls = new LongAdder(); // Socket read calls, including ones that returned no data
+    final LongAdder writeCalls = new LongAdder(); // Socket write calls
+    final LongAdder waitCalls = new LongAdder(); // select() calls (NioTransport only)
+    final LongAdder linesIn = new LongAdder(); // Complete lines delivered to the handler
+    final LongAdder linesOut = new LongAdder(); // Lines written to clients
+    final LongAdder bytesIn = new LongAdder();
+    final LongAdder bytesOut = new LongAdder();
+
+    public long readCalls() {
+        return readCalls.sum();
+    }
+
+    public long writeCalls() {
+        return writeCalls.sum();
+    }
+
+    public long waitCalls() {
+        return waitCalls.sum();
+    }
+
+    public long linesIn() {
+        return linesIn.sum();
+    }
+
+    public long linesOut() {
+        return linesOut.sum();
+    }
+
+    /**
+     * Resets all counters, e.g. after a benchmark warm-up.
+     */
+    public void reset() {
+        readCalls.reset();
+        writeCalls.reset();
+        waitCalls.reset();
+        linesIn.reset();
+        linesOut.reset();
+        bytesIn.reset();
+        bytesOut.reset();
+    }
+
+    /**
+     * Returns a one-line summary including the calls per message.
+     * @return The formatted counters.
+     */
+    @Override
+    public String toString() {
+        long messages = Math.max(1, linesIn() + linesOut());
+        return String.format("lines in/out: %d/%d, bytes in/out: %d/%d, reads: %d, writes: %d, waits: %d, calls/message: %.3f",
+                linesIn(), linesOut(), bytesIn.sum(), bytesOut.sum(), readCalls(), writeCalls(), waitCalls(),
+                (double) (readCalls() + writeCalls() + waitCalls()) / messages);
+    }
+}
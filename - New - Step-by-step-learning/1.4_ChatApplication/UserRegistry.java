@@ -0,0 +1,186 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * UserRegistry.java
+ * This class is the index of the names currently in use on the chat server. Names are matched
+ * case-insensitively: "Alice", "ALICE" and "alice" are the same user, and each is stored under one
+ * normalized key (Unicode NFKC, trimmed, lower case), while the name is still shown the way its
+ * owner typed it.
+ *
+ * A single `ConcurrentSkipListMap` from normalized key to entry serves every lookup:
+ * - **Claim:** `claim()` is one `putIfAbsent`, so two clients asking for the same name at the same
+ *   time cannot both get it (checking `containsKey` and then calling `put` could let both through).
+ * - **Exact match:** `get()` is an O(log n) lookup, about 20 key comparisons for a million names.
+ * - **Prefix match:** the keys are sorted, so all names starting with a prefix form one contiguous
+ *   range; `complete()` walks only that range, O(log n + matches), for `@mention` autocompletion
+ *   and `list <prefix>`.
+ *
+ * A character-per-node trie would need a node object (and a child map) for almost every character
+ * of every name; the skip list costs one node plus a few index links per name, and the key is
+ * shared with the display name whenever the name is already in normal form.
+ *
+ * Design Principles:
+ * - **Atomicity:** Claiming and releasing a name are single atomic map operations.
+ * - **Consistency:** One structure serves exact and prefix lookups, so they can never disagree.
+ * - **Memory Efficiency:** One map node per registered name, no per-character nodes.
+ *
+ * @param <V> The value registered under a name, e.g. the client's handler.
+ */
+public class UserRegistry<V> {
+    /** Longest name accepted, in characters after normalization. */
+    public static final int MAX_NAME_LENGTH = 32;
+
+    /** A registered name: how its owner wrote it, and what is registered under it. */
+    private static final class Entry<V> {
+        final String displayName;
+        final V value;
+
+        Entry(String displayName, V value) {
+            this.displayName = displayName;
+            this.value = value;
+        }
+    }
+
+    private final ConcurrentSkipListMap<String, Entry<V>> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the key a name is matched by: NFKC-normalized (so e.g. full-width letters match their
+     * ASCII forms), trimmed and lower-cased.
+     * @param name A user name as typed.
+     * @return The normalized key.
+     */
+    public static String normalize(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFKC).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether a name may be registered, before trying to claim it.
+     * @param name A user name as typed.
+     * @return Why the name is not allowed, or null if it is.
+     */
+    public static String validate(String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return "Name cannot be empty.";
+        }
+        if (key.length() > MAX_NAME_LENGTH) {
+            return "Name cannot be longer than " + MAX_NAME_LENGTH + " characters.";
+        }
+        if (key.indexOf(':') >= 0 || key.startsWith("@")) {
+            return "Name cannot contain ':' or start with '@'.";
+        }
+        return null;
+    }
+
+    /**
+     * Registers a name if no one holds it yet, ignoring case.
+     * @param name The name as typed; it is trimmed and shown in this form.
+     * @param value The value to register under it.
+     * @return True if the name was free and is now registered to `value`.
+     */
+    public boolean claim(String name, V value) {
+        String key = normalize(name);
+        String displayName = name.trim();
+        if (displayName.equals(key)) {
+            displayName = key; // Share one String between key and display name
+        }
+        return entries.putIfAbsent(key, new Entry<>(displayName, value)) == null;
+    }
+
+    /**
+     * Frees a name, but only if it is still registered to the given value.
+     * @param name The name, in any case.
+     * @param value The value it was claimed with.
+     * @return True if the name was released.
+     */
+    public boolean release(String name, V value) {
+        String key = normalize(name);
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    /**
+     * Looks a name up, ignoring case.
+     * @param name The name, in any case.
+     * @return The registered value, or null if no one has the name.
+     */
+    public V get(String name) {
+        Entry<V> entry = entries.get(normalize(name));
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns the registered form of a name, e.g. "Alice" for "alice".
+     * @param name The name, in any case.
+     * @return The name as its owner wrote it, or null if no one has the name.
+     */
+    public String displayName(String name) {
+        Entry<V> entry = entries.get(normalize(name));
+        return entry == null ? null : entry.displayName;
+    }
+
+    /**
+     * Returns registered names starting with a prefix, ignoring case, in alphabetical order.
+     * @param prefix The prefix; empty matches every name.
+     * @param limit The most names to return.
+     * @return Up to `limit` display names.
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> names = new ArrayList<>(Math.min(limit, 64));
+        for (Entry<V> entry : range(prefix).values()) {
+            if (names.size() == limit) {
+                break;
+            }
+            names.add(entry.displayName);
+        }
+        return names;
+    }
+
+    /**
+     * Counts registered names starting with a prefix, ignoring case.
+     * @param prefix The prefix; empty counts every name.
+     * @return The number of matching names; counting walks the range, O(matches).
+     */
+    public int countPrefix(String prefix) {
+        return range(prefix).size();
+    }
+
+    /**
+     * All keys starting with the prefix: from the prefix itself up to the first string that
+     * sorts after every such key.
+     */
+    private ConcurrentNavigableMap<String, Entry<V>> range(String prefix) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return entries;
+        }
+        return entries.subMap(key, true, key + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Returns the registered values, e.g. to broadcast to every client.
+     * @return A snapshot, unmodifiable.
+     */
+    public Collection<V> values() {
+        List<V> values = new ArrayList<>();
+        for (Entry<V> entry : entries.values()) {
+            values.add(entry.value);
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Returns the number of registered names.
+     * @return The count; O(n) on a skip list, so meant for reports rather than hot paths.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
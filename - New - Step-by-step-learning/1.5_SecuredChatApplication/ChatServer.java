@@ -2,8 +2,6 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
@@ -20,6 +18,7 @@ import javax.net.ssl.SSLServerSocketFactory;
  *   eavesdropping and ensuring message integrity.
  * - **Modularity:** Separates server responsibilities (accepting connections) from client handling (`ClientHandlerChat`).
  * - **Concurrency:** Uses an `ExecutorService` to efficiently manage threads for multiple clients.
+ * - **Observability:** The pool is an `InstrumentedThreadPoolExecutor` that periodically prints queue wait and handler times.
  * - **Shared State Management:** Uses a `ConcurrentHashMap` to safely manage the map of active client handlers
  *   across multiple threads, allowing for name-based lookup.
  * - **Robustness:** Includes comprehensive error handling and graceful shutdown procedures.
@@ -34,7 +33,7 @@ import javax.net.ssl.SSLServerSocketFactory;
  *    Follow the prompts to set passwords and provide server details. Remember the keystore password.
  *    Place `server.keystore` in the same directory as your compiled `.class` files.
  *
- * 2. **Compile:** `javac ChatServer.java ClientHandlerChat.java`
+ * 2. **Compile:** `javac ChatServer.java ClientHandlerChat.java InstrumentedThreadPoolExecutor.java`
  *
  * 3. **Run:** `java -Djavax.net.ssl.keyStore=server.keystore -Djavax.net.ssl.keyStorePassword=your_keystore_password ChatServer`
  *    Replace `your_keystore_password` with the password you set during keystore generation.
@@ -43,6 +42,7 @@ import javax.net.ssl.SSLServerSocketFactory;
 public class ChatServer {
     private static final int PORT = 12345;
     private static final int THREAD_POOL_SIZE = 20; // Max concurrent clients
+    private static final int METRICS_INTERVAL_SECONDS = 30;
 
     // A thread-safe map to keep track of all connected client handlers, mapping client names to their handlers
     private static ConcurrentHashMap<String, ClientHandlerChat> clientHandlers = new ConcurrentHashMap<>();
@@ -50,7 +50,7 @@ public class ChatServer {
     public static void main(String[] args) {
         System.out.println("Chat Server started. Listening on port " + PORT);
         SSLServerSocket serverSocket = null;
-        ExecutorService executorService = null;
+        InstrumentedThreadPoolExecutor executorService = null;
 
         try {
             // Set system properties for the keystore
@@ -66,7 +66,9 @@ public class ChatServer {
             // serverSocket.setEnabledProtocols(new String[]{"TLSv1.2", "TLSv1.3"});
             // serverSocket.setEnabledCipherSuites(new String[]{"TLS_AES_256_GCM_SHA384", "TLS_DHE_RSA_WITH_AES_256_GCM_SHA384"});
 
-            executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+            executorService = InstrumentedThreadPoolExecutor.newFixedThreadPool("Chat-Handlers", THREAD_POOL_SIZE);
+            // Periodically report how long clients waited for a handler thread and how long sessions lasted
+            executorService.startReporting(METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS, System.out::println);
 
             System.out.println("Waiting for clients to connect securely...");
             while (true) { // Server runs indefinitely
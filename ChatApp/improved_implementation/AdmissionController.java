@@ -0,0 +1,154 @@
+package io.github.hridoy100;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class decides, right after {@code accept()} and before any stream or handler thread is
+ * created, whether a new connection may be served. A connection is refused when:
+ * <ul>
+ *   <li>{@link Decision#RATE_LIMITED}: its source address opened connections faster than its
+ *       {@link TokenBucket} allows ({@code perIpRate} per second, bursts of up to {@code perIpBurst});</li>
+ *   <li>{@link Decision#OVERLOADED}: more than {@code maxWaiting} accepted connections are already
+ *       waiting for a thread, so a new one would only queue behind them;</li>
+ *   <li>{@link Decision#AT_CAPACITY}: {@code maxConnections} connections are already open.</li>
+ * </ul>
+ * <p>
+ * A refused client is sent one short message and disconnected at once, so a misbehaving host
+ * cannot make the server create threads and streams without limit. Every decision is counted.
+ * Per-address buckets are created on first use; every {@code CLEANUP_INTERVAL} decisions, buckets
+ * that have refilled completely are dropped, since forgetting a full bucket changes nothing.
+ * </p>
+ */
+public class AdmissionController {
+
+    /**
+     * The outcome of an admission check.
+     */
+    public enum Decision {
+        ADMITTED(null),
+        RATE_LIMITED("ERROR: Too many connections from your address. Please try again later."),
+        OVERLOADED("ERROR: The server is busy. Please try again later."),
+        AT_CAPACITY("ERROR: The server is full. Please try again later.");
+
+        private final String rejectionMessage;
+
+        Decision(String rejectionMessage) {
+            this.rejectionMessage = rejectionMessage;
+        }
+
+        /**
+         * Returns the message sent to a refused client.
+         *
+         * @return The message, or {@code null} for {@link #ADMITTED}.
+         */
+        public String rejectionMessage() {
+            return rejectionMessage;
+        }
+    }
+
+    private static final int CLEANUP_INTERVAL = 1024; // Decisions between sweeps of idle buckets
+
+    private final double perIpRate; // Connections per second one address may open, sustained
+    private final int perIpBurst; // Connections one address may open at once after being idle
+    private final int maxConnections; // Most connections open at the same time
+    private final int maxWaiting; // Most connections waiting for a thread before new ones are refused
+    private final Map<InetAddress, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger openConnections = new AtomicInteger(); // Admitted and not yet released
+    private final AtomicLong decisions = new AtomicLong();
+    private final AtomicLong[] counts = new AtomicLong[Decision.values().length]; // Per decision
+
+    /**
+     * Constructs a new AdmissionController.
+     *
+     * @param perIpRate Connections per second one address may open, sustained.
+     * @param perIpBurst Connections one address may open at once after being idle.
+     * @param maxConnections Most connections open at the same time.
+     * @param maxWaiting Most accepted connections waiting for a thread before new ones are refused.
+     */
+    public AdmissionController(double perIpRate, int perIpBurst, int maxConnections, int maxWaiting) {
+        this.perIpRate = perIpRate;
+        this.perIpBurst = perIpBurst;
+        this.maxConnections = maxConnections;
+        this.maxWaiting = maxWaiting;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Creates a controller configured by system properties: {@code -Dadmission.perIpRate}
+     * (default 5 per second), {@code -Dadmission.perIpBurst} (default 10),
+     * {@code -Dadmission.maxConnections} and {@code -Dadmission.maxWaiting}.
+     *
+     * @param defaultMaxConnections The default for {@code admission.maxConnections}.
+     * @param defaultMaxWaiting The default for {@code admission.maxWaiting}.
+     * @return The controller.
+     */
+    public static AdmissionController fromSystemProperties(int defaultMaxConnections, int defaultMaxWaiting) {
+        return new AdmissionController(
+                Double.parseDouble(System.getProperty("admission.perIpRate", "5")),
+                Integer.getInteger("admission.perIpBurst", 10),
+                Integer.getInteger("admission.maxConnections", defaultMaxConnections),
+                Integer.getInteger("admission.maxWaiting", defaultMaxWaiting));
+    }
+
+    /**
+     * Decides whether a new connection is served. An admitted connection holds one of the
+     * {@code maxConnections} slots until {@link #release()} is called.
+     *
+     * @param address The client's address.
+     * @param waiting Accepted connections currently waiting for a thread.
+     * @return The decision.
+     */
+    public Decision admit(InetAddress address, int waiting) {
+        if (decisions.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            buckets.values().removeIf(TokenBucket::isFull);
+        }
+        Decision decision = decide(address, waiting);
+        counts[decision.ordinal()].incrementAndGet();
+        return decision;
+    }
+
+    private Decision decide(InetAddress address, int waiting) {
+        // Every attempt costs a token, even one refused for another reason, so retrying in a loop does not help
+        TokenBucket bucket = buckets.computeIfAbsent(address, a -> new TokenBucket(perIpRate, perIpBurst));
+        if (!bucket.tryAcquire(1)) {
+            return Decision.RATE_LIMITED;
+        }
+        if (waiting > maxWaiting) {
+            return Decision.OVERLOADED;
+        }
+        while (true) {
+            int open = openConnections.get();
+            if (open >= maxConnections) {
+                return Decision.AT_CAPACITY;
+            }
+            if (openConnections.compareAndSet(open, open + 1)) {
+                return Decision.ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of an admitted connection once it has closed.
+     */
+    public void release() {
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * Returns a one-line summary of admission decisions.
+     *
+     * @return The formatted counters.
+     */
+    public String metrics() {
+        return String.format("Admission: admitted %d, open %d/%d, rejected: rate-limited %d, overloaded %d, at capacity %d, tracked addresses %d",
+                counts[Decision.ADMITTED.ordinal()].get(), openConnections.get(), maxConnections,
+                counts[Decision.RATE_LIMITED.ordinal()].get(), counts[Decision.OVERLOADED.ordinal()].get(),
+                counts[Decision.AT_CAPACITY.ordinal()].get(), buckets.size());
+    }
+}
@@ -0,0 +1,377 @@
+package io.github.hridoy100;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is an asynchronous alternative to {@link ServerMain} and {@link CreateConnection}.
+ * Instead of one thread blocked in {@link NetworkConnection#read()} per user, every socket
+ * operation is started on an {@link AsynchronousSocketChannel} and finished by a
+ * {@link CompletionHandler} running on a shared {@link AsynchronousChannelGroup} sized to the
+ * number of cores. An idle user costs one pending read, not a parked thread.
+ * <p>
+ * The behaviour of {@link CreateConnection} is kept: the first String is the username,
+ * {@code list}, {@code ip} and {@code exit} are commands, any other String is broadcast to all
+ * other users, and join/leave notices are broadcast. Clients still use
+ * {@link NetworkConnection}; {@link ObjectStreamCodec} speaks its serialization format.
+ * </p>
+ * Configuration (system properties, all optional):
+ * <ul>
+ *   <li>{@code chat.asyncThreads}: completion handler threads (default: available processors)</li>
+ *   <li>{@code chat.maxQueuedBytes}: unsent bytes per user before a slow user is disconnected (default 1 MB)</li>
+ * </ul>
+ */
+public class AsyncChatServer {
+
+    private static final int SERVER_PORT = 12345; // Same port as ServerMain, so the same clients work
+    private static final int INITIAL_READ_BUFFER = 8 * 1024;
+    private static final int MAX_READ_BUFFER = 1024 * 1024; // Largest single message accepted
+    private static final int MAX_GATHERED_BUFFERS = 64; // Messages combined into one gathering write
+
+    private final Map<String, ClientSession> clientList = new ConcurrentHashMap<>(); // Username to session
+    private final long maxQueuedBytes;
+    private final AsynchronousChannelGroup group;
+    private AsynchronousServerSocketChannel serverChannel;
+
+    /**
+     * Creates the server and its channel group.
+     *
+     * @param threads Number of threads in the shared channel group.
+     * @param maxQueuedBytes Unsent bytes allowed per user before the user is disconnected.
+     * @throws IOException If the channel group cannot be created.
+     */
+    public AsyncChatServer(int threads, long maxQueuedBytes) throws IOException {
+        this.maxQueuedBytes = maxQueuedBytes;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.group = AsynchronousChannelGroup.withFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "ChatCompletion-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Binds the server port and starts accepting. Returns immediately; all further work
+     * happens in completion handlers on the channel group.
+     *
+     * @param port The port to listen on.
+     * @throws IOException If the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        serverChannel = AsynchronousServerSocketChannel.open(group).bind(new InetSocketAddress(port));
+        serverChannel.accept(null, new CompletionHandler<AsynchronousSocketChannel, Void>() {
+            @Override
+            public void completed(AsynchronousSocketChannel channel, Void unused) {
+                serverChannel.accept(null, this); // Accept the next client right away
+                try {
+                    ClientSession session = new ClientSession(channel);
+                    System.out.println("Client connected from " + session.address);
+                    session.send(ObjectStreamCodec.header()); // NetworkConnection's ObjectInputStream waits for this
+                    session.readNext();
+                } catch (IOException e) {
+                    System.err.println("Error setting up client connection: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void unused) {
+                if (serverChannel.isOpen()) {
+                    System.err.println("Accept error: " + error.getMessage());
+                    serverChannel.accept(null, this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until the channel group has terminated (after {@link #shutdown()}).
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void awaitTermination() throws InterruptedException {
+        group.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    /**
+     * Closes the listening channel and every client connection, then stops the channel group.
+     */
+    public void shutdown() {
+        try {
+            group.shutdownNow();
+        } catch (IOException e) {
+            System.err.println("Error shutting down channel group: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a message to all connected clients except the sender. The message is encoded
+     * once and the same bytes are queued for every recipient.
+     *
+     * @param sender The sending user's session, or {@code null} to reach everyone.
+     * @param message The message to broadcast.
+     */
+    private void broadcastMessage(ClientSession sender, String message) {
+        ByteBuffer encoded = ObjectStreamCodec.encode(message);
+        for (ClientSession recipient : clientList.values()) {
+            if (recipient != sender) { // Don't send message back to sender
+                recipient.send(encoded.duplicate());
+            }
+        }
+    }
+
+    /**
+     * The state of one connected client. Reads are strictly sequential (the next read is
+     * only started when the previous one has been handled), so the protocol state needs no
+     * locking. Writes may be queued from any thread and are drained by one outstanding
+     * gathering write at a time.
+     */
+    private final class ClientSession {
+        private final AsynchronousSocketChannel channel;
+        private final String address;
+        private final ObjectStreamCodec codec = new ObjectStreamCodec();
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>(); // Encoded messages not yet written
+        private final AtomicLong queuedBytes = new AtomicLong(); // Bytes in outbound plus the write in flight
+        private final AtomicBoolean writing = new AtomicBoolean(); // True while a write is outstanding
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER); // Kept in write mode between reads
+        private volatile boolean closeAfterWrite = false;
+        private String clientUsername; // Null until the first message has been handled
+
+        ClientSession(AsynchronousSocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.address = ((InetSocketAddress) channel.getRemoteAddress()).getAddress().getHostAddress();
+        }
+
+        void readNext() {
+            channel.read(readBuffer, null, new CompletionHandler<Integer, Void>() {
+                @Override
+                public void completed(Integer bytesRead, Void unused) {
+                    if (bytesRead < 0) {
+                        close();
+                        return;
+                    }
+                    try {
+                        handleReceivedBytes();
+                    } catch (IOException e) {
+                        System.err.println("Client handler I/O error for " + clientUsername + ": " + e.getMessage());
+                        close();
+                        return;
+                    }
+                    if (!closed.get() && !closeAfterWrite) {
+                        readNext();
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void unused) {
+                    if (!closed.get()) {
+                        System.err.println("Client handler I/O error for " + clientUsername + ": " + error.getMessage());
+                    }
+                    close();
+                }
+            });
+        }
+
+        private void handleReceivedBytes() throws IOException {
+            readBuffer.flip();
+            Object received;
+            while (!closeAfterWrite && (received = codec.decode(readBuffer)) != null) {
+                handleObject(received);
+            }
+            readBuffer.compact();
+            if (!readBuffer.hasRemaining()) {
+                // Full without a complete message: the message is larger than the buffer
+                if (readBuffer.capacity() >= MAX_READ_BUFFER) {
+                    throw new StreamCorruptedException("Message exceeds " + MAX_READ_BUFFER + " bytes");
+                }
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, MAX_READ_BUFFER));
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+        }
+
+        /**
+         * The protocol of {@link CreateConnection}, applied to one received object.
+         */
+        private void handleObject(Object receivedObject) {
+            if (clientUsername == null) {
+                // First, get the username from the client
+                if (!(receivedObject instanceof String)) {
+                    send("ERROR: Please send your username as the first message.");
+                    System.out.println("Client did not send username as first message. Disconnecting.");
+                    closeAfterWrite();
+                    return;
+                }
+                String requested = (String) receivedObject;
+                if (clientList.putIfAbsent(requested, this) != null) {
+                    send("ERROR: Username '" + requested + "' is already taken. Please try again with a different username.");
+                    System.out.println("Client tried to connect with taken username: " + requested);
+                    closeAfterWrite();
+                    return;
+                }
+                clientUsername = requested;
+                send("Welcome to the chat, " + clientUsername + "!");
+                broadcastMessage(this, clientUsername + " has joined the chat.");
+                System.out.println(clientUsername + " joined from " + address);
+                return;
+            }
+
+            if (!(receivedObject instanceof String)) {
+                System.out.println("Received unexpected object type from " + clientUsername + ": "
+                        + ((ObjectStreamCodec.SkippedObject) receivedObject).getClassName());
+                return;
+            }
+            String message = (String) receivedObject;
+            System.out.println(clientUsername + ": " + message);
+
+            // Process commands
+            if (message.equalsIgnoreCase("exit")) {
+                System.out.println(clientUsername + " requested to exit.");
+                closeAfterWrite();
+            } else if (message.equalsIgnoreCase("list")) {
+                // Send list of connected users to this client
+                send("Connected users: " + String.join(", ", clientList.keySet()));
+            } else if (message.equalsIgnoreCase("ip")) {
+                // Send client's IP address to this client
+                send("Your IP address: " + address);
+            } else {
+                // Regular message, broadcast to all other clients
+                broadcastMessage(this, clientUsername + ": " + message);
+            }
+        }
+
+        void send(String message) {
+            send(ObjectStreamCodec.encode(message));
+        }
+
+        /**
+         * Queues encoded bytes for this client and starts a write if none is in flight.
+         * A client that stops reading is disconnected once its queue exceeds the limit,
+         * so one slow user cannot make the server buffer without bound.
+         */
+        void send(ByteBuffer encoded) {
+            if (closed.get()) {
+                return;
+            }
+            if (queuedBytes.addAndGet(encoded.remaining()) > maxQueuedBytes) {
+                System.err.println("Disconnecting " + clientUsername + ": too many unsent messages.");
+                close();
+                return;
+            }
+            outbound.add(encoded);
+            if (writing.compareAndSet(false, true)) {
+                writeQueued();
+            }
+        }
+
+        /**
+         * Writes the queued messages with one gathering write. Called only by the thread
+         * that set the {@code writing} flag.
+         */
+        private void writeQueued() {
+            List<ByteBuffer> batch = new ArrayList<>();
+            ByteBuffer next;
+            while (batch.size() < MAX_GATHERED_BUFFERS && (next = outbound.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                writing.set(false);
+                // A message may have been queued after the poll but before the flag was cleared
+                if (!outbound.isEmpty() && writing.compareAndSet(false, true)) {
+                    writeQueued();
+                } else if (closeAfterWrite) {
+                    close();
+                }
+                return;
+            }
+            write(batch.toArray(new ByteBuffer[0]));
+        }
+
+        private void write(ByteBuffer[] buffers) {
+            channel.write(buffers, 0, buffers.length, 0L, TimeUnit.MILLISECONDS, null, new CompletionHandler<Long, Void>() {
+                @Override
+                public void completed(Long bytesWritten, Void unused) {
+                    queuedBytes.addAndGet(-bytesWritten);
+                    if (buffers[buffers.length - 1].hasRemaining()) {
+                        write(buffers); // Partial write; finish these bytes before anything newer
+                    } else {
+                        writeQueued();
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Void unused) {
+                    close();
+                }
+            });
+        }
+
+        private void closeAfterWrite() {
+            closeAfterWrite = true;
+            if (writing.compareAndSet(false, true)) {
+                writeQueued(); // Nothing in flight; writeQueued closes once the queue is empty
+            }
+        }
+
+        /**
+         * Closes the connection once, removes the user and tells the others.
+         */
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing network connection for " + clientUsername + ": " + e.getMessage());
+            }
+            if (clientUsername != null && clientList.remove(clientUsername, this)) {
+                broadcastMessage(this, clientUsername + " has left the chat.");
+                System.out.println(clientUsername + " disconnected.");
+            }
+            outbound.clear();
+            System.out.println("Client session closed for " + (clientUsername != null ? clientUsername : "unknown client"));
+        }
+    }
+
+    public static void main(String[] args) {
+        int threads = Integer.getInteger("chat.asyncThreads", Runtime.getRuntime().availableProcessors());
+        long maxQueuedBytes = Long.getLong("chat.maxQueuedBytes", 1024 * 1024);
+        System.out.println("Async Chat Server application started.");
+
+        AsyncChatServer server = null;
+        try {
+            server = new AsyncChatServer(threads, maxQueuedBytes);
+            server.start(SERVER_PORT);
+            System.out.println("Server listening on port " + SERVER_PORT + " with " + threads + " completion thread(s)...");
+            server.awaitTermination(); // The group's threads do all the work from here on
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            System.err.println("Server interrupted.");
+            Thread.currentThread().interrupt();
+        } finally {
+            if (server != null) {
+                server.shutdown();
+            }
+            System.out.println("Async Chat Server application terminated.");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a composable stage that groups items into batches. A batch is published
+ * when it reaches {@code maxBatchSize} items, or {@code maxDelayMillis} after its first item
+ * arrived, whichever comes first, so bursts are handled in bulk while a lone message is
+ * only delayed briefly.
+ * <p>
+ * It requests exactly one batch worth of items from upstream and asks for the next batch
+ * only after the current one has been handed downstream, so a slow downstream throttles the
+ * upstream publisher instead of letting batches pile up.
+ * </p>
+ *
+ * @param <T> The type of item batched.
+ */
+public class BatchProcessor<T> extends SubmissionPublisher<List<T>> implements Flow.Processor<T, List<T>> {
+
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService timer; // Publishes batches whose delay has expired
+    private final Object emitLock = new Object(); // Keeps batches in order when the timer and onNext both publish
+    private Flow.Subscription subscription;
+    private List<T> current = new ArrayList<>(); // Batch being filled; guarded by this
+    private ScheduledFuture<?> pendingFlush; // Timer for the current batch; guarded by this
+
+    /**
+     * Constructs a new BatchProcessor.
+     *
+     * @param maxBatchSize The largest number of items in one batch.
+     * @param maxDelayMillis The longest an item waits for its batch to fill.
+     * @param executor The executor that delivers batches to subscribers.
+     * @param bufferCapacity Batches buffered per subscriber before publishing blocks.
+     */
+    public BatchProcessor(int maxBatchSize, long maxDelayMillis, Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BatchProcessor-Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs a new BatchProcessor using the common pool and the default buffer size.
+     *
+     * @param maxBatchSize The largest number of items in one batch.
+     * @param maxDelayMillis The longest an item waits for its batch to fill.
+     */
+    public BatchProcessor(int maxBatchSize, long maxDelayMillis) {
+        this(maxBatchSize, maxDelayMillis, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(maxBatchSize);
+    }
+
+    @Override
+    public void onNext(T item) {
+        boolean full;
+        synchronized (this) {
+            current.add(item);
+            if (current.size() == 1 && maxBatchSize > 1) {
+                pendingFlush = timer.schedule(this::emit, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+            full = current.size() >= maxBatchSize;
+        }
+        if (full) {
+            emit();
+        }
+    }
+
+    /**
+     * Publishes the current batch, if any, and then requests as many items as it contained.
+     */
+    private void emit() {
+        synchronized (emitLock) {
+            List<T> batch;
+            synchronized (this) {
+                if (current.isEmpty()) {
+                    return;
+                }
+                batch = current;
+                current = new ArrayList<>();
+                if (pendingFlush != null) {
+                    pendingFlush.cancel(false);
+                    pendingFlush = null;
+                }
+            }
+            submit(batch); // Blocks while a subscriber's buffer is full
+            if (subscription != null) {
+                subscription.request(batch.size());
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        timer.shutdownNow();
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        emit(); // Publish the partial last batch
+        timer.shutdownNow();
+        close();
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.hridoy100;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class turns a blocking source (a socket, the console) into a
+ * {@link Flow.Publisher} that only reads when its subscriber has asked for more.
+ * <p>
+ * Unlike {@link Reader}, which reads as fast as data arrives, the reading thread here
+ * waits until {@link Flow.Subscription#request(long)} has granted demand. While a slow
+ * subscriber has no outstanding demand nothing is read, so for a socket the unread bytes
+ * stay in the TCP receive window and the sender is throttled by the network itself.
+ * </p>
+ * A publisher supports a single subscriber, because its source can only be read once.
+ *
+ * @param <T> The type of item read from the source.
+ */
+public abstract class BlockingSourcePublisher<T> implements Flow.Publisher<T> {
+
+    private final String threadName; // Name of the thread that reads the source
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    /**
+     * Constructs a publisher whose reading thread has the given name.
+     *
+     * @param threadName The name of the reading thread.
+     */
+    protected BlockingSourcePublisher(String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * Reads the next item from the source, blocking until one is available.
+     *
+     * @return The next item, or {@code null} when the source is exhausted.
+     * @throws IOException If reading fails. An {@link EOFException} is treated as normal completion.
+     */
+    protected abstract T readNext() throws IOException;
+
+    /**
+     * Called once after the subscription ends, for any reason. Does nothing by default.
+     */
+    protected void onTerminated() {
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("This publisher supports only one subscriber"));
+            return;
+        }
+        ReadingSubscription subscription = new ReadingSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        Thread reader = new Thread(subscription, threadName);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * The subscription and the reading loop behind it. Demand is a counter that
+     * {@link #request(long)} raises and the reading thread lowers by one per item.
+     * Every signal to the subscriber, including the error for an invalid request, is sent
+     * by the reading thread, so signals never overlap and none is sent under the lock.
+     */
+    private final class ReadingSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        private long demand = 0; // Items requested but not yet delivered; guarded by this
+        private boolean cancelled = false; // Guarded by this
+        private Throwable error; // An invalid request, to be signalled by the reading thread; guarded by this
+
+        ReadingSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                // Reactive Streams rule 3.9: non-positive requests are an error; the reading thread
+                // signals it once the item it may be delivering right now is done
+                if (!cancelled) {
+                    error = new IllegalArgumentException("request(n) requires n > 0, got " + n);
+                    cancelled = true;
+                    notifyAll();
+                }
+                return;
+            }
+            demand = (demand + n < 0) ? Long.MAX_VALUE : demand + n; // Saturate instead of overflowing
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        private synchronized boolean awaitDemand() throws InterruptedException {
+            while (demand == 0 && !cancelled) {
+                wait(); // No demand: do not read, so the source is throttled
+            }
+            if (cancelled) {
+                return false;
+            }
+            demand--;
+            return true;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized Throwable takeError() {
+            Throwable pending = error;
+            error = null;
+            return pending;
+        }
+
+        @Override
+        public void run() {
+            boolean terminated = false; // onComplete or onError has been signalled
+            try {
+                while (awaitDemand()) {
+                    T item = readNext();
+                    if (item == null) {
+                        terminated = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(item);
+                }
+            } catch (EOFException e) {
+                if (!isCancelled()) {
+                    terminated = true;
+                    subscriber.onComplete(); // The other side closed the stream normally
+                }
+            } catch (IOException e) {
+                if (!isCancelled()) {
+                    terminated = true;
+                    subscriber.onError(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                Throwable invalidRequest = takeError();
+                if (invalidRequest != null && !terminated) {
+                    subscriber.onError(invalidRequest);
+                }
+                onTerminated();
+            }
+        }
+    }
+}
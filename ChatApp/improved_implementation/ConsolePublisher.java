@@ -0,0 +1,43 @@
+package io.github.hridoy100;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * This class publishes the lines typed on the console as a
+ * {@link java.util.concurrent.Flow.Publisher}. It is the demand-driven counterpart of the
+ * input loop in {@link Writer}: a new line is only read when the subscriber (for example a
+ * {@link NetworkSubscriber} still busy sending) has asked for one. The stream completes
+ * when the user types {@code exit} or the input ends.
+ */
+public class ConsolePublisher extends BlockingSourcePublisher<String> {
+
+    private final BufferedReader console; // Reader over the console input
+
+    /**
+     * Constructs a new ConsolePublisher reading from the given input stream.
+     *
+     * @param in The input stream to read lines from, usually {@code System.in}.
+     */
+    public ConsolePublisher(InputStream in) {
+        super("ConsolePublisher");
+        this.console = new BufferedReader(new InputStreamReader(in));
+    }
+
+    /**
+     * Reads the next line from the console.
+     *
+     * @return The line, or {@code null} on {@code exit} or end of input.
+     * @throws IOException If reading from the console fails.
+     */
+    @Override
+    protected String readNext() throws IOException {
+        String line = console.readLine();
+        if (line == null || "exit".equalsIgnoreCase(line.trim())) {
+            return null;
+        }
+        return line;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.hridoy100;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+/**
+ * This class prints every item it receives to the console, requesting one item at a
+ * time. If printing is slow, nothing more is requested, so the upstream publisher (and
+ * through a {@link NetworkPublisher}, the sender on the other end) waits for the console.
+ * A {@link List} item, for example from a {@link BatchProcessor}, is printed line by line.
+ */
+public class ConsoleSubscriber implements Flow.Subscriber<Object> {
+
+    private final String prefix; // Printed before every item, e.g. "Received: "
+    private final CountDownLatch done = new CountDownLatch(1); // Released when the stream ends
+    private Flow.Subscription subscription;
+
+    /**
+     * Constructs a new ConsoleSubscriber.
+     *
+     * @param prefix The text printed before every item.
+     */
+    public ConsoleSubscriber(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Object item) {
+        if (item instanceof List) {
+            for (Object element : (List<?>) item) {
+                System.out.println(prefix + element);
+            }
+        } else {
+            System.out.println(prefix + item);
+        }
+        subscription.request(1); // Only ask for the next item once this one has been printed
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("Connection error: " + throwable.getMessage());
+        done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        System.out.println("Stream closed.");
+        done.countDown();
+    }
+
+    /**
+     * Blocks until the stream has completed or failed.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void awaitCompletion() throws InterruptedException {
+        done.await();
+    }
+}
@@ -1,7 +1,8 @@
 package io.github.hridoy100;
 
 import java.io.IOException;
-import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,12 +10,20 @@ import java.util.Map;
  * to manage communication with a single connected client in a separate thread.
  * It handles receiving messages, processing commands, and broadcasting messages
  * to other clients in the chat room.
+ * <p>
+ * Joins and leaves are not broadcast one by one; they are reported to the
+ * {@link PresenceService}, which sends each interested client one batched delta per window.
+ * A client chooses whose presence it follows with the {@code presence} command.
+ * </p>
  */
 public class CreateConnection implements Runnable { // Renamed from original to reflect its role as a client handler
 
     private final Map<String, Information> clientList; // Reference to the server's list of connected clients
     private final NetworkConnection netConnection; // The network connection to the specific client
+    private final PresenceService presence; // Batches join and leave notifications
+    private PresenceService.Subscription subscription; // Whose presence this client follows
     private String clientUsername; // The username of this client
+    private Information information; // This client's entry in clientList, once registered
     private volatile boolean running = true; // Flag to control the thread's execution loop
 
     /**
@@ -22,10 +31,12 @@ public class CreateConnection implements Runnable { // Renamed from original to
      *
      * @param clientList A thread-safe map containing all connected clients.
      * @param netConnection The {@link NetworkConnection} established with this client.
+     * @param presence The service that tells clients who joined and left.
      */
-    public CreateConnection(Map<String, Information> clientList, NetworkConnection netConnection) {
+    public CreateConnection(Map<String, Information> clientList, NetworkConnection netConnection, PresenceService presence) {
         this.clientList = clientList;
         this.netConnection = netConnection;
+        this.presence = presence;
     }
 
     /**
@@ -41,16 +52,17 @@ public class CreateConnection implements Runnable { // Renamed from original to
             Object initialObject = netConnection.read();
             if (initialObject instanceof String) {
                 clientUsername = (String) initialObject;
-                if (clientList.containsKey(clientUsername)) {
+                // Add client to the list; checking and adding in one step, so two clients cannot claim the same name
+                Information candidate = new Information(clientUsername, netConnection);
+                if (clientList.putIfAbsent(clientUsername, candidate) != null) {
                     // Username already taken, inform client and close connection
                     netConnection.write("ERROR: Username '" + clientUsername + "' is already taken. Please try again with a different username.");
                     System.out.println("Client tried to connect with taken username: " + clientUsername);
-                    return; // Terminate this handler thread
+                    return; // Terminate this handler thread; the name belongs to the other client
                 }
-                // Add client to the list
-                clientList.put(clientUsername, new Information(clientUsername, netConnection));
+                information = candidate;
                 netConnection.write("Welcome to the chat, " + clientUsername + "!");
-                broadcastMessage(clientUsername + " has joined the chat.");
+                subscription = presence.joined(clientUsername, this::sendPresence);
                 System.out.println(clientUsername + " joined from " + netConnection.getSocket().getInetAddress().getHostAddress());
             } else {
                 netConnection.write("ERROR: Please send your username as the first message.");
@@ -75,6 +87,8 @@ public class CreateConnection implements Runnable { // Renamed from original to
                         StringBuilder userList = new StringBuilder("Connected users: ");
                         clientList.keySet().forEach(user -> userList.append(user).append(", "));
                         netConnection.write(userList.substring(0, userList.length() - 2)); // Remove trailing ", "
+                    } else if (message.equalsIgnoreCase("presence") || message.regionMatches(true, 0, "presence ", 0, 9)) {
+                        changeSubscription(message.substring(8).trim());
                     } else if (message.equalsIgnoreCase("ip")) {
                         // Send client's IP address to this client
                         netConnection.write("Your IP address: " + netConnection.getSocket().getInetAddress().getHostAddress());
@@ -95,10 +109,12 @@ public class CreateConnection implements Runnable { // Renamed from original to
             System.err.println("Error deserializing object from " + clientUsername + ": " + e.getMessage());
             e.printStackTrace();
         } finally {
-            // Clean up resources and remove client from list
-            if (clientUsername != null) {
-                clientList.remove(clientUsername);
-                broadcastMessage(clientUsername + " has left the chat.");
+            // Clean up resources and remove client from list, but only if this client registered the name
+            if (information != null) {
+                clientList.remove(clientUsername, information);
+                if (subscription != null) {
+                    presence.left(clientUsername, subscription);
+                }
                 System.out.println(clientUsername + " disconnected.");
             }
             try {
@@ -110,6 +126,50 @@ public class CreateConnection implements Runnable { // Renamed from original to
         }
     }
 
+    /**
+     * Handles the {@code presence} command:
+     * {@code presence} shows the subscription, {@code presence all} and {@code presence off}
+     * follow everyone or nobody, {@code presence watch <names>} and {@code presence unwatch <names>}
+     * edit the watch list (names separated by spaces or commas).
+     *
+     * @param arguments The text after "presence".
+     * @throws IOException If the reply cannot be sent.
+     */
+    private void changeSubscription(String arguments) throws IOException {
+        String[] words = arguments.split("[\\s,]+");
+        List<String> usernames = Arrays.asList(words).subList(Math.min(1, words.length), words.length);
+        String action = words[0].toLowerCase();
+        if (action.equals("all")) {
+            subscription.watchAll();
+        } else if (action.equals("off")) {
+            subscription.watchNone();
+        } else if (action.equals("watch") && !usernames.isEmpty()) {
+            subscription.watch(usernames);
+        } else if (action.equals("unwatch") && !usernames.isEmpty()) {
+            subscription.unwatch(usernames);
+        } else if (!action.isEmpty()) {
+            netConnection.write("Usage: presence [all | off | watch <names> | unwatch <names>]");
+            return;
+        }
+        netConnection.write("Presence updates every " + presence.getWindowMillis() + " ms for: " + subscription);
+    }
+
+    /**
+     * Sends a presence delta to this client; called by the presence flusher.
+     *
+     * @param delta The batched joins and leaves.
+     * @return {@code true} if it was written.
+     */
+    private boolean sendPresence(String delta) {
+        try {
+            netConnection.write(delta);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error sending presence update to " + clientUsername + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Broadcasts a message to all connected clients except the sender.
      *
@@ -45,12 +45,13 @@ public class NetworkConnection implements Closeable {
     }
 
     /**
-     * Writes an object to the connected socket.
+     * Writes an object to the connected socket. Synchronized because a client's own handler,
+     * other clients' handlers and the presence flusher may all write to it.
      *
      * @param obj The object to be written. Must be {@link java.io.Serializable}.
      * @throws IOException If an I/O error occurs during writing.
      */
-    public void write(Object obj) throws IOException {
+    public synchronized void write(Object obj) throws IOException {
         oos.writeObject(obj);
         oos.flush(); // Ensure the object is sent immediately
     }
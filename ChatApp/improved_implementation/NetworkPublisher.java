@@ -0,0 +1,48 @@
+package io.github.hridoy100;
+
+import java.io.IOException;
+
+/**
+ * This class publishes the objects received on a {@link NetworkConnection} as a
+ * {@link java.util.concurrent.Flow.Publisher}. It is the demand-driven counterpart of
+ * {@link Reader}: the next object is only read from the socket once the subscriber has
+ * requested it.
+ */
+public class NetworkPublisher extends BlockingSourcePublisher<Object> {
+
+    private final NetworkConnection netConnection; // The network connection to read from
+
+    /**
+     * Constructs a new NetworkPublisher for the specified network connection.
+     *
+     * @param nc The {@link NetworkConnection} from which objects are read.
+     */
+    public NetworkPublisher(NetworkConnection nc) {
+        super("NetworkPublisher-" + nc.getSocket().getInetAddress().getHostAddress());
+        this.netConnection = nc;
+    }
+
+    /**
+     * Reads the next object from the connection.
+     *
+     * @return The object read.
+     * @throws IOException If reading fails, or the object's class cannot be loaded.
+     */
+    @Override
+    protected Object readNext() throws IOException {
+        try {
+            Object received;
+            do {
+                received = netConnection.read();
+            } while (received == null); // A null written by the peer is not a valid Flow item; skip it
+            return received;
+        } catch (IOException e) {
+            if (netConnection.getSocket().isClosed()) {
+                return null; // Closed on our side (e.g. by a NetworkSubscriber); end the stream normally
+            }
+            throw e;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Received an object of unknown class: " + e.getMessage(), e);
+        }
+    }
+}
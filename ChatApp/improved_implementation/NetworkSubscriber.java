@@ -0,0 +1,93 @@
+package io.github.hridoy100;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * This class writes every item it receives to a {@link NetworkConnection}. It is the
+ * demand-driven counterpart of {@link Writer}.
+ * <p>
+ * It requests a fixed window of items up front and asks for more only after items have
+ * actually been written. {@link NetworkConnection#write(Object)} blocks while the peer's
+ * receive window is full, so a slow network peer stops the requests and the upstream
+ * publisher (the console, or a chat room queue) is throttled rather than buffering without bound.
+ * </p>
+ * A {@link List} item, for example from a {@link BatchProcessor}, is written element by element.
+ */
+public class NetworkSubscriber implements Flow.Subscriber<Object> {
+
+    private final NetworkConnection netConnection; // The network connection to write to
+    private final int window; // Maximum items requested but not yet written
+    private final boolean closeOnComplete; // Whether to close the connection when the stream ends
+    private Flow.Subscription subscription;
+    private int writtenSinceRequest = 0; // Items written since demand was last replenished
+
+    /**
+     * Constructs a new NetworkSubscriber.
+     *
+     * @param nc The {@link NetworkConnection} to which items are written.
+     * @param window The number of items that may be requested ahead of the writes (at least 1).
+     * @param closeOnComplete Whether to close the connection when the upstream completes or fails.
+     */
+    public NetworkSubscriber(NetworkConnection nc, int window, boolean closeOnComplete) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        this.netConnection = nc;
+        this.window = window;
+        this.closeOnComplete = closeOnComplete;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(Object item) {
+        try {
+            if (item instanceof List) {
+                for (Object element : (List<?>) item) {
+                    netConnection.write(element);
+                }
+            } else {
+                netConnection.write(item);
+            }
+        } catch (IOException e) {
+            System.err.println("NetworkSubscriber I/O error: " + e.getMessage());
+            subscription.cancel(); // Nobody to write to any more; stop the upstream
+            closeConnection();
+            return;
+        }
+        // Replenish demand in halves of the window instead of one request per item
+        if (++writtenSinceRequest >= Math.max(1, window / 2)) {
+            subscription.request(writtenSinceRequest);
+            writtenSinceRequest = 0;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        System.err.println("NetworkSubscriber upstream error: " + throwable.getMessage());
+        if (closeOnComplete) {
+            closeConnection();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (closeOnComplete) {
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            netConnection.close();
+        } catch (IOException e) {
+            System.err.println("Error closing network connection: " + e.getMessage());
+        }
+    }
+}
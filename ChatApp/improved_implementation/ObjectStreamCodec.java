@@ -0,0 +1,380 @@
+package io.github.hridoy100;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class decodes and encodes the Java Object Serialization stream used by the ChatApp
+ * clients, working directly on {@link ByteBuffer}s so that it can be driven by non-blocking
+ * or completion-based channels (see {@link AsyncChatServer}).
+ * <p>
+ * {@link java.io.ObjectInputStream} blocks until a whole object has arrived. This decoder
+ * instead returns {@code null} when the buffer holds only part of a message and picks up
+ * again after the next read.
+ * </p>
+ * Strings ({@code TC_STRING}, {@code TC_LONGSTRING}, back-references and {@code TC_RESET})
+ * are decoded. Plain serializable objects whose fields are primitives or Strings, such as
+ * {@link Data}, are parsed and returned as a {@link SkippedObject} carrying their class name,
+ * the way {@link CreateConnection} logs and ignores non-String objects. Anything else
+ * (custom {@code writeObject}, nested objects, arrays, ...) is reported as a
+ * {@link StreamCorruptedException}.
+ */
+public class ObjectStreamCodec {
+
+    /** The four bytes every object stream starts with: magic 0xACED, version 5. */
+    public static final byte[] STREAM_HEADER = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05};
+
+    private static final byte TC_NULL = 0x70;
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_CLASSDESC = 0x72;
+    private static final byte TC_OBJECT = 0x73;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_ENDBLOCKDATA = 0x78;
+    private static final byte TC_RESET = 0x79;
+    private static final byte TC_LONGSTRING = 0x7C;
+    private static final byte SC_WRITE_METHOD = 0x01;
+    private static final byte SC_SERIALIZABLE = 0x02;
+    private static final int BASE_WIRE_HANDLE = 0x7E0000; // Handle number of the first object in a stream
+
+    /**
+     * A serialized object that was read past but not reconstructed.
+     */
+    public static final class SkippedObject {
+        private final String className;
+
+        SkippedObject(String className) {
+            this.className = className;
+        }
+
+        /**
+         * Returns the fully qualified class name of the skipped object.
+         *
+         * @return The class name.
+         */
+        public String getClassName() {
+            return className;
+        }
+    }
+
+    /** A class descriptor read from the stream. */
+    private static final class ClassDesc {
+        final String name;
+        final byte flags;
+        final char[] fieldTypes; // Type code of each field, in stream order
+        ClassDesc superDesc;
+
+        ClassDesc(String name, byte flags, int fieldCount) {
+            this.name = name;
+            this.flags = flags;
+            this.fieldTypes = new char[fieldCount];
+        }
+    }
+
+    /** Thrown internally when the buffer ends in the middle of a message. */
+    private static final class Underflow extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Underflow() {
+            super(null, null, false, false); // Control flow only; no stack trace needed
+        }
+    }
+
+    private static final Underflow UNDERFLOW = new Underflow();
+
+    private boolean headerRead = false; // Whether the peer's stream header has been consumed
+    private final List<Object> handles = new ArrayList<>(); // Objects read so far, indexed by wire handle
+
+    /**
+     * Decodes the next object from the buffer. If the buffer does not yet hold a complete
+     * message, nothing is consumed and {@code null} is returned.
+     *
+     * @param in A buffer in read mode (after {@code flip()}).
+     * @return A {@link String}, a {@link SkippedObject}, or {@code null} if more data is needed.
+     * @throws StreamCorruptedException If the stream contains content this decoder does not support.
+     */
+    public Object decode(ByteBuffer in) throws StreamCorruptedException {
+        if (!headerRead) {
+            if (in.remaining() < STREAM_HEADER.length) {
+                return null;
+            }
+            for (byte expected : STREAM_HEADER) {
+                if (in.get() != expected) {
+                    throw new StreamCorruptedException("Invalid object stream header");
+                }
+            }
+            headerRead = true;
+        }
+
+        while (true) {
+            int start = in.position();
+            int handleCount = handles.size();
+            try {
+                byte typeCode = readByte(in);
+                if (typeCode == TC_RESET) {
+                    handles.clear();
+                    continue; // A reset carries no data; look at what follows it
+                }
+                Object value = readContent(in, typeCode);
+                if (value == null) {
+                    continue; // writeObject(null); CreateConnection ignores it as well
+                }
+                return value;
+            } catch (Underflow e) {
+                // Roll back to the start of the message and wait for more bytes
+                in.position(start);
+                handles.subList(handleCount, handles.size()).clear();
+                return null;
+            }
+        }
+    }
+
+    private Object readContent(ByteBuffer in, byte typeCode) throws StreamCorruptedException {
+        switch (typeCode) {
+            case TC_NULL:
+                return null;
+            case TC_STRING:
+                return readString(in, readUnsignedShort(in));
+            case TC_LONGSTRING:
+                long length = readLong(in);
+                if (length > Integer.MAX_VALUE) {
+                    throw new StreamCorruptedException("String too long: " + length + " bytes");
+                }
+                return readString(in, (int) length);
+            case TC_REFERENCE:
+                Object referenced = lookup(in);
+                if (referenced instanceof ClassDesc) {
+                    throw new StreamCorruptedException("Back-reference to a class descriptor where an object was expected");
+                }
+                return referenced;
+            case TC_OBJECT:
+                return readObject(in);
+            default:
+                throw new StreamCorruptedException(String.format("Unsupported type code 0x%02X", typeCode));
+        }
+    }
+
+    private SkippedObject readObject(ByteBuffer in) throws StreamCorruptedException {
+        ClassDesc desc = readClassDesc(in);
+        if (desc == null) {
+            throw new StreamCorruptedException("Object without a class descriptor");
+        }
+        SkippedObject object = new SkippedObject(desc.name);
+        handles.add(object);
+
+        // Field data is written from the topmost serializable superclass down
+        List<ClassDesc> hierarchy = new ArrayList<>();
+        for (ClassDesc current = desc; current != null; current = current.superDesc) {
+            hierarchy.add(0, current);
+        }
+        for (ClassDesc current : hierarchy) {
+            if ((current.flags & SC_SERIALIZABLE) == 0 || (current.flags & SC_WRITE_METHOD) != 0) {
+                throw new StreamCorruptedException("Unsupported serialization of " + current.name);
+            }
+            for (char fieldType : current.fieldTypes) {
+                skipFieldValue(in, fieldType, current.name);
+            }
+        }
+        return object;
+    }
+
+    private ClassDesc readClassDesc(ByteBuffer in) throws StreamCorruptedException {
+        byte typeCode = readByte(in);
+        if (typeCode == TC_NULL) {
+            return null;
+        }
+        if (typeCode == TC_REFERENCE) {
+            Object referenced = lookup(in);
+            if (!(referenced instanceof ClassDesc)) {
+                throw new StreamCorruptedException("Back-reference is not a class descriptor");
+            }
+            return (ClassDesc) referenced;
+        }
+        if (typeCode != TC_CLASSDESC) {
+            throw new StreamCorruptedException(String.format("Unsupported class descriptor 0x%02X", typeCode));
+        }
+
+        String name = readString(in, readUnsignedShort(in), false);
+        readLong(in); // serialVersionUID; the server does not load the class, so it is not checked
+        int handleIndex = handles.size();
+        handles.add(null); // The descriptor's handle is assigned before its field type names
+        byte flags = readByte(in);
+        ClassDesc desc = new ClassDesc(name, flags, readUnsignedShort(in));
+        handles.set(handleIndex, desc);
+        for (int i = 0; i < desc.fieldTypes.length; i++) {
+            desc.fieldTypes[i] = (char) readByte(in);
+            readString(in, readUnsignedShort(in), false); // Field name
+            if (desc.fieldTypes[i] == 'L' || desc.fieldTypes[i] == '[') {
+                readContent(in, readByte(in)); // Field class name, itself a String in the stream
+            }
+        }
+        if (readByte(in) != TC_ENDBLOCKDATA) {
+            throw new StreamCorruptedException("Class annotations are not supported (" + name + ")");
+        }
+        desc.superDesc = readClassDesc(in);
+        return desc;
+    }
+
+    private void skipFieldValue(ByteBuffer in, char fieldType, String className) throws StreamCorruptedException {
+        switch (fieldType) {
+            case 'B':
+            case 'Z':
+                skip(in, 1);
+                break;
+            case 'C':
+            case 'S':
+                skip(in, 2);
+                break;
+            case 'I':
+            case 'F':
+                skip(in, 4);
+                break;
+            case 'J':
+            case 'D':
+                skip(in, 8);
+                break;
+            case 'L':
+                Object value = readContent(in, readByte(in));
+                if (value != null && !(value instanceof String)) {
+                    throw new StreamCorruptedException("Nested objects are not supported (" + className + ")");
+                }
+                break;
+            default:
+                throw new StreamCorruptedException("Unsupported field type '" + fieldType + "' in " + className);
+        }
+    }
+
+    private Object lookup(ByteBuffer in) throws StreamCorruptedException {
+        int index = readInt(in) - BASE_WIRE_HANDLE;
+        if (index < 0 || index >= handles.size()) {
+            throw new StreamCorruptedException("Invalid back-reference handle");
+        }
+        return handles.get(index);
+    }
+
+    private String readString(ByteBuffer in, int length) throws StreamCorruptedException {
+        return readString(in, length, true);
+    }
+
+    private String readString(ByteBuffer in, int length, boolean assignHandle) throws StreamCorruptedException {
+        if (in.remaining() < length) {
+            throw UNDERFLOW;
+        }
+        String value = decodeModifiedUtf8(in, in.position(), length);
+        in.position(in.position() + length);
+        if (assignHandle) {
+            handles.add(value);
+        }
+        return value;
+    }
+
+    private static byte readByte(ByteBuffer in) {
+        if (!in.hasRemaining()) {
+            throw UNDERFLOW;
+        }
+        return in.get();
+    }
+
+    private static int readUnsignedShort(ByteBuffer in) {
+        if (in.remaining() < 2) {
+            throw UNDERFLOW;
+        }
+        return in.getShort() & 0xFFFF;
+    }
+
+    private static int readInt(ByteBuffer in) {
+        if (in.remaining() < 4) {
+            throw UNDERFLOW;
+        }
+        return in.getInt();
+    }
+
+    private static long readLong(ByteBuffer in) {
+        if (in.remaining() < 8) {
+            throw UNDERFLOW;
+        }
+        return in.getLong();
+    }
+
+    private static void skip(ByteBuffer in, int bytes) {
+        if (in.remaining() < bytes) {
+            throw UNDERFLOW;
+        }
+        in.position(in.position() + bytes);
+    }
+
+    /**
+     * Encodes a String the way {@link java.io.ObjectOutputStream#writeObject} does, without
+     * back-references, so the result can be written straight to a channel.
+     *
+     * @param value The String to encode.
+     * @return A buffer in read mode holding the encoded message.
+     */
+    public static ByteBuffer encode(String value) {
+        int utfLength = modifiedUtf8Length(value);
+        boolean longString = utfLength > 0xFFFF;
+        ByteBuffer out = ByteBuffer.allocate((longString ? 9 : 3) + utfLength);
+        if (longString) {
+            out.put(TC_LONGSTRING).putLong(utfLength);
+        } else {
+            out.put(TC_STRING).putShort((short) utfLength);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                out.put((byte) c);
+            } else if (c <= 0x07FF) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Returns the stream header as a buffer, to be written before the first message.
+     *
+     * @return A new buffer in read mode holding {@link #STREAM_HEADER}.
+     */
+    public static ByteBuffer header() {
+        return ByteBuffer.wrap(STREAM_HEADER.clone());
+    }
+
+    private static int modifiedUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+        }
+        return length;
+    }
+
+    private static String decodeModifiedUtf8(ByteBuffer in, int start, int length) throws StreamCorruptedException {
+        char[] chars = new char[length];
+        int count = 0;
+        int i = start;
+        int end = start + length;
+        while (i < end) {
+            int b = in.get(i) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0 && i + 1 < end) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (in.get(i + 1) & 0x3F));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0 && i + 2 < end) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((in.get(i + 1) & 0x3F) << 6) | (in.get(i + 2) & 0x3F));
+                i += 3;
+            } else {
+                throw new StreamCorruptedException("Malformed modified UTF-8 string");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
@@ -0,0 +1,406 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class tells connected users who joined and who left the chat, in batches.
+ * <p>
+ * Broadcasting "X has joined the chat." to every user on every join means that when
+ * {@code N} users reconnect at once (e.g. after a network blip) the server sends about
+ * {@code N * N} messages. Instead, joins and leaves are collected for a batching window and
+ * then each subscriber receives at most one presence delta for the whole window:
+ * </p>
+ * <ul>
+ *   <li>Events are coalesced per user: a user who joins and leaves within the same window
+ *       (or leaves and comes back) produces no change at all.</li>
+ *   <li>Each user has a {@link Subscription}: everyone, a watch list of usernames, or nobody.
+ *       A delta only lists the users its recipient is interested in, and a recipient with
+ *       nothing to learn is sent nothing.</li>
+ *   <li>A delta names at most {@value #MAX_NAMES_PER_LIST} users per list and counts the rest.</li>
+ * </ul>
+ * <p>
+ * One flusher thread works out every {@code windowMillis} which changes concern each recipient,
+ * but does not write them: they are added to the recipient's unsent changes, and a sender thread
+ * (at most one per recipient at a time) turns those into one delta and writes it. A client that
+ * stops reading therefore only holds up its own updates. While it is behind, the changes of later
+ * windows are merged into its unsent ones, coalesced per user like the events of one window, so
+ * the memory it holds is bounded by the number of users and the delta it finally gets still
+ * takes it from the state it last saw to the current one.
+ * </p>
+ */
+public class PresenceService implements AutoCloseable {
+
+    private static final int MAX_NAMES_PER_LIST = 50; // Names spelled out in one "joined" or "left" list
+
+    /**
+     * Sends a presence delta to one user.
+     */
+    @FunctionalInterface
+    public interface Recipient {
+        /**
+         * Sends the message.
+         *
+         * @param message The presence delta.
+         * @return {@code true} if it was sent, {@code false} if the user could not be reached.
+         */
+        boolean send(String message);
+    }
+
+    /**
+     * Whose joins and leaves one user wants to hear about. Changed by the user's own handler
+     * and read by the flusher, so it is thread-safe.
+     */
+    public static final class Subscription {
+        private volatile boolean all; // Interested in everyone
+        private final Set<String> watched = ConcurrentHashMap.newKeySet(); // Usernames of interest when not all
+
+        private Subscription(boolean all) {
+            this.all = all;
+        }
+
+        /**
+         * Subscribes to everyone's presence.
+         */
+        public void watchAll() {
+            all = true;
+            watched.clear();
+        }
+
+        /**
+         * Stops all presence updates.
+         */
+        public void watchNone() {
+            all = false;
+            watched.clear();
+        }
+
+        /**
+         * Adds users to the watch list; this ends a subscription to everyone.
+         *
+         * @param usernames The users to watch.
+         */
+        public void watch(Collection<String> usernames) {
+            all = false;
+            watched.addAll(usernames);
+        }
+
+        /**
+         * Removes users from the watch list.
+         *
+         * @param usernames The users to stop watching.
+         */
+        public void unwatch(Collection<String> usernames) {
+            watched.removeAll(usernames);
+        }
+
+        /**
+         * Tells whether the presence of a user is of interest.
+         *
+         * @param username The user who joined or left.
+         * @return {@code true} if the subscription covers the user.
+         */
+        public boolean covers(String username) {
+            return all || watched.contains(username);
+        }
+
+        /**
+         * Describes the subscription for its owner.
+         *
+         * @return e.g. "everyone", "nobody" or "Alice, Bob".
+         */
+        @Override
+        public String toString() {
+            if (all) {
+                return "everyone";
+            }
+            return watched.isEmpty() ? "nobody" : String.join(", ", watched);
+        }
+    }
+
+    /**
+     * One online user, with the changes not yet written to them.
+     */
+    private final class Subscriber {
+        final Recipient recipient;
+        final Subscription subscription;
+        private Map<String, Boolean> unsent = new LinkedHashMap<>(); // Net changes not yet sent (true = online); guarded by this
+        private boolean sending; // A sender owns this recipient; guarded by this
+
+        Subscriber(Recipient recipient, Subscription subscription) {
+            this.recipient = recipient;
+            this.subscription = subscription;
+        }
+
+        /**
+         * Adds a window's changes to the unsent ones without waiting for the recipient.
+         *
+         * @param window The changes that concern this recipient.
+         * @return {@code true} if they were merged into changes still waiting for a sender.
+         */
+        boolean offer(Map<String, Boolean> window) {
+            boolean merged;
+            synchronized (this) {
+                merged = !unsent.isEmpty();
+                coalesce(unsent, window);
+                if (sending || unsent.isEmpty()) {
+                    return merged; // The running sender picks them up, or they cancelled out
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) { // Shutting down
+                synchronized (this) {
+                    unsent.clear();
+                    sending = false;
+                }
+            }
+            return merged;
+        }
+
+        private void drain() {
+            while (true) {
+                Map<String, Boolean> changes;
+                synchronized (this) {
+                    if (unsent.isEmpty()) {
+                        sending = false;
+                        return;
+                    }
+                    changes = unsent;
+                    unsent = new LinkedHashMap<>();
+                }
+                try {
+                    if (recipient.send(describe(changes))) {
+                        deltasSent.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Error sending presence update: " + e.getMessage()); // Try the next delta anyway
+                }
+            }
+        }
+    }
+
+    private final long windowMillis;
+    private final boolean subscribeAllByDefault;
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>(); // Online users by username
+    private final ScheduledExecutorService flusher; // Builds one batch of deltas per window
+    private final ExecutorService senders; // Writes unsent changes, at most one thread per recipient
+    private Map<String, Boolean> pending = new LinkedHashMap<>(); // Net change per user this window (true = online); guarded by this
+    private final AtomicLong events = new AtomicLong(); // Joins and leaves reported
+    private final AtomicLong unbatchedMessages = new AtomicLong(); // What one broadcast per event would have sent
+    private final AtomicLong changes = new AtomicLong(); // Changes left after coalescing
+    private final AtomicLong deltasSent = new AtomicLong(); // Presence messages actually sent
+    private final AtomicLong deltasMerged = new AtomicLong(); // Merged into unsent changes because the recipient fell behind
+
+    /**
+     * Constructs a new PresenceService and starts its flusher.
+     *
+     * @param windowMillis How long joins and leaves are collected before a delta is sent.
+     * @param subscribeAllByDefault Whether new users hear about everyone, or nobody until they subscribe.
+     */
+    public PresenceService(long windowMillis, boolean subscribeAllByDefault) {
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis must be at least 1");
+        }
+        this.windowMillis = windowMillis;
+        this.subscribeAllByDefault = subscribeAllByDefault;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Presence-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Presence-Sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that a user came online and subscribes them with the default subscription.
+     *
+     * @param username The user's unique name.
+     * @param recipient Sends presence deltas to the user.
+     * @return The user's subscription, which the user may change later.
+     */
+    public Subscription joined(String username, Recipient recipient) {
+        record(username, true);
+        Subscription subscription = new Subscription(subscribeAllByDefault);
+        subscribers.put(username, new Subscriber(recipient, subscription));
+        return subscription;
+    }
+
+    /**
+     * Records that a user went offline and drops their subscription. Nothing happens if the
+     * subscription is not the user's current one, so a stale handler cannot sign out the user
+     * who now holds the name.
+     *
+     * @param username The user's unique name.
+     * @param subscription The subscription {@link #joined} returned to this user.
+     */
+    public void left(String username, Subscription subscription) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(username, (name, subscriber) -> {
+            if (subscriber.subscription != subscription) {
+                return subscriber;
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            record(username, false);
+        }
+    }
+
+    private void record(String username, boolean online) {
+        events.incrementAndGet();
+        unbatchedMessages.addAndGet(subscribers.size()); // One broadcast to every other user
+        synchronized (this) {
+            coalesce(pending, Map.of(username, online));
+        }
+    }
+
+    /**
+     * Adds changes to earlier ones, per user: a join and a leave of the same user cancel out.
+     *
+     * @param into The earlier changes (true = online); updated.
+     * @param changes The later changes.
+     */
+    private static void coalesce(Map<String, Boolean> into, Map<String, Boolean> changes) {
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            Boolean previous = into.remove(change.getKey());
+            if (previous == null || previous.equals(change.getValue())) {
+                into.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    /**
+     * Hands every subscriber the changes of the last window that they are interested in.
+     */
+    private void flush() {
+        Map<String, Boolean> window;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            window = pending;
+            pending = new LinkedHashMap<>();
+        }
+        changes.addAndGet(window.size());
+        long recipients = 0;
+        long merged = 0;
+        for (Map.Entry<String, Subscriber> entry : subscribers.entrySet()) {
+            try {
+                Map<String, Boolean> relevant = changesFor(entry.getKey(), entry.getValue().subscription, window);
+                if (relevant.isEmpty()) {
+                    continue;
+                }
+                recipients++;
+                if (entry.getValue().offer(relevant)) {
+                    merged++;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error queueing presence update for " + entry.getKey() + ": " + e.getMessage()); // The others still get theirs
+            }
+        }
+        deltasMerged.addAndGet(merged);
+        System.out.println("Presence: " + window.size() + " change(s) for " + recipients + " recipient(s)"
+                + (merged > 0 ? ", " + merged + " merged into updates not yet sent" : "") + ". " + getStats());
+    }
+
+    /**
+     * Picks the changes of a window that concern one recipient.
+     *
+     * @return The changes, possibly none.
+     */
+    private static Map<String, Boolean> changesFor(String recipientName, Subscription subscription, Map<String, Boolean> window) {
+        Map<String, Boolean> relevant = new LinkedHashMap<>();
+        for (Map.Entry<String, Boolean> change : window.entrySet()) {
+            String username = change.getKey();
+            if (!username.equals(recipientName) && subscription.covers(username)) {
+                relevant.put(username, change.getValue());
+            }
+        }
+        return relevant;
+    }
+
+    /**
+     * Builds a delta, e.g. "Presence: joined Alice, Bob; left Carol".
+     *
+     * @param changes The changes to report; not empty.
+     * @return The delta.
+     */
+    private static String describe(Map<String, Boolean> changes) {
+        List<String> joined = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            (change.getValue() ? joined : left).add(change.getKey());
+        }
+        StringBuilder delta = new StringBuilder("Presence:");
+        if (!joined.isEmpty()) {
+            appendList(delta.append(" joined "), joined);
+        }
+        if (!left.isEmpty()) {
+            appendList(delta.append(joined.isEmpty() ? " left " : "; left "), left);
+        }
+        return delta.toString();
+    }
+
+    private static void appendList(StringBuilder delta, List<String> usernames) {
+        int shown = Math.min(usernames.size(), MAX_NAMES_PER_LIST);
+        delta.append(String.join(", ", usernames.subList(0, shown)));
+        if (usernames.size() > shown) {
+            delta.append(" and ").append(usernames.size() - shown).append(" more");
+        }
+    }
+
+    /**
+     * Returns the batching window.
+     *
+     * @return The window in milliseconds.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Summarizes how much batching saved.
+     *
+     * @return The event, change and message counters.
+     */
+    public String getStats() {
+        return "Totals: " + events.get() + " joins/leaves, " + changes.get() + " after coalescing, "
+                + deltasSent.get() + " deltas sent, " + deltasMerged.get() + " merged while behind ("
+                + unbatchedMessages.get() + " messages without batching).";
+    }
+
+    /**
+     * Queues the last pending changes, stops the flusher and gives the senders a moment to
+     * write what is queued.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+        senders.shutdown();
+        try {
+            senders.awaitTermination(1, TimeUnit.SECONDS); // Senders stuck on a stalled client are daemons and die with the JVM
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
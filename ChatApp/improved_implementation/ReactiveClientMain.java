@@ -0,0 +1,60 @@
+package io.github.hridoy100;
+
+import java.io.IOException;
+
+/**
+ * This class is a chat client built from {@link java.util.concurrent.Flow} stages instead of
+ * the free-running {@link Reader} and {@link Writer} threads. Both directions are pipelines
+ * with request(n) backpressure:
+ * <pre>
+ *   console  -> filter(non-blank) -> NetworkSubscriber          (outgoing)
+ *   network  -> map(Strings only) -> BatchProcessor -> console  (incoming)
+ * </pre>
+ * A slow network stops the console from being read ahead, and a slow console stops the
+ * socket from being read, which in turn throttles the server through TCP flow control.
+ * <p>
+ * Works with {@link ServerMain} and {@link AsyncChatServer}: the first line typed is the
+ * username, then {@code list}, {@code ip} or any message; {@code exit} quits.
+ * </p>
+ */
+public class ReactiveClientMain {
+
+    private static final String SERVER_ADDRESS = "127.0.0.1"; // The IP address of the chat server
+    private static final int SERVER_PORT = 12345; // The port number the chat server is listening on
+    private static final int SEND_WINDOW = 16; // Console lines that may be read ahead of the network
+    private static final int BATCH_SIZE = 32; // Incoming messages printed together at most
+    private static final long BATCH_DELAY_MILLIS = 50; // Longest an incoming message waits for its batch
+
+    public static void main(String[] args) {
+        System.out.println("Reactive Chat Client application started.");
+
+        try {
+            NetworkConnection nc = new NetworkConnection(SERVER_ADDRESS, SERVER_PORT);
+            System.out.println("Successfully connected to chat server at " + SERVER_ADDRESS + ":" + SERVER_PORT);
+            System.out.println("Enter your username first, then your messages. Type 'exit' to disconnect.");
+
+            // Incoming: subscribe from the console end backwards so no stage publishes before its subscriber exists
+            ConsoleSubscriber console = new ConsoleSubscriber("Received: ");
+            BatchProcessor<String> batches = new BatchProcessor<>(BATCH_SIZE, BATCH_DELAY_MILLIS);
+            TransformProcessor<Object, String> textOnly = TransformProcessor.map(
+                    received -> received instanceof String ? (String) received : null);
+            batches.subscribe(console);
+            textOnly.subscribe(batches);
+            new NetworkPublisher(nc).subscribe(textOnly);
+
+            // Outgoing: the connection is closed when the console stream ends
+            TransformProcessor<String, String> nonBlank = TransformProcessor.filter(line -> !line.trim().isEmpty());
+            nonBlank.subscribe(new NetworkSubscriber(nc, SEND_WINDOW, true));
+            new ConsolePublisher(System.in).subscribe(nonBlank);
+
+            console.awaitCompletion(); // Ends when the server closes or the user types 'exit'
+        } catch (IOException e) {
+            System.err.println("Network error in Chat Client: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println("Chat Client interrupted.");
+            Thread.currentThread().interrupt();
+        } finally {
+            System.out.println("Reactive Chat Client application terminated.");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.hridoy100;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is a chat server whose message paths are {@link java.util.concurrent.Flow}
+ * streams. Each connected user has:
+ * <ul>
+ *   <li>an inbound {@link NetworkPublisher}, consumed one message at a time by the
+ *       user's session, which applies the {@link CreateConnection} protocol;</li>
+ *   <li>an outbound {@link SubmissionPublisher} with a bounded buffer, drained to the socket
+ *       by a {@link NetworkSubscriber}.</li>
+ * </ul>
+ * Replies to the user's own commands are submitted with blocking {@code submit}, so a user
+ * who does not read replies stops being read from. Broadcasts use non-blocking
+ * {@code offer}: a recipient whose buffer is full is disconnected as a slow consumer instead of
+ * stalling the sender or growing an unbounded queue.
+ */
+public class ReactiveServerMain {
+
+    private static final int SERVER_PORT = 12345; // The port number the server will listen on
+    private static final int OUTBOUND_BUFFER = 256; // Messages buffered per user before backpressure applies
+    private static final int WRITE_WINDOW = 16; // Messages a NetworkSubscriber requests ahead of its writes
+
+    private final Map<String, ReactiveSession> clientList = new ConcurrentHashMap<>(); // Username to session
+    private final AtomicInteger writerNumber = new AtomicInteger();
+    private final ExecutorService writers = Executors.newCachedThreadPool(runnable -> {
+        // NetworkSubscriber writes block, so they must not run on the common pool
+        Thread thread = new Thread(runnable, "OutboundWriter-" + writerNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sets up the inbound and outbound streams of a newly connected client.
+     *
+     * @param nc The client's connection.
+     */
+    private void openSession(NetworkConnection nc) {
+        ReactiveSession session = new ReactiveSession(nc);
+        session.outbound.subscribe(new NetworkSubscriber(nc, WRITE_WINDOW, true));
+        new NetworkPublisher(nc).subscribe(session);
+    }
+
+    private void broadcastMessage(ReactiveSession sender, String message) {
+        for (ReactiveSession recipient : clientList.values()) {
+            if (recipient != sender) { // Don't send message back to sender
+                recipient.offer(message);
+            }
+        }
+    }
+
+    /**
+     * The protocol of {@link CreateConnection}, as a subscriber of one user's inbound stream.
+     */
+    private final class ReactiveSession implements Flow.Subscriber<Object> {
+        private final NetworkConnection netConnection;
+        private final SubmissionPublisher<Object> outbound; // Everything sent to this user goes through here
+        private Flow.Subscription subscription;
+        private volatile String clientUsername; // Set once by the inbound delivery thread
+
+        ReactiveSession(NetworkConnection nc) {
+            this.netConnection = nc;
+            this.outbound = new SubmissionPublisher<>(writers, OUTBOUND_BUFFER);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1); // One message at a time; the next is read only after this one is handled
+        }
+
+        @Override
+        public void onNext(Object receivedObject) {
+            if (clientUsername == null) {
+                register(receivedObject);
+            } else if (receivedObject instanceof String) {
+                handleMessage((String) receivedObject);
+            } else {
+                System.out.println("Received unexpected object type from " + clientUsername + ": " + receivedObject.getClass().getName());
+            }
+            if (!outbound.isClosed()) {
+                subscription.request(1);
+            }
+        }
+
+        /**
+         * Sends a reply to this user, blocking while the user's outbound buffer is full.
+         */
+        private void reply(String message) {
+            try {
+                outbound.submit(message);
+            } catch (IllegalStateException e) {
+                // Outbound already closed (user is leaving); nothing to deliver to
+            }
+        }
+
+        /**
+         * Queues a broadcast message without blocking. If the user's buffer is full the user
+         * cannot keep up, and is disconnected instead of stalling the sender.
+         */
+        private void offer(String message) {
+            try {
+                // A negative result means the item was dropped because the buffer was full
+                if (outbound.offer(message, (subscriber, dropped) -> false) < 0) {
+                    System.err.println("Disconnecting slow client " + clientUsername + ".");
+                    outbound.close(); // The NetworkSubscriber closes the connection once it has drained
+                }
+            } catch (IllegalStateException e) {
+                // Outbound already closed (user is leaving); nothing to deliver to
+            }
+        }
+
+        private void register(Object initialObject) {
+            if (!(initialObject instanceof String)) {
+                reply("ERROR: Please send your username as the first message.");
+                System.out.println("Client did not send username as first message. Disconnecting.");
+                end();
+                return;
+            }
+            String requested = (String) initialObject;
+            if (clientList.putIfAbsent(requested, this) != null) {
+                reply("ERROR: Username '" + requested + "' is already taken. Please try again with a different username.");
+                System.out.println("Client tried to connect with taken username: " + requested);
+                end();
+                return;
+            }
+            clientUsername = requested;
+            reply("Welcome to the chat, " + clientUsername + "!");
+            broadcastMessage(this, clientUsername + " has joined the chat.");
+            System.out.println(clientUsername + " joined from " + netConnection.getSocket().getInetAddress().getHostAddress());
+        }
+
+        private void handleMessage(String message) {
+            System.out.println(clientUsername + ": " + message);
+            if (message.equalsIgnoreCase("exit")) {
+                System.out.println(clientUsername + " requested to exit.");
+                end();
+            } else if (message.equalsIgnoreCase("list")) {
+                reply("Connected users: " + String.join(", ", clientList.keySet()));
+            } else if (message.equalsIgnoreCase("ip")) {
+                reply("Your IP address: " + netConnection.getSocket().getInetAddress().getHostAddress());
+            } else {
+                broadcastMessage(this, clientUsername + ": " + message);
+            }
+        }
+
+        /**
+         * Stops reading and lets the outbound stream drain; the connection closes once it is empty.
+         */
+        private void end() {
+            subscription.cancel();
+            outbound.close();
+            leave();
+        }
+
+        private void leave() {
+            if (clientUsername != null && clientList.remove(clientUsername, this)) {
+                broadcastMessage(this, clientUsername + " has left the chat.");
+                System.out.println(clientUsername + " disconnected.");
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Client handler I/O error for " + clientUsername + ": " + throwable.getMessage());
+            outbound.close();
+            leave();
+        }
+
+        @Override
+        public void onComplete() {
+            outbound.close();
+            leave();
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Reactive Chat Server application started.");
+        ReactiveServerMain server = new ReactiveServerMain();
+
+        try (ServerSocket serverSocket = new ServerSocket(SERVER_PORT)) {
+            System.out.println("Server listening on port " + SERVER_PORT + "...");
+            while (true) {
+                Socket clientSocket = serverSocket.accept();
+                System.out.println("Client connected from " + clientSocket.getInetAddress().getHostAddress());
+                try {
+                    server.openSession(new NetworkConnection(clientSocket));
+                } catch (IOException e) {
+                    System.err.println("Error setting up client connection: " + e.getMessage());
+                    clientSocket.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            server.writers.shutdownNow();
+            System.out.println("Reactive Chat Server application terminated.");
+        }
+    }
+}
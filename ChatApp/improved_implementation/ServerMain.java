@@ -1,6 +1,7 @@
 package io.github.hridoy100;
 
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -13,12 +14,28 @@ import java.util.Map;
  * It listens for incoming client connections, accepts them, and then
  * delegates the handling of each client to a separate thread.
  * It maintains a list of all connected clients.
+ * <p>
+ * Joins and leaves are announced in batches by a {@link PresenceService}. System properties:
+ * {@code -Dpresence.windowMillis} (batching window, default 1000) and
+ * {@code -Dpresence.default=all|none} (whether new clients follow everyone's presence, default all).
+ * </p>
+ * <p>
+ * Every accepted connection first passes an {@link AdmissionController}, before its streams
+ * and thread are created: {@code -Dadmission.perIpRate} and {@code -Dadmission.perIpBurst}
+ * limit how fast one address may connect (default 5 per second, bursts of 10), and
+ * {@code -Dadmission.maxConnections} caps the open connections (default 100). A refused
+ * client is sent one error message and disconnected.
+ * </p>
  */
 public class ServerMain {
 
     private static final int SERVER_PORT = 12345; // The port number the server will listen on
     // A thread-safe map to store connected clients, mapping username to their Information object
     private static final Map<String, Information> clientList = Collections.synchronizedMap(new HashMap<>());
+    private static final AdmissionController admission = AdmissionController.fromSystemProperties(100, 0);
+    private static final PresenceService presence = new PresenceService(
+            Long.getLong("presence.windowMillis", 1000),
+            !"none".equalsIgnoreCase(System.getProperty("presence.default", "all")));
 
     public static void main(String[] args) {
         System.out.println("Chat Server application started.");
@@ -35,17 +52,30 @@ public class ServerMain {
                 // Accept a new client connection
                 // This is a blocking call; the server waits here until a client connects
                 Socket clientSocket = serverSocket.accept();
+                // Every client gets its own thread at once, so no connection is ever waiting for one
+                AdmissionController.Decision decision = admission.admit(clientSocket.getInetAddress(), 0);
+                if (decision != AdmissionController.Decision.ADMITTED) {
+                    reject(clientSocket, decision);
+                    continue;
+                }
                 System.out.println("Client connected from " + clientSocket.getInetAddress().getHostAddress());
 
-                // Create a NetworkConnection for the new client
-                NetworkConnection nc = new NetworkConnection(clientSocket);
-
                 // Create a new thread to handle communication with this client
                 // The ClientHandler (or a re-purposed CreateConnection) will manage
                 // the client's interaction and add/remove them from clientList.
                 // For now, assuming CreateConnection is adapted to be a Runnable client handler.
-                Thread clientHandlerThread = new Thread(new CreateConnection(clientList, nc),
-                                                        "ClientHandler-" + clientSocket.getInetAddress().getHostAddress());
+                Thread clientHandlerThread = new Thread(() -> {
+                    try {
+                        // Creating the streams waits for the client's stream header, so it must not block the accept loop
+                        NetworkConnection nc = new NetworkConnection(clientSocket);
+                        new CreateConnection(clientList, nc, presence).run();
+                    } catch (IOException e) {
+                        System.err.println("Error setting up connection from " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+                        closeQuietly(clientSocket);
+                    } finally {
+                        admission.release();
+                    }
+                }, "ClientHandler-" + clientSocket.getInetAddress().getHostAddress());
                 clientHandlerThread.start();
             }
 
@@ -64,10 +94,37 @@ public class ServerMain {
                     e.printStackTrace();
                 }
             }
+            presence.close();
             System.out.println("Chat Server application terminated.");
         }
     }
 
+    /**
+     * Sends a refused client the reason, without reading anything from it, and disconnects it.
+     *
+     * @param clientSocket The refused connection.
+     * @param decision Why it was refused.
+     */
+    private static void reject(Socket clientSocket, AdmissionController.Decision decision) {
+        System.out.println("Refused connection from " + clientSocket.getInetAddress().getHostAddress() + " (" + decision + "). " + admission.metrics());
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(clientSocket.getOutputStream());
+            oos.writeObject(decision.rejectionMessage());
+            oos.flush();
+        } catch (IOException e) {
+            // The client is already gone
+        }
+        closeQuietly(clientSocket);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing client socket: " + e.getMessage());
+        }
+    }
+
     /**
      * Returns the thread-safe map of connected clients.
      *
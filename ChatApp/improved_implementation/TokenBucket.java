@@ -0,0 +1,68 @@
+package io.github.hridoy100;
+
+/**
+ * This class is a token-bucket rate limiter. The bucket holds up to {@code capacity} tokens and is
+ * refilled continuously at {@code ratePerSecond}; an action is allowed if the tokens it costs can be
+ * taken out. A client that has been quiet can therefore do a short burst of up to {@code capacity}
+ * actions, but over time it can never do more than {@code ratePerSecond} actions per second.
+ * <p>
+ * The bucket stores only a token count and the time of the last refill; the refill is
+ * computed lazily from the elapsed time whenever the bucket is used, so no timer is needed.
+ * Every method is {@code synchronized}; a bucket is shared by the few threads acting for one
+ * client or one address, so contention is low.
+ * </p>
+ */
+public class TokenBucket {
+    private final double ratePerSecond; // Tokens added per second
+    private final double capacity; // Most tokens the bucket holds, i.e. the largest burst
+    private double tokens; // Tokens available as of lastRefillNanos
+    private long lastRefillNanos;
+
+    /**
+     * Constructs a new TokenBucket. The bucket starts full.
+     *
+     * @param ratePerSecond Tokens added per second; must be positive.
+     * @param capacity The most tokens the bucket holds; must be at least 1.
+     */
+    public TokenBucket(double ratePerSecond, double capacity) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate must be positive and capacity at least 1: " + ratePerSecond + ", " + capacity);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens out of the bucket if enough are available. Never blocks.
+     *
+     * @param cost The tokens the action costs.
+     * @return {@code true} if the tokens were taken and the action is allowed.
+     */
+    public synchronized boolean tryAcquire(double cost) {
+        refill();
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    /**
+     * Tells whether the bucket has refilled completely, i.e. its owner has been idle long
+     * enough that forgetting the bucket would change nothing.
+     *
+     * @return {@code true} if the bucket is full.
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / 1e9);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class is a composable stage between a {@link Flow.Publisher} and its subscribers.
+ * Every item is passed through a transformation; items for which it returns {@code null}
+ * are dropped, so the same class serves as a filter ({@link #filter(Predicate)}) and a
+ * mapping stage ({@link #map(Function)}).
+ * <p>
+ * Demand is passed on rather than absorbed: the next item is only requested from upstream
+ * after the current one has been handed downstream, and that hand-off
+ * ({@link SubmissionPublisher#submit(Object)}) blocks while the downstream buffer is full.
+ * Subscribe the downstream stages before subscribing this stage upstream; items submitted
+ * while there are no subscribers are discarded.
+ * </p>
+ *
+ * @param <T> The type of item received.
+ * @param <R> The type of item published.
+ */
+public class TransformProcessor<T, R> extends SubmissionPublisher<R> implements Flow.Processor<T, R> {
+
+    private final Function<? super T, ? extends R> transformation; // Returns null to drop an item
+    private Flow.Subscription subscription;
+
+    /**
+     * Constructs a new TransformProcessor.
+     *
+     * @param transformation The function applied to each item; a {@code null} result drops the item.
+     * @param executor The executor that delivers items to subscribers.
+     * @param bufferCapacity Items buffered per subscriber before {@code submit} blocks.
+     */
+    public TransformProcessor(Function<? super T, ? extends R> transformation, Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+        this.transformation = transformation;
+    }
+
+    /**
+     * Constructs a new TransformProcessor using the common pool and the default buffer size.
+     *
+     * @param transformation The function applied to each item; a {@code null} result drops the item.
+     */
+    public TransformProcessor(Function<? super T, ? extends R> transformation) {
+        this(transformation, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * Creates a stage that passes on only the items matching the predicate.
+     *
+     * @param predicate The condition an item must satisfy to be passed on.
+     * @param <T> The type of item.
+     * @return The filtering stage.
+     */
+    public static <T> TransformProcessor<T, T> filter(Predicate<? super T> predicate) {
+        return new TransformProcessor<>(item -> predicate.test(item) ? item : null);
+    }
+
+    /**
+     * Creates a stage that converts every item.
+     *
+     * @param mapper The conversion to apply.
+     * @param <T> The type of item received.
+     * @param <R> The type of item published.
+     * @return The mapping stage.
+     */
+    public static <T, R> TransformProcessor<T, R> map(Function<? super T, ? extends R> mapper) {
+        return new TransformProcessor<>(mapper);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(T item) {
+        R result;
+        try {
+            result = transformation.apply(item);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            closeExceptionally(e);
+            return;
+        }
+        if (result != null) {
+            submit(result); // Blocks while a subscriber's buffer is full
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A ThreadPoolExecutor that resizes itself toward a target queueing delay.
+ *
+ * A plain ThreadPoolExecutor only adds threads beyond the core size when its queue is full,
+ * so tasks can wait in a half-full queue while threads are available. This executor instead
+ * measures, for every task, how long it waited in the queue and how long it ran, and every
+ * control interval sets the core pool size from Little's law:
+ *
+ *   busy threads needed       = arrival rate * service time
+ *   threads to drain backlog  = queued tasks * service time / target delay
+ *   desired threads           = the sum of both, between min and max
+ *
+ * If tasks still waited longer than the target, it adds a thread anyway.
+ * Growing takes effect at once; shrinking goes at most halfway down per interval, so a short
+ * lull doesn't throw away threads that a returning burst needs again. Every resize is reported
+ * as a {@link Decision}.
+ */
+public class AdaptiveThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final long targetDelayNanos;
+    private final long intervalNanos;
+    private final ScheduledExecutorService controller;
+    private final Consumer<Decision> decisionListener;
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder queueDelayNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LongAdder resizes = new LongAdder();
+    private final ThreadLocal<Long> startNanos = new ThreadLocal<>();
+    private volatile Decision lastDecision;
+    private volatile double serviceTimeEstimateNanos; // Kept between intervals without completions
+
+    public AdaptiveThreadPoolExecutor(int minThreads, int maxThreads, long targetDelay, long controlInterval,
+                                      TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                                      RejectedExecutionHandler rejectionHandler, Consumer<Decision> decisionListener) {
+        super(minThreads, maxThreads, 2 * controlInterval, unit, workQueue, Executors.defaultThreadFactory(), rejectionHandler);
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Need 1 <= minThreads <= maxThreads");
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetDelayNanos = unit.toNanos(targetDelay);
+        this.intervalNanos = unit.toNanos(controlInterval);
+        this.decisionListener = decisionListener;
+        this.controller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AdaptivePoolController");
+            t.setDaemon(true);
+            return t;
+        });
+        controller.scheduleAtFixedRate(this::adjust, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The controller's view of one interval and what it did about it.
+     */
+    public static final class Decision {
+        public final double arrivalsPerSecond;
+        public final double serviceMillis;
+        public final double queueDelayMillis;
+        public final int queued;
+        public final int oldCoreSize;
+        public final int newCoreSize;
+
+        Decision(double arrivalsPerSecond, double serviceMillis, double queueDelayMillis,
+                 int queued, int oldCoreSize, int newCoreSize) {
+            this.arrivalsPerSecond = arrivalsPerSecond;
+            this.serviceMillis = serviceMillis;
+            this.queueDelayMillis = queueDelayMillis;
+            this.queued = queued;
+            this.oldCoreSize = oldCoreSize;
+            this.newCoreSize = newCoreSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("arrivals=%.1f/s service=%.1fms queueDelay=%.1fms queued=%d threads %d -> %d",
+                    arrivalsPerSecond, serviceMillis, queueDelayMillis, queued, oldCoreSize, newCoreSize);
+        }
+    }
+
+    /**
+     * Stamps each task with its submission time, so its queueing delay can be measured.
+     */
+    private static final class TimedTask implements Runnable {
+        final Runnable task;
+        final long submittedNanos = System.nanoTime();
+
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        arrivals.increment();
+        super.execute(command instanceof TimedTask ? command : new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        long now = System.nanoTime();
+        if (r instanceof TimedTask) {
+            queueDelayNanos.add(now - ((TimedTask) r).submittedNanos);
+            started.increment();
+        }
+        startNanos.set(now);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        Long start = startNanos.get();
+        if (start != null) {
+            serviceNanos.add(System.nanoTime() - start);
+            completed.increment();
+            startNanos.remove();
+        }
+    }
+
+    /**
+     * One control step: measure the last interval, then resize the pool.
+     */
+    private void adjust() {
+        if (isShutdown()) {
+            controller.shutdown();
+            return;
+        }
+        long arrived = arrivals.sumThenReset();
+        long startedCount = started.sumThenReset();
+        long delaySum = queueDelayNanos.sumThenReset();
+        long completedCount = completed.sumThenReset();
+        long serviceSum = serviceNanos.sumThenReset();
+
+        if (completedCount > 0) {
+            serviceTimeEstimateNanos = (double) serviceSum / completedCount;
+        }
+        double service = serviceTimeEstimateNanos;
+        double arrivalRate = arrived / (intervalNanos / 1e9);
+        double queueDelay = startedCount > 0 ? (double) delaySum / startedCount : 0;
+        int queued = getQueue().size();
+
+        int current = getCorePoolSize();
+        double busyNeeded = arrivalRate * service / 1e9;
+        double drainNeeded = queued * service / targetDelayNanos;
+        int desired = (int) Math.ceil(busyNeeded + drainNeeded);
+        if (queueDelay > targetDelayNanos && desired <= current) {
+            desired = current + 1; // The estimate says we have enough, but tasks still waited too long
+        } else if (desired < current) {
+            desired = current - (current - desired + 1) / 2; // Shrink at most halfway per interval
+        }
+        desired = Math.max(minThreads, Math.min(maxThreads, desired));
+
+        if (desired != current) {
+            // Growing starts threads for queued tasks right away; when shrinking, idle threads
+            // above the core size exit after the keep-alive time
+            setCorePoolSize(desired);
+            resizes.increment();
+        }
+        Decision decision = new Decision(arrivalRate, service / 1e6, queueDelay / 1e6, queued, current, desired);
+        lastDecision = decision;
+        if (desired != current && decisionListener != null) {
+            decisionListener.accept(decision);
+        }
+    }
+
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    public long getResizeCount() {
+        return resizes.sum();
+    }
+
+    @Override
+    protected void terminated() {
+        super.terminated();
+        controller.shutdownNow();
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A RejectedExecutionHandler that applies backpressure instead of dropping tasks.
+ *
+ * When the pool and its queue are full, the submitting thread waits up to a timeout for room
+ * in the queue. If there is still none, the task either runs in the submitting thread (like
+ * CallerRunsPolicy, which also slows the submitter down) or is rejected with an exception,
+ * so the caller finds out instead of losing the task silently.
+ */
+public class BoundedWaitPolicy implements RejectedExecutionHandler {
+
+    private final long timeoutNanos;
+    private final boolean callerRunsOnTimeout;
+
+    public BoundedWaitPolicy(long timeout, TimeUnit unit, boolean callerRunsOnTimeout) {
+        this.timeoutNanos = unit.toNanos(timeout);
+        this.callerRunsOnTimeout = callerRunsOnTimeout;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException(r + " rejected: executor is shut down");
+        }
+        try {
+            if (executor.getQueue().offer(r, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return; // There is always at least one core thread to pick it up
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(r + " rejected: interrupted while waiting for queue space", e);
+        }
+        if (callerRunsOnTimeout) {
+            System.out.println(r + " waited too long for queue space, running it in " + Thread.currentThread().getName());
+            r.run();
+        } else {
+            throw new RejectedExecutionException(r + " rejected: no queue space within the timeout");
+        }
+    }
+}
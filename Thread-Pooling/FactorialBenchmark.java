@@ -0,0 +1,84 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Compares ways of computing n! with FactorialService:
+ *   - loop:      1 * 2 * ... * n into one running BigInteger, on one thread
+ *   - split:     binary splitting on one thread
+ *   - parallel:  binary splitting as fork/join tasks on all cores
+ *   - memo hit:  asking the service again for a factorial it has cached
+ *   - memo step: asking for (n + 1000)! once n! is cached
+ *
+ * Each case is warmed up, then timed several times; the median is reported. This is a plain
+ * timing loop rather than JMH, so treat small differences with care.
+ */
+public class FactorialBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000, 10_000, 50_000};
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        System.out.println("Factorial benchmark on " + Runtime.getRuntime().availableProcessors()
+                + " cores (fork/join parallelism " + pool.getParallelism() + "), median ms:");
+        System.out.printf("%8s %10s %10s %10s %10s %10s%n", "n", "loop", "split", "parallel", "memo hit", "memo step");
+
+        for (int n : sizes) {
+            BigInteger expected = FactorialService.sequentialLoop(n);
+            double loop = time(() -> FactorialService.sequentialLoop(n), expected);
+            double split = time(() -> FactorialService.sequentialSplitProduct(1, n), expected);
+
+            FactorialService service = new FactorialService(pool);
+            double parallel = time(() -> service.product(1, n), expected);
+
+            service.factorial(n).get();
+            double hit = time(() -> service.factorial(n).join(), expected);
+
+            BigInteger expectedStep = expected.multiply(FactorialService.sequentialSplitProduct(n + 1, n + 1000));
+            double step = time(() -> {
+                service.clearCache();
+                service.factorial(n).join(); // Untimed: cache n! again
+            }, () -> service.factorial(n + 1000).join(), expectedStep);
+
+            System.out.printf("%8d %10.2f %10.2f %10.2f %10.4f %10.2f%n", n, loop, split, parallel, hit, step);
+        }
+    }
+
+    /**
+     * Runs the computation WARMUP_RUNS + MEASURED_RUNS times and returns the median time in ms.
+     */
+    private static double time(Supplier<BigInteger> computation, BigInteger expected) {
+        return time(() -> { }, computation, expected);
+    }
+
+    /**
+     * Like time(computation, expected), running an untimed setup before every run.
+     */
+    private static double time(Runnable setup, Supplier<BigInteger> computation, BigInteger expected) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            setup.run();
+            check(computation.get(), expected);
+        }
+        double[] millis = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            setup.run();
+            long start = System.nanoTime();
+            BigInteger result = computation.get();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            check(result, expected);
+        }
+        Arrays.sort(millis);
+        return millis[MEASURED_RUNS / 2];
+    }
+
+    private static void check(BigInteger result, BigInteger expected) {
+        if (!expected.equals(result)) {
+            throw new IllegalStateException("Wrong result");
+        }
+    }
+}
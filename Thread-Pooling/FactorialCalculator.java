@@ -0,0 +1,23 @@
+import java.math.BigInteger;
+import java.util.concurrent.Callable;
+
+class FactorialCalculator implements Callable<BigInteger> {
+    // Shared by all calculators, so a factorial computed once is reused by later tasks
+    private static final FactorialService SERVICE = new FactorialService();
+
+    private String taskName;
+    private int number;
+
+    public FactorialCalculator(String taskName, int number) {
+        this.taskName = taskName;
+        this.number = number;
+    }
+
+    @Override
+    public BigInteger call() throws Exception {
+        // Exact for any size (a long overflows past 20!); starts from the largest factorial already cached
+        BigInteger result = SERVICE.factorial(number).get();
+        System.out.println(Thread.currentThread().getName() + " (Calculated Factorial of " + number + "): " + result);
+        return result;
+    }
+}
@@ -0,0 +1,159 @@
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes factorials as BigIntegers, in parallel, remembering earlier results.
+ *
+ * - Results are exact BigIntegers, so there is no overflow past 20! as with long.
+ * - n! is computed as the product of 1..n by binary splitting: the range is halved until it is
+ *   small, and the halves are multiplied together. Multiplying numbers of similar size is much
+ *   cheaper than multiplying a huge running product by one small number at a time, and the
+ *   halves are independent, so they run as fork/join tasks on all cores.
+ * - Every requested factorial is kept in a memo table shared by all threads. A request for n
+ *   starts from the largest cached m! below n and only multiplies in (m+1)..n. Concurrent
+ *   requests for the same n share one computation.
+ * - Results are returned as CompletableFutures, so callers can wait, combine or add callbacks.
+ *
+ * The memo table holds every result until {@link #clearCache()}; large factorials are large
+ * (100000! is about 190 KB), so long-running callers should clear it now and then.
+ */
+public class FactorialService {
+
+    private static final int SEQUENTIAL_THRESHOLD = 512; // Ranges shorter than this are not split into tasks
+
+    private final ForkJoinPool pool;
+    private final ConcurrentNavigableMap<Integer, CompletableFuture<BigInteger>> memo = new ConcurrentSkipListMap<>();
+
+    public FactorialService() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FactorialService(ForkJoinPool pool) {
+        this.pool = pool;
+        memo.put(0, CompletableFuture.completedFuture(BigInteger.ONE));
+    }
+
+    /**
+     * Returns n!, computing it in the background unless it is already cached or in progress.
+     */
+    public CompletableFuture<BigInteger> factorial(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Factorial of a negative number: " + n);
+        }
+        CompletableFuture<BigInteger> existing = memo.get(n);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<BigInteger> created = new CompletableFuture<>();
+        existing = memo.putIfAbsent(n, created);
+        if (existing != null) {
+            return existing; // Another thread started it first
+        }
+        pool.execute(() -> {
+            try {
+                Map.Entry<Integer, BigInteger> base = largestCachedBelow(n);
+                created.complete(base.getValue().multiply(product(base.getKey() + 1, n)));
+            } catch (Throwable t) {
+                memo.remove(n, created); // Let a later request try again
+                created.completeExceptionally(t);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Finds the largest m < n whose factorial is already computed.
+     */
+    private Map.Entry<Integer, BigInteger> largestCachedBelow(int n) {
+        for (Map.Entry<Integer, CompletableFuture<BigInteger>> entry : memo.headMap(n, false).descendingMap().entrySet()) {
+            CompletableFuture<BigInteger> future = entry.getValue();
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                return Map.entry(entry.getKey(), future.join());
+            }
+        }
+        return Map.entry(0, BigInteger.ONE);
+    }
+
+    /**
+     * Returns lo * (lo+1) * ... * hi, or 1 for an empty range, computed on the service's pool
+     * without consulting the memo table.
+     */
+    public BigInteger product(int lo, int hi) {
+        if (lo > hi) {
+            return BigInteger.ONE;
+        }
+        return pool.invoke(new ProductTask(lo, hi));
+    }
+
+    /**
+     * The product of a range, split in half until the halves are short enough to do sequentially.
+     */
+    private static final class ProductTask extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+        private final int lo;
+        private final int hi;
+
+        ProductTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (hi - lo < SEQUENTIAL_THRESHOLD) {
+                return sequentialSplitProduct(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            ProductTask left = new ProductTask(lo, mid);
+            left.fork();
+            BigInteger right = new ProductTask(mid + 1, hi).compute();
+            return left.join().multiply(right);
+        }
+    }
+
+    /**
+     * Binary splitting on one thread: the same balanced multiplication tree, without tasks.
+     */
+    static BigInteger sequentialSplitProduct(int lo, int hi) {
+        if (hi - lo < 8) {
+            long product = 1; // Eight int factors can overflow a long, so flush into the BigInteger when needed
+            BigInteger result = BigInteger.ONE;
+            for (int i = lo; i <= hi; i++) {
+                if (product > Long.MAX_VALUE / i) {
+                    result = result.multiply(BigInteger.valueOf(product));
+                    product = 1;
+                }
+                product *= i;
+            }
+            return result.multiply(BigInteger.valueOf(product));
+        }
+        int mid = (lo + hi) >>> 1;
+        return sequentialSplitProduct(lo, mid).multiply(sequentialSplitProduct(mid + 1, hi));
+    }
+
+    /**
+     * The straightforward way, for comparison: multiply 1, 2, ..., n into one running product.
+     */
+    static BigInteger sequentialLoop(int n) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    /** Number of factorials in the memo table (including 0!). */
+    public int cacheSize() {
+        return memo.size();
+    }
+
+    /** Forgets all cached results except 0!. */
+    public void clearCache() {
+        memo.tailMap(0, false).clear();
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size thread pool that runs queued tasks by urgency instead of first-in, first-out.
+ *
+ * Every task is ordered by a deadline, earliest first (EDF):
+ *   - Every task gets a virtual deadline of submission time + its priority's slack,
+ *     where the slack is 0 for HIGH, one aging step for NORMAL and two for LOW.
+ *   - A task submitted with a real deadline is ordered by the earlier of the two, so a deadline
+ *     can make a task more urgent than its priority, but never less.
+ *
+ * Because waiting tasks keep their virtual deadline while new ones get later ones, a waiting
+ * task effectively gains priority as it ages: a LOW task that has waited two aging steps comes
+ * before any task submitted after it, so a steady stream of HIGH work can't starve it. Tasks
+ * with equal deadlines run in submission order.
+ *
+ * A task with a deadline that is still queued when the deadline passes is dropped instead of
+ * started: its Future is cancelled and it is counted in {@link #getExpiredCount()}.
+ *
+ * The queue is an unbounded PriorityBlockingQueue, so the pool never grows beyond its core
+ * size and never rejects tasks while running.
+ */
+public class PriorityTaskExecutor extends ThreadPoolExecutor {
+
+    /** Priority of a task without a deadline. */
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long agingStepNanos;
+    private final AtomicLong sequence = new AtomicLong(); // Keeps FIFO order among equal deadlines
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * @param threads Number of worker threads.
+     * @param agingStep How much longer a task of one priority level may wait than a task of the next higher one.
+     */
+    public PriorityTaskExecutor(int threads, long agingStep, TimeUnit unit) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), Executors.defaultThreadFactory());
+        this.agingStepNanos = unit.toNanos(agingStep);
+    }
+
+    /**
+     * A queued task and the deadline it is ordered by.
+     */
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Runnable task;
+        private final Priority priority;
+        private final long orderNanos; // Real or virtual deadline, in System.nanoTime() terms
+        private final long deadlineNanos; // NO_DEADLINE if the task never expires
+        private final long seq = sequence.getAndIncrement();
+
+        PrioritizedTask(Runnable task, Priority priority, long deadlineNanos) {
+            this.task = task;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            long virtualDeadline = System.nanoTime() + priority.ordinal() * agingStepNanos;
+            // A deadline can make a task more urgent than its priority, never less
+            this.orderNanos = deadlineNanos == NO_DEADLINE || virtualDeadline - deadlineNanos < 0 ? virtualDeadline : deadlineNanos;
+        }
+
+        @Override
+        public void run() {
+            if (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos > 0) {
+                expired.increment();
+                if (task instanceof Future) {
+                    ((Future<?>) task).cancel(false); // Callers see a CancellationException
+                }
+                return;
+            }
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            long diff = orderNanos - other.orderNanos; // Subtract, as nanoTime values may wrap around
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(seq, other.seq);
+        }
+
+        @Override
+        public String toString() {
+            return task + " [" + priority + (deadlineNanos == NO_DEADLINE ? "" : ", with deadline") + "]";
+        }
+    }
+
+    /**
+     * Runs a task at NORMAL priority, like any other executor. Used by submit() and TaskGroup too.
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (command instanceof PriorityTaskExecutor.PrioritizedTask) {
+            super.execute(command);
+        } else {
+            execute(command, Priority.NORMAL);
+        }
+    }
+
+    /**
+     * Runs a task at the given priority.
+     */
+    public void execute(Runnable command, Priority priority) {
+        super.execute(new PrioritizedTask(command, priority, NO_DEADLINE));
+    }
+
+    /**
+     * Runs a task at the given priority, unless it is still queued when the deadline passes.
+     */
+    public void execute(Runnable command, Priority priority, long deadline, TimeUnit unit) {
+        super.execute(new PrioritizedTask(command, priority, System.nanoTime() + unit.toNanos(deadline)));
+    }
+
+    /**
+     * Submits a task at the given priority.
+     */
+    public <T> Future<T> submit(Callable<T> task, Priority priority) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future, priority);
+        return future;
+    }
+
+    /**
+     * Submits a task with a deadline; if it can't start in time its Future is cancelled.
+     */
+    public <T> Future<T> submit(Callable<T> task, Priority priority, long deadline, TimeUnit unit) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future, priority, deadline, unit);
+        return future;
+    }
+
+    /** Number of tasks dropped because their deadline passed before they started. */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+}
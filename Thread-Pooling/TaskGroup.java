@@ -0,0 +1,237 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A group of tasks submitted to an executor, whose results are collected as they complete.
+ *
+ * Instead of spinning on isTerminated() or calling future.get() in submission order, the waiting
+ * thread blocks on a queue that each task adds its {@link TaskResult} to when it finishes, so it
+ * uses no CPU while waiting and sees fast tasks first. {@link #awaitAll} takes a timeout, after
+ * which the unfinished tasks are cancelled. Each result records how long its task waited in the
+ * executor's queue and how long it ran.
+ *
+ * The group doesn't own the executor: several groups can share one pool, and the pool can stay
+ * alive after the group is done.
+ */
+public class TaskGroup<T> implements AutoCloseable {
+
+    private final Executor executor;
+    private final BlockingQueue<TaskResult<T>> completed = new LinkedBlockingQueue<>();
+    private final Queue<GroupTask> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger collected = new AtomicInteger();
+
+    public TaskGroup(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The outcome of one task: its value, the exception it threw, or that it was cancelled.
+     */
+    public static final class TaskResult<T> {
+        private final String name;
+        private final T value;
+        private final Throwable error;
+        private final boolean cancelled;
+        private final long queueNanos;
+        private final long runNanos;
+
+        TaskResult(String name, T value, Throwable error, boolean cancelled, long queueNanos, long runNanos) {
+            this.name = name;
+            this.value = value;
+            this.error = error;
+            this.cancelled = cancelled;
+            this.queueNanos = queueNanos;
+            this.runNanos = runNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isSuccess() {
+            return !cancelled && error == null;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        /**
+         * Returns the task's value, or throws what a Future would have thrown.
+         */
+        public T getValue() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException(name + " was cancelled");
+            }
+            if (error != null) {
+                throw new ExecutionException(error);
+            }
+            return value;
+        }
+
+        /** Time from submission until a thread started the task (or until it was cancelled). */
+        public double getQueueMillis() {
+            return queueNanos / 1e6;
+        }
+
+        /** Time the task ran; 0 if it was cancelled before starting. */
+        public double getRunMillis() {
+            return runNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            String outcome = cancelled ? "cancelled" : error != null ? "failed: " + error : value == null ? "done" : "= " + value;
+            return String.format("%s %s (queued %.1fms, ran %.1fms)", name, outcome, getQueueMillis(), getRunMillis());
+        }
+    }
+
+    /**
+     * A FutureTask that timestamps itself and reports its result to the group when done.
+     */
+    private final class GroupTask extends FutureTask<T> {
+        private final String name;
+        private final long submittedNanos = System.nanoTime();
+        private volatile long startedNanos;
+
+        GroupTask(String name, Callable<T> callable) {
+            super(callable);
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            startedNanos = System.nanoTime();
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            long now = System.nanoTime();
+            long started = startedNanos;
+            long queueNanos = (started == 0 ? now : started) - submittedNanos;
+            long runNanos = started == 0 ? 0 : now - started;
+            T value = null;
+            Throwable error = null;
+            boolean cancelled = isCancelled();
+            if (!cancelled) {
+                try {
+                    value = get(); // Already done, so this doesn't block
+                } catch (ExecutionException e) {
+                    error = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            completed.add(new TaskResult<>(name, value, error, cancelled, queueNanos, runNanos));
+        }
+    }
+
+    /**
+     * Submits a task to the group's executor.
+     */
+    public Future<T> submit(String name, Callable<T> callable) {
+        GroupTask task = new GroupTask(name, callable);
+        tasks.add(task);
+        submitted.incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            tasks.remove(task);
+            submitted.decrementAndGet();
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * Submits a Runnable; its result value is null.
+     */
+    public Future<T> submit(String name, Runnable runnable) {
+        return submit(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /** Number of submitted tasks whose results haven't been collected yet. */
+    public int pending() {
+        return submitted.get() - collected.get();
+    }
+
+    /**
+     * Waits for the next task to complete, in completion order.
+     *
+     * @return The next result, or null if none completed within the timeout or none is pending.
+     */
+    public TaskResult<T> next(long timeout, TimeUnit unit) throws InterruptedException {
+        if (pending() == 0) {
+            return null;
+        }
+        TaskResult<T> result = completed.poll(timeout, unit); // Parks the thread; no spinning
+        if (result != null) {
+            collected.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Waits for all pending tasks, up to the timeout. Tasks still unfinished at the deadline are
+     * cancelled (interrupting them if running) and appear in the list as cancelled results.
+     *
+     * @return The results in the order the tasks completed.
+     */
+    public List<TaskResult<T>> awaitAll(long timeout, TimeUnit unit) throws InterruptedException {
+        List<TaskResult<T>> results = new ArrayList<>();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending() > 0) {
+            long remaining = deadline - System.nanoTime();
+            TaskResult<T> result = remaining > 0 ? next(remaining, TimeUnit.NANOSECONDS) : null;
+            if (result == null) {
+                cancelAll(); // Every cancelled task reports a result right away
+                TaskResult<T> cancelled;
+                while ((cancelled = next(1, TimeUnit.SECONDS)) != null) {
+                    results.add(cancelled);
+                }
+                break;
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Cancels every unfinished task, interrupting those already running.
+     */
+    public void cancelAll() {
+        for (GroupTask task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Cancels whatever is still unfinished.
+     */
+    @Override
+    public void close() {
+        cancelAll();
+    }
+}
@@ -0,0 +1,65 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much CPU the main thread spends waiting for a pool's tasks to finish.
+ *
+ * Each run submits 8 tasks that sleep for 500ms to a pool of 4 threads, so the wait lasts about
+ * a second, and compares the main thread's CPU time while it waits by:
+ *   - spinning on isTerminated(), as the examples used to
+ *   - executor.awaitTermination()
+ *   - TaskGroup.awaitAll()
+ */
+public class TaskGroupBenchmark {
+
+    private static final int TASKS = 8;
+    private static final int THREADS = 4;
+    private static final long TASK_MILLIS = 500;
+
+    public static void main(String[] args) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isCurrentThreadCpuTimeSupported()) {
+            System.out.println("Thread CPU time is not supported on this JVM.");
+            return;
+        }
+        System.out.printf("%-22s %10s %14s%n", "Wait strategy", "wall ms", "waiter CPU ms");
+        for (String strategy : new String[] {"spin isTerminated", "awaitTermination", "TaskGroup.awaitAll"}) {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            TaskGroup<Object> group = new TaskGroup<>(executor);
+            for (int i = 0; i < TASKS; i++) {
+                group.submit("Task " + i, () -> {
+                    try {
+                        Thread.sleep(TASK_MILLIS); // Simulate some work
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            long wallStart = System.nanoTime();
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            switch (strategy) {
+                case "spin isTerminated":
+                    executor.shutdown();
+                    while (!executor.isTerminated()) {
+                        // Do nothing, just wait
+                    }
+                    break;
+                case "awaitTermination":
+                    executor.shutdown();
+                    executor.awaitTermination(1, TimeUnit.MINUTES);
+                    break;
+                default:
+                    group.awaitAll(1, TimeUnit.MINUTES);
+                    executor.shutdown();
+                    break;
+            }
+            long cpuMillis = TimeUnit.NANOSECONDS.toMillis(threads.getCurrentThreadCpuTime() - cpuStart);
+            long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+            System.out.printf("%-22s %10d %14d%n", strategy, wallMillis, cpuMillis);
+        }
+    }
+}
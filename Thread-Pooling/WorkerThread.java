@@ -0,0 +1,22 @@
+class WorkerThread implements Runnable {
+    private String taskName;
+
+    public WorkerThread(String taskName) {
+        this.taskName = taskName;
+    }
+
+    @Override
+    public void run() {
+        System.out.println(Thread.currentThread().getName() + " (Start) " + taskName);
+        processCommand();
+        System.out.println(Thread.currentThread().getName() + " (End) " + taskName);
+    }
+
+    private void processCommand() {
+        try {
+            Thread.sleep(2000); // Simulate some work
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class adaptive {
+
+    public static void main(String[] args) throws InterruptedException {
+        // 1 to 16 threads, aiming for at most 100ms in the queue, re-evaluated every 500ms.
+        // When even the queue is full, the submitter waits up to 1 second and then runs the task itself.
+        AdaptiveThreadPoolExecutor executor = new AdaptiveThreadPoolExecutor(
+                1, // minThreads
+                16, // maxThreads
+                100, // targetDelay
+                500, // controlInterval
+                TimeUnit.MILLISECONDS, // unit
+                new ArrayBlockingQueue<>(100), // workQueue
+                new BoundedWaitPolicy(1, TimeUnit.SECONDS, true), // rejectionHandler
+                decision -> System.out.println("Resized: " + decision) // decisionListener
+        );
+
+        // A quiet phase, a burst, then quiet again
+        runPhase(executor, "quiet", 5, 3);
+        runPhase(executor, "burst", 80, 4);
+        runPhase(executor, "quiet", 5, 4);
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("Last decision: " + executor.getLastDecision());
+        System.out.println("Resizes: " + executor.getResizeCount() + ", tasks completed: " + executor.getCompletedTaskCount()
+                + ", largest pool size: " + executor.getLargestPoolSize());
+        System.out.println("Finished all threads");
+    }
+
+    // Submits tasks of 50-150ms at the given rate for the given number of seconds
+    private static void runPhase(AdaptiveThreadPoolExecutor executor, String name, int tasksPerSecond, int seconds)
+            throws InterruptedException {
+        System.out.println("Phase '" + name + "': " + tasksPerSecond + " tasks/s for " + seconds + "s, pool size " + executor.getPoolSize());
+        long pauseMillis = 1000 / tasksPerSecond;
+        for (int i = 0; i < tasksPerSecond * seconds; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(50, 150)); // Simulate some work
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
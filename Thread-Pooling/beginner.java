@@ -1,5 +1,6 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class beginner {
 
@@ -16,34 +17,13 @@ public class beginner {
         // Shut down the executor service
         executor.shutdown();
 
-        // Wait until all tasks are finished
-        while (!executor.isTerminated()) {
-            // Do nothing, just wait
-        }
-
-        System.out.println("Finished all threads");
-    }
-}
-
-class WorkerThread implements Runnable {
-    private String taskName;
-
-    public WorkerThread(String taskName) {
-        this.taskName = taskName;
-    }
-
-    @Override
-    public void run() {
-        System.out.println(Thread.currentThread().getName() + " (Start) " + taskName);
-        processCommand();
-        System.out.println(Thread.currentThread().getName() + " (End) " + taskName);
-    }
-
-    private void processCommand() {
+        // Wait until all tasks are finished; the main thread sleeps instead of spinning on isTerminated()
         try {
-            Thread.sleep(2000); // Simulate some work
+            executor.awaitTermination(1, TimeUnit.MINUTES);
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
+
+        System.out.println("Finished all threads");
     }
 }
@@ -1,17 +1,13 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigInteger;
 import java.util.concurrent.*;
 
 public class expert {
 
-    public static void main(String[] args) throws InterruptedException, ExecutionException {
-        // Custom RejectedExecutionHandler
-        RejectedExecutionHandler rejectionHandler = new RejectedExecutionHandler() {
-            @Override
-            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-                System.out.println(r.toString() + " is rejected");
-            }
-        };
+    public static void main(String[] args) throws InterruptedException {
+        // Custom RejectedExecutionHandler: instead of dropping a task when the pool and queue are full,
+        // wait up to 2 seconds for queue space, then run the task in the submitting thread.
+        // Either way the submitter slows down to the pool's pace and no Future is left never completing.
+        RejectedExecutionHandler rejectionHandler = new BoundedWaitPolicy(2, TimeUnit.SECONDS, true);
 
         // ThreadPoolExecutor with custom parameters and rejection handler
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
@@ -24,53 +20,23 @@ public class expert {
                 rejectionHandler // rejectedExecutionHandler
         );
 
-        List<Future<Long>> resultList = new ArrayList<>();
-
-        // Submit Callable tasks
+        // Submit Callable tasks as a group
+        TaskGroup<BigInteger> group = new TaskGroup<>(executor);
         for (int i = 0; i < 10; i++) {
-            Callable<Long> worker = new FactorialCalculator("Task " + i, i + 1);
-            Future<Long> future = executor.submit(worker);
-            resultList.add(future);
-        }
-
-        // Shut down the executor service
-        executor.shutdown();
-
-        // Wait until all tasks are finished
-        while (!executor.isTerminated()) {
-            // Do nothing, just wait
+            Callable<BigInteger> worker = new FactorialCalculator("Task " + i, (i + 1) * 5); // 5!, 10!, ..., 50!
+            group.submit("Task " + i, worker);
         }
 
+        // Collect the results in the order the tasks finish, blocking (not spinning) in between.
+        // Anything not done within 10 seconds is cancelled.
         System.out.println("\nResults:");
-        for (Future<Long> future : resultList) {
-            try {
-                System.out.println(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-            }
+        for (TaskGroup.TaskResult<BigInteger> result : group.awaitAll(10, TimeUnit.SECONDS)) {
+            System.out.println(result);
         }
 
+        // Shut down the executor service
+        executor.shutdown();
+
         System.out.println("Finished all threads");
     }
 }
-
-class FactorialCalculator implements Callable<Long> {
-    private String taskName;
-    private int number;
-
-    public FactorialCalculator(String taskName, int number) {
-        this.taskName = taskName;
-        this.number = number;
-    }
-
-    @Override
-    public Long call() throws Exception {
-        long result = 1;
-        for (int i = 1; i <= number; i++) {
-            result *= i;
-            Thread.sleep(100); // Simulate some work
-        }
-        System.out.println(Thread.currentThread().getName() + " (Calculated Factorial of " + number + "): " + result);
-        return result;
-    }
-}
\ No newline at end of file
@@ -1,5 +1,6 @@
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -17,21 +18,31 @@ public class intermediate {
                 workQueue // workQueue
         );
 
-        // Submit 10 tasks
+        // Submit 10 tasks as a group, so we can wait for exactly these tasks
+        TaskGroup<Object> group = new TaskGroup<>(executor);
         for (int i = 0; i < 10; i++) {
             Runnable worker = new WorkerThread("Task " + i);
-            executor.execute(worker);
-            System.out.println("Task " + i + " submitted. Pool size: " + executor.getPoolSize() + ", Queue size: " + workQueue.size());
+            try {
+                group.submit("Task " + i, worker);
+                System.out.println("Task " + i + " submitted. Pool size: " + executor.getPoolSize() + ", Queue size: " + workQueue.size());
+            } catch (RejectedExecutionException e) {
+                // With 4 threads and 2 queue slots, tasks 6 to 9 don't fit while the first ones run
+                System.out.println("Task " + i + " rejected. Pool size: " + executor.getPoolSize() + ", Queue size: " + workQueue.size());
+            }
+        }
+
+        // Wait until all accepted tasks are finished; the main thread blocks instead of spinning
+        try {
+            for (TaskGroup.TaskResult<Object> result : group.awaitAll(1, TimeUnit.MINUTES)) {
+                System.out.println(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
         // Shut down the executor service
         executor.shutdown();
 
-        // Wait until all tasks are finished
-        while (!executor.isTerminated()) {
-            // Do nothing, just wait
-        }
-
         System.out.println("Finished all threads");
     }
 }
@@ -0,0 +1,50 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class priority {
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        // One thread, so the order in which queued tasks start is easy to follow.
+        // Each priority level may wait 1 second longer than the one above it before it catches up.
+        PriorityTaskExecutor executor = new PriorityTaskExecutor(1, 1, TimeUnit.SECONDS);
+
+        // Batch work first; the first task starts at once, the rest queue up
+        for (int i = 0; i < 3; i++) {
+            executor.execute(new WorkerThread("Batch " + i), PriorityTaskExecutor.Priority.LOW);
+        }
+        executor.execute(new WorkerThread("Regular 0"), PriorityTaskExecutor.Priority.NORMAL);
+
+        // Latency-sensitive work jumps ahead of everything queued
+        List<Future<BigInteger>> reports = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            reports.add(executor.submit(new FactorialCalculator("Report " + i, (i + 1) * 10), PriorityTaskExecutor.Priority.HIGH));
+        }
+
+        // Useless unless it starts within 1 second, but the thread is busy with Batch 0 for 2 seconds
+        Future<BigInteger> quote = executor.submit(new FactorialCalculator("Quote", 15),
+                PriorityTaskExecutor.Priority.HIGH, 1, TimeUnit.SECONDS);
+
+        // Submitted 3 seconds later, this HIGH task waits behind the LOW batches that have aged past it
+        Thread.sleep(3000);
+        executor.execute(new WorkerThread("Urgent (late)"), PriorityTaskExecutor.Priority.HIGH);
+
+        for (Future<BigInteger> report : reports) {
+            System.out.println("Report result: " + report.get());
+        }
+        try {
+            System.out.println("Quote result: " + quote.get());
+        } catch (CancellationException e) {
+            System.out.println("Quote was dropped: its deadline passed before a thread was free");
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("Expired tasks: " + executor.getExpiredCount());
+        System.out.println("Finished all threads");
+    }
+}
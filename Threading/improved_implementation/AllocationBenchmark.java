@@ -0,0 +1,186 @@
+package io.github.hridoy100;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class measures how many bytes the producer and consumer allocate per item on the
+ * different item paths, in the spirit of JMH's {@code -prof gc} ({@code gc.alloc.rate.norm}):
+ * <ul>
+ *   <li>a named {@link Item} ({@code new Item("cake-" + n)}, as the producer used to create
+ *       them) through a {@link RingBufferQueue},</li>
+ *   <li>a numbered {@link Item} ({@code new Item(n)}, no string) through a {@link RingBufferQueue}
+ *       and through an {@link ArrayBlockingQueue},</li>
+ *   <li>a {@code long} item number published into the pre-allocated events of an
+ *       {@link EventRing} and read in place by a handler.</li>
+ * </ul>
+ * One producer thread hands the items to one consumer thread, which records each item's
+ * end-to-end latency in a {@link PipelineMetrics} like {@link Consumer} does. Each thread reads
+ * its own allocated-bytes counter ({@link com.sun.management.ThreadMXBean}) before and after
+ * its loop, so the setup and the measuring code are not counted. Each path runs once to warm
+ * up before it is measured.
+ * <p>
+ * Usage: {@code java io.github.hridoy100.AllocationBenchmark [items] [capacity]} (defaults
+ * 5000000 and 1024).
+ * </p>
+ */
+public class AllocationBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** One item path: the code run on the producer and on the consumer thread. */
+    private interface Path {
+        void produce(long items) throws InterruptedException;
+
+        void consume(PipelineMetrics metrics) throws InterruptedException;
+    }
+
+    /**
+     * Reads events in place: the only consumer-side state is a few primitive fields.
+     */
+    private static final class CountingHandler implements EventRing.Handler {
+        private final PipelineMetrics metrics;
+        private boolean poisoned;
+
+        CountingHandler(PipelineMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void onEvent(ItemEvent event) {
+            if (event.getId() == ItemEvent.POISON_ID) {
+                poisoned = true;
+            } else {
+                metrics.recordHandled(event.getCreatedNanos());
+            }
+        }
+    }
+
+    private static Path itemPath(ItemQueue<Item> queue, boolean named) {
+        return new Path() {
+            @Override
+            public void produce(long items) throws InterruptedException {
+                for (long n = 1; n <= items; n++) {
+                    queue.put(named ? new Item("cake-" + n) : new Item(n));
+                }
+                queue.put(Item.POISON);
+            }
+
+            @Override
+            public void consume(PipelineMetrics metrics) throws InterruptedException {
+                Item item;
+                while ((item = queue.take()) != Item.POISON) {
+                    metrics.recordHandled(item);
+                }
+            }
+        };
+    }
+
+    private static Path eventPath(EventRing ring) {
+        return new Path() {
+            @Override
+            public void produce(long items) throws InterruptedException {
+                for (long n = 1; n <= items; n++) {
+                    ring.publish(n);
+                }
+                ring.publish(ItemEvent.POISON_ID);
+            }
+
+            @Override
+            public void consume(PipelineMetrics metrics) throws InterruptedException {
+                CountingHandler handler = new CountingHandler(metrics); // Once, before the loop
+                while (!handler.poisoned) {
+                    ring.take(handler);
+                }
+            }
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long items = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("This JVM cannot measure per-thread allocation.");
+            return;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        System.out.println("Allocation benchmark: " + items + " items, 1 producer, 1 consumer, capacity " + capacity + ".");
+        System.out.printf("%-36s %12s %12s %10s %6s%n", "Path", "prod B/item", "cons B/item", "Mitems/s", "GCs");
+
+        String[] names = {"Item(\"cake-\" + n), RingBufferQueue", "Item(n), RingBufferQueue", "Item(n), ArrayBlockingQueue", "long id, EventRing"};
+        for (int i = 0; i < names.length; i++) {
+            run(createPath(i, capacity), items); // Warm-up, so the JIT has compiled the loops
+            System.out.println(String.format("%-36s ", names[i]) + run(createPath(i, capacity), items));
+        }
+    }
+
+    private static Path createPath(int index, int capacity) {
+        switch (index) {
+            case 0:
+                return itemPath(new RingBufferQueue<>(capacity, WaitStrategy.PARKING), true);
+            case 1:
+                return itemPath(new RingBufferQueue<>(capacity, WaitStrategy.PARKING), false);
+            case 2:
+                return itemPath(ItemQueue.of(new ArrayBlockingQueue<>(capacity)), false);
+            default:
+                return eventPath(new EventRing(capacity, WaitStrategy.PARKING));
+        }
+    }
+
+    /**
+     * Transfers the items once.
+     *
+     * @return A formatted result row: bytes per item on each side, throughput and GC count.
+     */
+    private static String run(Path path, long items) throws InterruptedException {
+        PipelineMetrics metrics = new PipelineMetrics();
+        AtomicLong producerBytes = new AtomicLong();
+        AtomicLong consumerBytes = new AtomicLong();
+        Thread producer = new Thread(() -> measure(producerBytes, () -> path.produce(items)), "AllocProducer");
+        Thread consumer = new Thread(() -> measure(consumerBytes, () -> path.consume(metrics)), "AllocConsumer");
+
+        long gcsBefore = gcCount();
+        long start = System.nanoTime();
+        consumer.start();
+        producer.start();
+        producer.join();
+        consumer.join();
+        long elapsed = System.nanoTime() - start;
+        long gcs = gcCount() - gcsBefore;
+
+        if (metrics.getLatency().count() != items) {
+            throw new IllegalStateException("Delivered " + metrics.getLatency().count() + " of " + items + " items");
+        }
+        return String.format("%12.2f %12.2f %10.2f %6d", (double) producerBytes.get() / items,
+                (double) consumerBytes.get() / items, items / (elapsed / 1_000.0), gcs);
+    }
+
+    /** A loop that may be interrupted. */
+    private interface Loop {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Runs the loop and stores the bytes the current thread allocated while it ran.
+     */
+    private static void measure(AtomicLong bytes, Loop loop) {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        try {
+            loop.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bytes.set(THREADS.getCurrentThreadAllocatedBytes() - before);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+}
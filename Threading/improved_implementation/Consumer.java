@@ -1,17 +1,65 @@
 package io.github.hridoy100;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents a consumer in a Producer-Consumer pattern.
- * It continuously takes elements from a {@link BlockingQueue} and processes them.
+ * It continuously takes elements from a {@link BlockingQueue} or other {@link ItemQueue} and processes them.
  * Each consumer runs in its own thread.
+ * <p>
+ * With a maximum batch size above 1 the consumer collects a batch before processing: it waits
+ * for the first item, then drains whatever else is already queued with
+ * {@link ItemQueue#drainTo} (one lock acquisition for many items). If the batch is still not
+ * full it keeps waiting for more until the linger timeout, measured from the first item,
+ * expires. A longer linger gives fuller batches at the cost of latency.
+ * </p>
+ * <p>
+ * Given a {@link HashedWheelTimer}, the consumer has no thread of its own: each step is a timer
+ * task that drains whatever is queued (up to the batch size) without blocking, then schedules the
+ * next step after the simulated processing time, or after {@code IDLE_POLL_MILLIS} if the queue
+ * was empty. The linger timeout does not apply in this mode.
+ * </p>
+ * <p>
+ * Given an {@link EventRing}, the consumer reads each event in place through a handler created
+ * once, copying only the primitive fields it needs, so consuming allocates nothing per item.
+ * Progress is logged at most once per {@code LOG_INTERVAL_MILLIS} instead of per item, and a
+ * poison pill is an event with {@link ItemEvent#POISON_ID}.
+ * </p>
+ * <p>
+ * There are two ways to stop a consumer. Putting an {@link Item#POISON} in the queue drains it:
+ * the consumer handles everything queued before the pill and then stops. {@link #stopConsumer()}
+ * stops it right away, interrupting a {@code take()} or the processing of an item. Either way
+ * {@link #awaitTermination} tells when it has stopped.
+ * </p>
  */
 public class Consumer implements Runnable {
 
-    private final BlockingQueue<String> queue; // The shared queue from which to consume elements
+    private static final long CONSUME_MILLIS = 1000; // Simulated processing time per item
+    private static final long IDLE_POLL_MILLIS = 50; // With a timer: how soon to look again when the queue was empty
+    private static final long LOG_INTERVAL_MILLIS = 1000; // With an event ring: least time between progress lines
+
+    private final ItemQueue<Item> queue; // The shared queue from which to consume elements, or null with an event ring
+    private final EventRing ring; // The shared ring to read events from, or null with a queue
+    private final EventRing.Handler eventHandler = this::onEvent; // Created once, not per event
     private final String name; // The name of this consumer thread
+    private final int maxBatchSize; // Most items processed together
+    private final long lingerNanos; // How long to wait for a batch to fill after its first item
+    private final PipelineMetrics metrics; // Where queue calls and latencies are recorded
+    private final HashedWheelTimer timer; // Schedules the steps when there is no thread
+    private final Thread thread; // The thread running this consumer, or null when driven by a timer
+    private final CountDownLatch terminated = new CountDownLatch(1); // Released once the consumer has stopped
+    private volatile HashedWheelTimer.Timeout nextStep; // With a timer: the scheduled next step
     private volatile boolean running = true; // Flag to control the thread's execution loop
+    private int eventsInStep; // With an event ring: events handled by the current take/drain
+    private int pillsInStep; // With an event ring: poison pills seen by the current take/drain
+    private long lastEventId; // With an event ring: the number of the last item handled
+    private long consumedEvents; // With an event ring: items handled so far
+    private long loggedEvents; // With an event ring: consumedEvents at the last progress line
+    private long lastLogNanos = System.nanoTime(); // With an event ring: time of the last progress line
 
     /**
      * Constructs a new Consumer.
@@ -19,22 +67,185 @@ public class Consumer implements Runnable {
      * @param q The {@link BlockingQueue} to consume from.
      * @param name A descriptive name for this consumer.
      */
-    public Consumer(BlockingQueue<String> q, String name) {
+    public Consumer(BlockingQueue<Item> q, String name) {
+        this(ItemQueue.of(q), name);
+    }
+
+    /**
+     * Constructs a new Consumer on any {@link ItemQueue}, such as a {@link RingBufferQueue}.
+     *
+     * @param q The {@link ItemQueue} to consume from.
+     * @param name A descriptive name for this consumer.
+     */
+    public Consumer(ItemQueue<Item> q, String name) {
+        this(q, name, 1, 0, new PipelineMetrics());
+    }
+
+    /**
+     * Constructs a new Consumer that processes items in batches.
+     *
+     * @param q The {@link ItemQueue} to consume from.
+     * @param name A descriptive name for this consumer.
+     * @param maxBatchSize The most items processed together.
+     * @param lingerMillis How long to wait for a batch to fill after its first item; 0 takes only what is queued.
+     * @param metrics The metrics to record queue calls and latencies in.
+     */
+    public Consumer(ItemQueue<Item> q, String name, int maxBatchSize, long lingerMillis, PipelineMetrics metrics) {
+        this(q, name, maxBatchSize, lingerMillis, metrics, null);
+    }
+
+    /**
+     * Constructs a new Consumer that runs on a thread of its own, or as tasks on a shared timer.
+     *
+     * @param q The {@link ItemQueue} to consume from.
+     * @param name A descriptive name for this consumer.
+     * @param maxBatchSize The most items processed together.
+     * @param lingerMillis How long to wait for a batch to fill after its first item; 0 takes only what is queued.
+     * @param metrics The metrics to record queue calls and latencies in.
+     * @param timer The timer to schedule the consumer's steps on, or null to start a thread.
+     */
+    public Consumer(ItemQueue<Item> q, String name, int maxBatchSize, long lingerMillis, PipelineMetrics metrics,
+                    HashedWheelTimer timer) {
+        this(q, null, name, maxBatchSize, lingerMillis, metrics, timer);
+    }
+
+    /**
+     * Constructs a new Consumer that reads events from an {@link EventRing} without allocating.
+     *
+     * @param ring The {@link EventRing} to consume from.
+     * @param name A descriptive name for this consumer.
+     * @param maxBatchSize The most events handled together.
+     * @param metrics The metrics to record queue calls and latencies in.
+     */
+    public Consumer(EventRing ring, String name, int maxBatchSize, PipelineMetrics metrics) {
+        this(null, ring, name, maxBatchSize, 0, metrics, null);
+    }
+
+    private Consumer(ItemQueue<Item> q, EventRing ring, String name, int maxBatchSize, long lingerMillis,
+                     PipelineMetrics metrics, HashedWheelTimer timer) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + maxBatchSize);
+        }
         this.queue = q;
+        this.ring = ring;
         this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.metrics = metrics;
+        this.timer = timer;
+        if (timer != null) {
+            this.thread = null;
+            System.out.println(name + " started on the timer...");
+            this.nextStep = timer.schedule(this::consumeStep, 0, TimeUnit.MILLISECONDS);
+            return;
+        }
         // It's generally better to have the caller start the thread, but keeping original behavior for now.
-        new Thread(this, name).start();
+        this.thread = new Thread(this, name);
+        thread.start();
     }
 
     /**
-     * Signals the consumer thread to stop its execution gracefully.
-     * The {@code run} method's loop will terminate after the current operation completes.
+     * Stops the consumer without draining the queue.
+     * A wait in {@code queue.take()} or the simulated processing of an item is cut short.
      */
     public void stopConsumer() {
         this.running = false;
-        // Interrupt the thread to unblock it if it's currently waiting on queue.take()
-        // This assumes the thread that calls stopConsumer() has a reference to the Thread object.
-        // For this example, we'll rely on the 'running' flag.
+        if (thread == null) {
+            nextStep.cancel(); // Driven by a timer: just don't run the next step
+            terminate();
+            return;
+        }
+        // Interrupt the thread to unblock it if it's currently waiting on queue.take(); the
+        // running flag alone is never looked at while the queue stays empty
+        thread.interrupt();
+    }
+
+    /**
+     * Waits for the consumer to stop, after a poison pill or {@link #stopConsumer()}.
+     *
+     * @param timeout How long to wait.
+     * @param unit The unit of {@code timeout}.
+     * @return {@code true} if the consumer stopped in time.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private void terminate() {
+        if (terminated.getCount() > 0) {
+            System.out.println(name + " stopped.");
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Cuts a batch off at the poison pill. Anything taken after the pill (the pills of other
+     * consumers) is moved to {@code leftover}, to be put back in the queue for them.
+     *
+     * @param batch The items just taken.
+     * @param leftover Receives the items that came after the pill.
+     * @return {@code true} if the batch contained the pill.
+     */
+    private boolean removePoison(List<Item> batch, List<Item> leftover) {
+        int index = batch.indexOf(Item.POISON);
+        if (index < 0) {
+            return false;
+        }
+        List<Item> rest = batch.subList(index, batch.size());
+        leftover.addAll(rest.subList(1, rest.size()));
+        rest.clear();
+        return true;
+    }
+
+    /**
+     * Puts items taken for other consumers back in the queue without blocking the timer's
+     * worker. Producers may have filled the freed slots meanwhile; whatever does not fit is
+     * retried later, since a lost pill would leave its consumer running forever.
+     *
+     * @param items The items to put back; those that did not fit yet are left in the list.
+     */
+    private void offerBack(List<Item> items) {
+        while (!items.isEmpty() && queue.offer(items.get(0))) {
+            items.remove(0);
+        }
+        if (!items.isEmpty()) {
+            timer.schedule(() -> offerBack(items), IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * One step of a timer-driven consumer: processes what is queued and schedules the next step.
+     */
+    private void consumeStep() {
+        if (!running) {
+            return;
+        }
+        List<Item> batch = new ArrayList<>(maxBatchSize);
+        int drained = queue.drainTo(batch, maxBatchSize); // Never blocks the timer's worker
+        List<Item> leftover = new ArrayList<>();
+        boolean poisoned = removePoison(batch, leftover);
+        offerBack(leftover);
+        int taken = batch.size();
+        if (drained == 0) {
+            nextStep = timer.schedule(this::consumeStep, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        metrics.recordTake(taken); // Without the pills
+        if (maxBatchSize > 1 && taken > 0) {
+            System.out.println(name + " consumed a batch of " + taken + ".");
+        }
+        for (Item item : batch) {
+            metrics.recordHandled(item);
+            System.out.println(name + " consumed: " + item);
+        }
+        // Simulate the processing time by starting the next step later, instead of sleeping on a thread
+        if (poisoned) {
+            running = false;
+            nextStep = timer.schedule(this::terminate, CONSUME_MILLIS * taken, TimeUnit.MILLISECONDS);
+        } else {
+            nextStep = timer.schedule(this::consumeStep, CONSUME_MILLIS * taken, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -44,15 +255,44 @@ public class Consumer implements Runnable {
     @Override
     public void run() {
         System.out.println(name + " started...");
+        List<Item> batch = new ArrayList<>(maxBatchSize);
+        List<Item> leftover = new ArrayList<>();
         while (running) {
             try {
-                // take() is a blocking operation; it waits until an element is available
-                String item = queue.take();
-                System.out.println(name + " consumed: " + item);
-                Thread.sleep(1000); // Simulate processing time
+                if (ring != null) {
+                    consumeFromRing();
+                } else if (maxBatchSize == 1) {
+                    // take() is a blocking operation; it waits until an element is available
+                    Item item = queue.take();
+                    metrics.recordTake(item == Item.POISON ? 0 : 1); // The pill is not an item
+                    if (item == Item.POISON) {
+                        running = false; // Everything queued before the pill has been handled
+                        break;
+                    }
+                    process(item);
+                } else {
+                    collectBatch(batch);
+                    boolean poisoned = removePoison(batch, leftover);
+                    for (Item item : leftover) {
+                        queue.put(item); // Producers may have refilled the queue; wait rather than lose a pill
+                    }
+                    leftover.clear();
+                    if (!batch.isEmpty()) {
+                        System.out.println(name + " consumed a batch of " + batch.size() + ".");
+                    }
+                    for (Item item : batch) {
+                        process(item);
+                    }
+                    batch.clear();
+                    if (poisoned) {
+                        running = false;
+                    }
+                }
             } catch (InterruptedException e) {
                 // This exception is thrown if the thread is interrupted while waiting
-                System.err.println(name + " was interrupted while waiting to consume. Shutting down.");
+                if (running) { // Not an interrupt from stopConsumer()
+                    System.err.println(name + " was interrupted while waiting to consume. Shutting down.");
+                }
                 Thread.currentThread().interrupt(); // Restore the interrupted status
                 running = false; // Stop the loop
             } catch (Exception e) {
@@ -61,6 +301,110 @@ public class Consumer implements Runnable {
                 running = false; // Stop the loop on other errors
             }
         }
-        System.out.println(name + " stopped.");
+        terminate();
+    }
+
+    /**
+     * Handles the next event, plus up to {@code maxBatchSize - 1} more that are already
+     * published, then simulates their processing time. Nothing here allocates except the
+     * occasional progress line.
+     *
+     * @throws InterruptedException If interrupted while waiting or processing.
+     */
+    private void consumeFromRing() throws InterruptedException {
+        eventsInStep = 0;
+        pillsInStep = 0;
+        ring.take(eventHandler);
+        if (maxBatchSize > 1) {
+            ring.drain(eventHandler, maxBatchSize - 1);
+        }
+        metrics.recordTake(eventsInStep);
+        for (int i = 1; i < pillsInStep; i++) {
+            ring.publish(ItemEvent.POISON_ID); // Pills of other consumers taken in the same drain; waits if the ring refilled
+        }
+        if (pillsInStep > 0 && eventsInStep == 0) {
+            running = false;
+            return;
+        }
+        consumedEvents += eventsInStep;
+        long now = System.nanoTime();
+        if (now - lastLogNanos >= TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL_MILLIS)) {
+            System.out.println(name + " consumed " + (consumedEvents - loggedEvents) + " events up to cake-" + lastEventId + ".");
+            loggedEvents = consumedEvents;
+            lastLogNanos = now;
+        }
+        TimeUnit.MILLISECONDS.sleep(CONSUME_MILLIS * eventsInStep); // Simulate processing time, after the slots are released
+        if (pillsInStep > 0) {
+            running = false; // Everything published before the pill has been handled
+        }
+    }
+
+    /**
+     * Reads one event while this consumer owns its slot: copies the primitive fields and records the latency.
+     */
+    private void onEvent(ItemEvent event) {
+        if (event.getId() == ItemEvent.POISON_ID) {
+            pillsInStep++;
+            return;
+        }
+        metrics.recordHandled(event.getCreatedNanos());
+        lastEventId = event.getId();
+        eventsInStep++;
+    }
+
+    /**
+     * Fills the batch: waits for one item, then drains and lingers for more.
+     *
+     * @param batch The empty list to fill.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private void collectBatch(List<Item> batch) throws InterruptedException {
+        batch.add(queue.take());
+        if (recordTakeOf(batch, 0)) {
+            return; // The pill: nothing queued after it is ours
+        }
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            int before = batch.size();
+            int drained = queue.drainTo(batch, maxBatchSize - batch.size());
+            if (recordTakeOf(batch, before)) {
+                return;
+            }
+            if (drained > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return; // Linger expired: process what we have
+            }
+            Item next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                metrics.recordTake(0);
+                return;
+            }
+            batch.add(next);
+            if (recordTakeOf(batch, batch.size() - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records one queue call that added {@code batch[from..]}, counting only the items this
+     * consumer keeps: neither the pill nor what follows it, which goes back to the queue.
+     *
+     * @return {@code true} if the batch now contains the pill.
+     */
+    private boolean recordTakeOf(List<Item> batch, int from) {
+        int pill = batch.indexOf(Item.POISON);
+        int end = pill < 0 ? batch.size() : pill;
+        metrics.recordTake(Math.max(0, end - from));
+        return pill >= 0;
+    }
+
+    private void process(Item item) throws InterruptedException {
+        metrics.recordHandled(item);
+        System.out.println(name + " consumed: " + item);
+        TimeUnit.MILLISECONDS.sleep(CONSUME_MILLIS); // Simulate processing time
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,308 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * This class is a pool of consumers for an {@link ItemQueue}, an alternative to starting a
+ * fixed number of {@link Consumer} threads that all poll the shared queue.
+ * <p>
+ * A single feeder thread drains the queue in batches and hands them to a {@link ForkJoinPool},
+ * sized by default to the number of available processors:
+ * </p>
+ * <ul>
+ *   <li>Items without a key go into a {@link BatchTask} that splits itself in halves. The
+ *       halves sit in the worker's own deque, and idle workers steal them from the other end,
+ *       so a worker stuck on a few expensive items doesn't hold up the cheap ones queued
+ *       behind it.</li>
+ *   <li>Items with a key go to the {@link Lane} chosen by the key's hash. A lane runs as at
+ *       most one task at a time, so items with the same key are handled one after the other,
+ *       in queue order. Different lanes still run in parallel.</li>
+ * </ul>
+ * <p>
+ * The feeder only takes as many items from the queue as the pool may hold in flight, so a
+ * bounded queue still pushes back on its producers when the workers fall behind. A take
+ * listener can be told how many items each of the feeder's queue calls returned, e.g.
+ * {@link PipelineMetrics#recordTake(int)}, to compare items per call with consumer threads.
+ * </p>
+ *
+ * @param <T> The type of item consumed.
+ */
+public class ConsumerPool<T> implements AutoCloseable {
+
+    private static final int FEED_BATCH = 256; // Most items the feeder drains per queue call
+    private static final int LANES_PER_WORKER = 4; // Lanes per worker, so keys spread evenly
+    private static final int LANE_RUN_LIMIT = 64; // Items a lane handles before yielding its worker
+    private static final int IN_FLIGHT_PER_WORKER = 64; // Default items handed out but not yet handled, per worker
+
+    private final ItemQueue<T> queue; // The shared queue to consume from
+    private final java.util.function.Consumer<? super T> handler; // Processes one item
+    private final Function<? super T, ?> keyFunction; // Affinity key of an item, or null for none
+    private final ForkJoinPool pool;
+    private final List<Lane> lanes;
+    private final Thread feeder;
+    private final Semaphore inFlight; // One permit per item the feeder may still hand out
+    private final IntConsumer takeListener; // Told the items returned by each queue call, or null
+    private final LongAdder handled = new LongAdder(); // Items processed so far
+    private final LongAdder failed = new LongAdder(); // Items whose handler threw
+    private volatile boolean running = true; // Flag to control the feeder's loop
+
+    /**
+     * Constructs and starts a pool with one worker per available processor.
+     *
+     * @param queue The queue to consume from.
+     * @param handler Processes each item.
+     * @param keyFunction Returns an item's affinity key, or {@code null} for items that may run anywhere.
+     */
+    public ConsumerPool(ItemQueue<T> queue, java.util.function.Consumer<? super T> handler,
+                        Function<? super T, ?> keyFunction) {
+        this(queue, handler, keyFunction, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs and starts a pool.
+     *
+     * @param queue The queue to consume from.
+     * @param handler Processes each item.
+     * @param keyFunction Returns an item's affinity key, or {@code null} for items that may run anywhere.
+     * @param parallelism The number of worker threads.
+     */
+    public ConsumerPool(ItemQueue<T> queue, java.util.function.Consumer<? super T> handler,
+                        Function<? super T, ?> keyFunction, int parallelism) {
+        this(queue, handler, keyFunction, parallelism, parallelism * IN_FLIGHT_PER_WORKER);
+    }
+
+    /**
+     * Constructs and starts a pool with a limit on the items taken from the queue but not yet handled.
+     *
+     * @param queue The queue to consume from.
+     * @param handler Processes each item.
+     * @param keyFunction Returns an item's affinity key, or {@code null} for items that may run anywhere.
+     * @param parallelism The number of worker threads.
+     * @param maxInFlight The most items taken from the queue but not yet handled.
+     */
+    public ConsumerPool(ItemQueue<T> queue, java.util.function.Consumer<? super T> handler,
+                        Function<? super T, ?> keyFunction, int parallelism, int maxInFlight) {
+        this(queue, handler, keyFunction, parallelism, maxInFlight, null);
+    }
+
+    /**
+     * Constructs and starts a pool that reports its queue calls.
+     *
+     * @param queue The queue to consume from.
+     * @param handler Processes each item.
+     * @param keyFunction Returns an item's affinity key, or {@code null} for items that may run anywhere.
+     * @param parallelism The number of worker threads.
+     * @param maxInFlight The most items taken from the queue but not yet handled.
+     * @param takeListener Called by the feeder with the number of items each {@code take} or
+     *                     {@code drainTo} returned, or {@code null}.
+     */
+    public ConsumerPool(ItemQueue<T> queue, java.util.function.Consumer<? super T> handler,
+                        Function<? super T, ?> keyFunction, int parallelism, int maxInFlight,
+                        IntConsumer takeListener) {
+        this.queue = queue;
+        this.takeListener = takeListener;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.handler = handler;
+        this.keyFunction = keyFunction;
+        this.pool = new ForkJoinPool(parallelism);
+        this.lanes = new ArrayList<>(parallelism * LANES_PER_WORKER);
+        for (int i = 0; i < parallelism * LANES_PER_WORKER; i++) {
+            lanes.add(new Lane());
+        }
+        this.feeder = new Thread(this::feed, "ConsumerPool-Feeder");
+        feeder.start();
+    }
+
+    /**
+     * Returns the number of worker threads.
+     *
+     * @return The parallelism of the pool.
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the number of items processed so far.
+     *
+     * @return The handled item count.
+     */
+    public long getHandledCount() {
+        return handled.sum();
+    }
+
+    /**
+     * Returns an estimate of how many tasks were stolen between workers.
+     *
+     * @return The steal count of the underlying {@link ForkJoinPool}.
+     */
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+
+    /**
+     * Moves items from the queue into the pool until the pool is closed.
+     */
+    private void feed() {
+        List<T> batch = new ArrayList<>(FEED_BATCH);
+        while (running) {
+            try {
+                inFlight.acquire(); // Wait for room for at least one item
+                try {
+                    batch.add(queue.take()); // Wait for the next item
+                } catch (InterruptedException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                recordTake(1);
+                // Take whatever else is queued, as far as the remaining room allows
+                int room = inFlight.drainPermits();
+                int extra = 0;
+                if (room > 0) { // Otherwise the call could not return anything
+                    extra = queue.drainTo(batch, Math.min(room, FEED_BATCH - 1));
+                    recordTake(extra);
+                }
+                inFlight.release(room - extra);
+                dispatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private void recordTake(int items) {
+        if (takeListener != null) {
+            takeListener.accept(items);
+        }
+    }
+
+    private void dispatch(List<T> batch) {
+        List<T> unkeyed = new ArrayList<>(batch.size());
+        for (T item : batch) {
+            Object key = keyFunction == null ? null : keyFunction.apply(item);
+            if (key == null) {
+                unkeyed.add(item);
+            } else {
+                lanes.get(Math.floorMod(key.hashCode(), lanes.size())).enqueue(item);
+            }
+        }
+        if (!unkeyed.isEmpty()) {
+            pool.execute(new BatchTask(unkeyed, 0, unkeyed.size()));
+        }
+    }
+
+    private void handle(T item) {
+        try {
+            handler.accept(item);
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.err.println("ConsumerPool handler failed: " + e.getMessage());
+        }
+        handled.increment();
+        inFlight.release();
+    }
+
+    /**
+     * Processes a range of unkeyed items, splitting it so idle workers can steal half.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<T> items;
+        private final int from;
+        private final int to;
+
+        BatchTask(List<T> items, int from, int to) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                handle(items.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(items, from, middle), new BatchTask(items, middle, to));
+        }
+    }
+
+    /**
+     * A serial queue of keyed items. It is scheduled on the pool only when it is not already
+     * running, so its items never run concurrently or out of order.
+     */
+    private final class Lane implements Runnable {
+        private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void enqueue(T item) {
+            pending.add(item);
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            T item;
+            int count = 0;
+            while (count < LANE_RUN_LIMIT && (item = pending.poll()) != null) {
+                handle(item);
+                count++;
+            }
+            scheduled.set(false);
+            // An item added after the last poll but before the reset above would otherwise be stranded
+            if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+    }
+
+    /**
+     * Stops feeding new items, then waits for the items already handed to the workers.
+     *
+     * @param timeout How long to wait for the workers.
+     * @param unit The unit of {@code timeout}.
+     * @return {@code true} if all handed-out items were processed in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        feeder.interrupt(); // Unblocks a take() on an empty queue
+        feeder.join(unit.toMillis(timeout));
+        pool.shutdown();
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!shutdown(5, TimeUnit.SECONDS)) {
+                System.err.println("ConsumerPool did not finish in time; " + pool.getQueuedTaskCount() + " tasks left.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerPool(parallelism=" + getParallelism() + ", handled=" + handled.sum()
+                + ", failed=" + failed.sum() + ", steals=" + getStealCount() + ")";
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class measures how consumer throughput scales with the number of workers, comparing
+ * plain consumer threads that all take from one shared queue with a {@link ConsumerPool}.
+ * <p>
+ * The jobs are CPU-bound with uneven costs: most are cheap, one in ten is twenty times as
+ * expensive. Some jobs carry a key, and jobs with the same key must be handled in the order
+ * they were queued; the benchmark counts the jobs handled out of order. Shared-queue threads
+ * can reorder them whenever there is more than one thread, while the pool runs each key
+ * serially.
+ * </p>
+ * <p>
+ * Usage: {@code java io.github.hridoy100.ConsumerPoolBenchmark [maxWorkers] [jobs]}; the
+ * number of workers goes from 1 to {@code maxWorkers}, by default the available processors.
+ * More workers than processors can't run faster, so the chart flattens there.
+ * </p>
+ */
+public class ConsumerPoolBenchmark {
+
+    private static final int KEYS = 64; // Distinct affinity keys
+    private static final double KEYED_FRACTION = 0.3; // Share of jobs that carry a key
+    private static final int EXPENSIVE_EVERY = 10; // One job in this many is expensive
+    private static final int EXPENSIVE_COST = 20; // Cost of an expensive job, in work units
+    private static final int WORK_UNIT_ITERATIONS = 500; // Loop iterations per work unit
+    private static final int CHART_WIDTH = 50; // Characters in the longest bar
+
+    /**
+     * A job for the benchmark: its position in its key's order, its key (or -1) and its cost.
+     */
+    private static final class Job {
+        final int sequence;
+        final int key;
+        final int cost;
+
+        Job(int sequence, int key, int cost) {
+            this.sequence = sequence;
+            this.key = key;
+            this.cost = cost;
+        }
+    }
+
+    private static final LongAdder sink = new LongAdder(); // Keeps the JIT from removing the work
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxWorkers = args.length > 0 ? Integer.parseInt(args[0]) : cores;
+        int jobCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Job[] jobs = createJobs(jobCount);
+
+        System.out.println("Consumer scaling benchmark: " + jobCount + " jobs, " + cores + " cores.");
+        List<String> labels = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        for (int workers = 1; workers <= maxWorkers; workers++) {
+            run(jobs, workers, false); // Warm-up
+            long[] threads = run(jobs, workers, false);
+            run(jobs, workers, true);
+            long[] pool = run(jobs, workers, true);
+            labels.add(String.format("%2d shared-queue threads", workers));
+            rates.add(jobCount / (threads[0] / 1e9));
+            labels.add(String.format("%2d pool workers", workers));
+            rates.add(jobCount / (pool[0] / 1e9));
+            System.out.printf("%2d workers: threads %,.0f jobs/s (%d out of order), pool %,.0f jobs/s (%d out of order)%n",
+                    workers, rates.get(rates.size() - 2), threads[1], rates.get(rates.size() - 1), pool[1]);
+        }
+
+        System.out.println();
+        double best = rates.stream().mapToDouble(Double::doubleValue).max().orElse(1);
+        for (int i = 0; i < labels.size(); i++) {
+            int width = (int) Math.round(rates.get(i) / best * CHART_WIDTH);
+            System.out.printf("%-24s |%-" + CHART_WIDTH + "s| %,10.0f jobs/s%n",
+                    labels.get(i), "#".repeat(Math.max(1, width)), rates.get(i));
+        }
+    }
+
+    private static Job[] createJobs(int count) {
+        Random random = new Random(42);
+        int[] nextSequence = new int[KEYS];
+        Job[] jobs = new Job[count];
+        for (int i = 0; i < count; i++) {
+            int key = random.nextDouble() < KEYED_FRACTION ? random.nextInt(KEYS) : -1;
+            int sequence = key < 0 ? 0 : nextSequence[key]++;
+            int cost = random.nextInt(EXPENSIVE_EVERY) == 0 ? EXPENSIVE_COST : 1;
+            jobs[i] = new Job(sequence, key, cost);
+        }
+        return jobs;
+    }
+
+    /**
+     * Feeds all jobs through a queue to the given number of workers.
+     *
+     * @return The elapsed nanoseconds and the number of keyed jobs handled out of order.
+     */
+    private static long[] run(Job[] jobs, int workers, boolean usePool) throws InterruptedException {
+        ItemQueue<Job> queue = ItemQueue.of(new ArrayBlockingQueue<>(1024));
+        CountDownLatch done = new CountDownLatch(jobs.length);
+        AtomicIntegerArray lastSequence = new AtomicIntegerArray(KEYS);
+        for (int key = 0; key < KEYS; key++) {
+            lastSequence.set(key, -1);
+        }
+        LongAdder outOfOrder = new LongAdder();
+        java.util.function.Consumer<Job> handler = job -> {
+            work(job.cost);
+            if (job.key >= 0 && lastSequence.getAndSet(job.key, job.sequence) > job.sequence) {
+                outOfOrder.increment();
+            }
+            done.countDown();
+        };
+
+        ConsumerPool<Job> pool = null;
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        if (usePool) {
+            pool = new ConsumerPool<>(queue, handler, job -> job.key < 0 ? null : job.key, workers);
+        } else {
+            for (int i = 0; i < workers; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        while (true) {
+                            handler.accept(queue.take());
+                        }
+                    } catch (InterruptedException e) {
+                        // Interrupted at the end of the run
+                    }
+                }, "SharedQueueConsumer-" + i);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        for (Job job : jobs) {
+            queue.put(job);
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        if (pool != null) {
+            pool.close();
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join();
+        }
+        return new long[] {elapsed, outOfOrder.sum()};
+    }
+
+    /**
+     * Burns CPU in proportion to the cost.
+     */
+    private static void work(int cost) {
+        long x = cost;
+        for (int i = 0; i < cost * WORK_UNIT_ITERATIONS; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        sink.add(x);
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a ring of pre-allocated, reusable {@link ItemEvent}s for passing items from
+ * producers to consumers without allocating anything per item.
+ * <p>
+ * A {@link RingBufferQueue} is lock-free, but it still moves references: every item is a new
+ * object (with a name string), created by the producer and garbage once the consumer is done.
+ * Here the producer publishes a {@code long} id, which is written into the event already in
+ * the slot, and the consumer reads the event in place through a {@link Handler}:
+ * </p>
+ * <ul>
+ *   <li>Slots, sequences and events are allocated once, when the ring is created.</li>
+ *   <li>The claim protocol is the one of {@link RingBufferQueue}: per-slot sequences, cursors
+ *       in {@link PaddedSequence}s, a compare-and-set per claim (or per batch), and a
+ *       {@link WaitStrategy} when the ring is full or empty.</li>
+ *   <li>A consumer's handler runs while the consumer owns the slot; the slot is handed back to
+ *       the producers when the handler returns. Handlers copy the primitive fields they need.</li>
+ * </ul>
+ * <p>
+ * See {@link AllocationBenchmark} for the bytes allocated per item compared to the
+ * {@link Item} path.
+ * </p>
+ */
+public class EventRing {
+
+    /**
+     * Reads one event while the consumer owns its slot.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Handles an event. The event is reused after this method returns, so it must not be kept.
+         *
+         * @param event The event in the claimed slot.
+         */
+        void onEvent(ItemEvent event);
+    }
+
+    private final ItemEvent[] events; // Pre-allocated, one per slot, reused every lap
+    private final AtomicLongArray sequences; // Per-slot turn markers, as in RingBufferQueue
+    private final int mask; // capacity - 1, maps a position to its slot
+    private final int capacity; // Number of slots, a power of two
+    private final WaitStrategy waitStrategy; // How to wait when the ring is full or empty
+    private final PaddedSequence tail = new PaddedSequence(0); // Next position a producer will claim
+    private final PaddedSequence head = new PaddedSequence(0); // Next position a consumer will claim
+
+    /**
+     * Constructs an event ring and allocates all its events.
+     *
+     * @param requestedCapacity The minimum capacity; rounded up to the next power of two.
+     * @param waitStrategy The strategy used by threads waiting for space or events.
+     */
+    public EventRing(int requestedCapacity, WaitStrategy waitStrategy) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.events = new ItemEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new ItemEvent();
+            sequences.set(i, i); // Slot i is free for the producer at position i
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the number of slots in the ring.
+     *
+     * @return The capacity, a power of two.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Publishes an item, waiting for a free slot if the ring is full.
+     *
+     * @param id The item number, or {@link ItemEvent#POISON_ID}.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void publish(long id) throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index].set(id, System.nanoTime());
+                    sequences.set(index, position + 1); // Publish: the event is now visible to consumers
+                    return;
+                }
+            } else if (sequence < position) {
+                attempt = await(attempt); // The slot still holds an event from the previous lap: full
+            }
+        }
+    }
+
+    /**
+     * Publishes an item if a slot is free, without waiting.
+     *
+     * @param id The item number, or {@link ItemEvent#POISON_ID}.
+     * @return {@code true} if it was published, {@code false} if the ring is full.
+     */
+    public boolean tryPublish(long id) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index].set(id, System.nanoTime());
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false; // Full
+            }
+        }
+    }
+
+    /**
+     * Publishes the consecutive ids {@code firstId .. firstId + count - 1}, claiming as many
+     * free slots as possible with each compare-and-set.
+     *
+     * @param firstId The first item number.
+     * @param count The number of items.
+     * @throws InterruptedException If interrupted while waiting for space.
+     */
+    public void publishRange(long firstId, int count) throws InterruptedException {
+        int offset = 0;
+        int attempt = 0;
+        while (offset < count) {
+            long position = tail.get();
+            int free = 0;
+            int wanted = count - offset;
+            while (free < wanted && sequences.get((int) (position + free) & mask) == position + free) {
+                free++;
+            }
+            if (free == 0) {
+                if (sequences.get((int) position & mask) < position) {
+                    attempt = await(attempt);
+                }
+                continue;
+            }
+            if (tail.compareAndSet(position, position + free)) { // One claim for the whole run
+                long now = System.nanoTime();
+                for (int i = 0; i < free; i++) {
+                    int index = (int) (position + i) & mask;
+                    events[index].set(firstId + offset + i, now);
+                    sequences.set(index, position + i + 1);
+                }
+                offset += free;
+                attempt = 0;
+            }
+        }
+    }
+
+    /**
+     * Waits for the next event and passes it to the handler.
+     *
+     * @param handler Reads the event while this consumer owns its slot.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void take(Handler handler) throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    consume(index, position, handler);
+                    return;
+                }
+            } else if (sequence < position + 1) {
+                attempt = await(attempt); // Nothing published at this position yet: empty
+            }
+        }
+    }
+
+    /**
+     * Waits up to the timeout for the next event and passes it to the handler.
+     *
+     * @param handler Reads the event while this consumer owns its slot.
+     * @param timeout How long to wait.
+     * @param unit The unit of {@code timeout}.
+     * @return {@code true} if an event was handled, {@code false} if the time ran out.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean poll(Handler handler, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    consume(index, position, handler);
+                    return true;
+                }
+            } else if (sequence < position + 1) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                attempt = await(attempt);
+            }
+        }
+    }
+
+    /**
+     * Passes up to {@code maxEvents} published events to the handler without waiting,
+     * claiming the whole run with one compare-and-set. If the handler throws, the slots of
+     * the run it did not get to are handed back too (their events are dropped), so the
+     * producers are never left waiting on a slot nobody will free.
+     *
+     * @param handler Reads each event while this consumer owns its slot.
+     * @param maxEvents The most events to handle.
+     * @return The number of events handled, possibly 0.
+     */
+    public int drain(Handler handler, int maxEvents) {
+        while (true) {
+            long position = head.get();
+            int available = 0;
+            while (available < maxEvents
+                    && sequences.get((int) (position + available) & mask) == position + available + 1) {
+                available++;
+            }
+            if (available == 0) {
+                return 0;
+            }
+            if (head.compareAndSet(position, position + available)) {
+                int consumed = 0;
+                try {
+                    while (consumed < available) {
+                        long claimed = position + consumed++; // Counted first: consume() frees it even if it throws
+                        consume((int) claimed & mask, claimed, handler);
+                    }
+                } finally {
+                    for (long rest = position + consumed; rest < position + available; rest++) {
+                        sequences.set((int) rest & mask, rest + capacity); // Only left over if the handler threw
+                    }
+                }
+                return available;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events published but not yet consumed.
+     *
+     * @return The approximate size.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Runs the handler on a claimed slot and hands the slot back to the producers, even if the handler throws.
+     */
+    private void consume(int index, long position, Handler handler) {
+        try {
+            handler.onEvent(events[index]);
+        } finally {
+            sequences.set(index, position + capacity); // Free for the producer one lap later
+        }
+    }
+
+    /**
+     * Waits once according to the wait strategy, honouring interruption.
+     *
+     * @return The next attempt number.
+     */
+    private int await(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waitStrategy.idle(attempt);
+        return attempt + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "EventRing(" + waitStrategy + ")";
+    }
+}
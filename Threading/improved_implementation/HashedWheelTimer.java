@@ -0,0 +1,283 @@
+package io.github.hridoy100;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class runs delayed and periodic tasks on a hashed timing wheel, so that thousands of
+ * timers share one ticking thread and a small worker pool instead of each sleeping on a
+ * thread of its own.
+ * <p>
+ * The wheel is a ring of buckets, one per tick. A task due in {@code n} ticks is put in the
+ * bucket {@code n} positions ahead of the current one, with a count of how many full turns
+ * of the wheel it must wait first. Every tick the ticker thread wakes up once, looks only at
+ * the current bucket, and hands the tasks that are due to the workers. Scheduling and
+ * cancelling are O(1); the cost is that a task fires up to one tick late.
+ * </p>
+ * <ul>
+ *   <li>New tasks are added to a lock-free queue and moved into their bucket by the ticker,
+ *       so the buckets themselves are only ever touched by one thread.</li>
+ *   <li>Cancelled tasks are left in their bucket and dropped when the ticker reaches them.</li>
+ *   <li>Periodic tasks are rescheduled from their planned start time, not from when they
+ *       actually ran, so lateness does not add up from one run to the next.</li>
+ *   <li>How late each task starts compared to its planned time is recorded in a
+ *       {@link LatencyHistogram}, see {@link #getDrift()}.</li>
+ * </ul>
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos; // Duration of one tick
+    private final List<ArrayDeque<Timeout>> wheel; // Buckets, only used by the ticker thread
+    private final int mask; // wheel.size() - 1, maps a tick to its bucket
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>(); // Scheduled but not yet in a bucket
+    private final ExecutorService workers; // Runs the tasks that are due
+    private final Thread ticker; // Advances the wheel once per tick
+    private final long startNanos = System.nanoTime(); // Deadlines are measured from here
+    private final LatencyHistogram drift = new LatencyHistogram(); // Planned vs. actual start times
+    private final AtomicInteger pending = new AtomicInteger(); // Scheduled tasks not yet finished or dropped
+    private final LongAdder runs = new LongAdder(); // Task executions
+    private final LongAdder cancelled = new LongAdder(); // Tasks dropped after cancel()
+    private long tick = 0; // The next tick to process; only used by the ticker thread
+    private volatile boolean running = true; // Flag to control the ticker thread's loop
+
+    /**
+     * A handle to a scheduled task, used to cancel it.
+     */
+    public final class Timeout {
+
+        private final Runnable task; // The work to run
+        private final long periodNanos; // 0 for a one-shot task
+        private long deadlineNanos; // Planned start, relative to the timer's start
+        private long remainingRounds; // Full turns of the wheel to wait before the deadline's bucket counts
+        private volatile boolean cancelled; // Set by cancel()
+
+        private Timeout(Runnable task, long deadlineNanos, long periodNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        /**
+         * Cancels the task. A periodic task that is currently running finishes this run but is not run again.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Returns whether {@link #cancel()} was called.
+         *
+         * @return True if the task was cancelled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Constructs a timer and starts its ticker and worker threads (all daemon threads).
+     *
+     * @param tickDuration The wheel's resolution; tasks fire up to this much late.
+     * @param unit The unit of {@code tickDuration}.
+     * @param wheelSize The number of buckets, rounded up to a power of two. More buckets mean
+     *                  fewer tasks to skip over per tick when delays are long.
+     * @param workerThreads The number of threads that run the tasks.
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, int workerThreads) {
+        if (tickDuration <= 0 || wheelSize < 1 || wheelSize > (1 << 20) || workerThreads < 1) {
+            throw new IllegalArgumentException("Need a positive tick, 1 to 2^20 buckets and at least one worker");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int buckets = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.mask = buckets - 1;
+        this.wheel = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Timer-Worker-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker = new Thread(this::runTicker, "Timer-Ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Runs a task once after a delay.
+     *
+     * @param task The task to run.
+     * @param delay The delay before it runs.
+     * @param unit The unit of {@code delay}.
+     * @return A handle to cancel the task.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return add(new Timeout(task, elapsedNanos() + unit.toNanos(delay), 0));
+    }
+
+    /**
+     * Runs a task periodically: first after {@code initialDelay}, then every {@code period}
+     * after that first planned start, until it is cancelled or throws an exception. Runs of
+     * the same task never overlap; a run that overruns its period delays the next one.
+     *
+     * @param task The task to run.
+     * @param initialDelay The delay before the first run.
+     * @param period The time between planned starts.
+     * @param unit The unit of {@code initialDelay} and {@code period}.
+     * @return A handle to cancel the task.
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        return add(new Timeout(task, elapsedNanos() + unit.toNanos(initialDelay), unit.toNanos(period)));
+    }
+
+    private Timeout add(Timeout timeout) {
+        if (!running) {
+            throw new RejectedExecutionException("The timer is closed");
+        }
+        pending.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    private long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * The main loop of the ticker thread: wait for the end of the tick, then process its bucket.
+     */
+    private void runTicker() {
+        while (running) {
+            long tickEnd = (tick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = tickEnd - elapsedNanos()) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) {
+                    return;
+                }
+            }
+            transferNewTimeouts();
+            expireBucket(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * Moves newly scheduled tasks into the bucket of the tick in which they are due.
+     */
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                drop();
+                continue;
+            }
+            // The bucket of tick i is processed at (i + 1) * tickNanos; a deadline already past goes in the current one
+            long dueTick = Math.max(tick, (timeout.deadlineNanos + tickNanos - 1) / tickNanos - 1);
+            timeout.remainingRounds = (dueTick - tick) / wheel.size();
+            wheel.get((int) (dueTick & mask)).add(timeout);
+        }
+    }
+
+    /**
+     * Hands every task in the bucket that is due in this turn of the wheel to the workers.
+     */
+    private void expireBucket(ArrayDeque<Timeout> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Timeout timeout = bucket.poll();
+            if (timeout.cancelled) {
+                drop();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout); // Due in a later turn of the wheel
+            } else {
+                try {
+                    workers.execute(() -> runTask(timeout));
+                } catch (RejectedExecutionException e) {
+                    return; // Closed while this bucket was being processed
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a due task on a worker thread and reschedules it if it is periodic.
+     */
+    private void runTask(Timeout timeout) {
+        if (timeout.cancelled) {
+            drop();
+            return;
+        }
+        drift.record(elapsedNanos() - timeout.deadlineNanos);
+        runs.increment();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Timer task failed and will not run again: " + e);
+            timeout.cancel();
+        }
+        if (timeout.periodNanos > 0 && !timeout.cancelled && running) {
+            timeout.deadlineNanos += timeout.periodNanos; // From the planned start, so lateness doesn't accumulate
+            newTimeouts.add(timeout);
+        } else if (timeout.cancelled) {
+            drop();
+        } else {
+            pending.decrementAndGet();
+        }
+    }
+
+    private void drop() {
+        cancelled.increment();
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Returns how late tasks started compared to their planned time.
+     *
+     * @return The lateness distribution.
+     */
+    public LatencyHistogram getDrift() {
+        return drift;
+    }
+
+    /**
+     * Returns the number of scheduled tasks that have not finished or been dropped yet.
+     *
+     * @return The number of pending tasks; a periodic task counts once until it stops.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the ticker; tasks that are due later never run. Tasks already handed to the
+     * workers are allowed to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+        workers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HashedWheelTimer(tick %dms, %d buckets): %d pending, %d runs, %d cancelled, start drift %s",
+                TimeUnit.NANOSECONDS.toMillis(tickNanos), wheel.size(), pending.get(), runs.sum(), cancelled.sum(), drift);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.hridoy100;
+
+/**
+ * This class is an element passed from a {@link Producer} to a {@link Consumer}.
+ * Besides its name it carries the time it was created, so the consumer can measure how
+ * long the item spent between being produced and being handled (end-to-end latency).
+ * A numbered item only stores its number; the name is built when it is printed.
+ * <p>
+ * {@link #POISON} is a marker rather than an item: a consumer that takes it stops, after
+ * handling everything that was queued before it.
+ * </p>
+ */
+public final class Item {
+
+    /** The poison pill: put one in the queue per consumer to stop them once the queue is drained. */
+    public static final Item POISON = new Item("<poison pill>");
+
+    private final String name; // The item's display name, or null for a numbered item
+    private final long id; // The item number of a numbered item, e.g. 7 for "cake-7"
+    private final long createdNanos; // System.nanoTime() when the item was produced
+
+    /**
+     * Constructs an item stamped with the current time.
+     *
+     * @param name The item's display name.
+     */
+    public Item(String name) {
+        this.name = name;
+        this.id = -1;
+        this.createdNanos = System.nanoTime();
+    }
+
+    /**
+     * Constructs a numbered item stamped with the current time. Unlike {@code new Item("cake-" + id)}
+     * no string is built unless the item is printed.
+     *
+     * @param id The item number.
+     */
+    public Item(long id) {
+        this.name = null;
+        this.id = id;
+        this.createdNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the time the item was created, as a {@link System#nanoTime()} value.
+     *
+     * @return The creation time in nanoseconds.
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name : "cake-" + id;
+    }
+}
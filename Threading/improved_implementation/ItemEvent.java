@@ -0,0 +1,54 @@
+package io.github.hridoy100;
+
+/**
+ * This class is a reusable slot in an {@link EventRing}: the primitive counterpart of an
+ * {@link Item}. The ring allocates one per slot up front; a producer overwrites the fields
+ * in place instead of creating an object per item, and a consumer reads them while it holds
+ * the slot. A consumer must copy what it needs and must not keep the event itself, since
+ * the slot is reused as soon as the consumer's handler returns.
+ */
+public final class ItemEvent {
+
+    /** The id a producer publishes to stop one consumer, like {@link Item#POISON}. */
+    public static final long POISON_ID = -1;
+
+    private long id; // The item number, e.g. 7 for "cake-7"
+    private long createdNanos; // System.nanoTime() when the item was published
+
+    /**
+     * Overwrites the event's fields; called by the {@link EventRing} while the producer owns the slot.
+     *
+     * @param id The item number.
+     * @param createdNanos The creation time in nanoseconds.
+     */
+    void set(long id, long createdNanos) {
+        this.id = id;
+        this.createdNanos = createdNanos;
+    }
+
+    /**
+     * Returns the item number.
+     *
+     * @return The id, or {@link #POISON_ID} for a poison pill.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the time the item was published, as a {@link System#nanoTime()} value.
+     *
+     * @return The creation time in nanoseconds.
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Builds the item's display name; this allocates, so it is meant for logging, not for the hot path.
+     */
+    @Override
+    public String toString() {
+        return id == POISON_ID ? "<poison pill>" : "cake-" + id;
+    }
+}
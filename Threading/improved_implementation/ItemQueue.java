@@ -0,0 +1,130 @@
+package io.github.hridoy100;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This interface is the queue layer between {@link Producer}s and {@link Consumer}s.
+ * It contains only the operations the producer-consumer examples need, so that a
+ * {@link BlockingQueue} (via {@link #of(BlockingQueue)}) and the lock-free
+ * {@link RingBufferQueue} can be swapped without touching the producer or consumer code.
+ *
+ * @param <E> The type of element held in the queue.
+ */
+public interface ItemQueue<E> {
+
+    /**
+     * Inserts an element, waiting for space if the queue is full.
+     *
+     * @param item The element to insert.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void put(E item) throws InterruptedException;
+
+    /**
+     * Inserts an element if there is space, without waiting.
+     *
+     * @param item The element to insert.
+     * @return {@code true} if it was inserted, {@code false} if the queue is full.
+     */
+    boolean offer(E item);
+
+    /**
+     * Inserts all elements in order, waiting for space as needed. Implementations may
+     * claim space for several elements at once.
+     *
+     * @param items The elements to insert.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void putAll(List<? extends E> items) throws InterruptedException;
+
+    /**
+     * Removes and returns the head of the queue, waiting for an element if it is empty.
+     *
+     * @return The head of the queue.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    E take() throws InterruptedException;
+
+    /**
+     * Removes and returns the head of the queue, waiting up to the given time for an element.
+     *
+     * @param timeout How long to wait before giving up.
+     * @param unit The unit of {@code timeout}.
+     * @return The head of the queue, or {@code null} if none arrived in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    E poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes up to {@code maxElements} available elements without waiting and adds them
+     * to the given collection.
+     *
+     * @param target The collection to add the elements to.
+     * @param maxElements The maximum number of elements to remove.
+     * @return The number of elements removed, possibly 0.
+     */
+    int drainTo(Collection<? super E> target, int maxElements);
+
+    /**
+     * Returns the number of elements currently in the queue (an estimate under concurrency).
+     *
+     * @return The current size.
+     */
+    int size();
+
+    /**
+     * Adapts a {@link BlockingQueue} to this interface.
+     *
+     * @param queue The queue to adapt.
+     * @param <E> The type of element held in the queue.
+     * @return An {@link ItemQueue} view of the queue.
+     */
+    static <E> ItemQueue<E> of(BlockingQueue<E> queue) {
+        return new ItemQueue<E>() {
+            @Override
+            public void put(E item) throws InterruptedException {
+                queue.put(item);
+            }
+
+            @Override
+            public boolean offer(E item) {
+                return queue.offer(item);
+            }
+
+            @Override
+            public void putAll(List<? extends E> items) throws InterruptedException {
+                for (E item : items) {
+                    queue.put(item);
+                }
+            }
+
+            @Override
+            public E take() throws InterruptedException {
+                return queue.take();
+            }
+
+            @Override
+            public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+                return queue.poll(timeout, unit);
+            }
+
+            @Override
+            public int drainTo(Collection<? super E> target, int maxElements) {
+                return queue.drainTo(target, maxElements);
+            }
+
+            @Override
+            public int size() {
+                return queue.size();
+            }
+
+            @Override
+            public String toString() {
+                return queue.getClass().getSimpleName();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * This class records a distribution of durations in power-of-two microsecond buckets.
+ * Recording is a single atomic increment, so many threads can record concurrently without
+ * a lock, and memory use is fixed no matter how many values are recorded. Percentiles are
+ * reported as the upper bound of the bucket they fall in, i.e. to within a factor of two.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40; // Bucket i holds values below 2^i microseconds; 2^39 us is ~6 days
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1_000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return The count.
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket holding the percentile, in microseconds, or 0 if nothing was recorded.
+     */
+    public long percentileMicros(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Returns the largest recorded duration.
+     *
+     * @return The maximum in microseconds.
+     */
+    public long maxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count()
+                + ", p50<=" + percentileMicros(50) + "us"
+                + ", p90<=" + percentileMicros(90) + "us"
+                + ", p99<=" + percentileMicros(99) + "us"
+                + ", max=" + maxMicros() + "us";
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class shuts an application down in ordered phases, each step bounded by a deadline.
+ * <p>
+ * Components register a {@link Step} for one of three {@link Phase}s. {@link #shutdown()}
+ * runs every STOP_ACCEPTING step (no new work comes in), then every DRAIN step (work already
+ * accepted is finished, until the drain deadline), then every CLOSE step (whatever is left is
+ * interrupted or closed, within a short grace period). Steps of the same phase run in
+ * registration order. A step that fails or misses its deadline doesn't stop the later ones.
+ * </p>
+ * <p>
+ * Shutdown happens once: later or concurrent calls wait for the first one and return its
+ * {@link Report}, which lists how long each step took and whether it finished cleanly.
+ * </p>
+ */
+public class LifecycleManager {
+
+    /** The shutdown phases, in the order they run. */
+    public enum Phase { STOP_ACCEPTING, DRAIN, CLOSE }
+
+    /**
+     * One shutdown action of a component.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * Performs the action.
+         *
+         * @param deadlineNanos The {@link System#nanoTime()} by which the step should be done.
+         * @return {@code true} if it finished cleanly, {@code false} if it gave up at the deadline.
+         * @throws Exception If the step failed.
+         */
+        boolean run(long deadlineNanos) throws Exception;
+    }
+
+    private static final long CLOSE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1); // Time allowed for the CLOSE phase
+
+    private final String name; // Used in the report and for the shutdown hook thread
+    private final long drainTimeoutNanos; // Time allowed for STOP_ACCEPTING and DRAIN together
+    private final List<Registration> registrations = new ArrayList<>();
+    private final CountDownLatch terminated = new CountDownLatch(1); // Released when shutdown() has finished
+    private Report report; // Set by the first shutdown()
+
+    /**
+     * Constructs a new LifecycleManager.
+     *
+     * @param name The name of the application, used in the report.
+     * @param drainTimeout How long stopping and draining may take before the CLOSE phase starts.
+     * @param unit The unit of {@code drainTimeout}.
+     */
+    public LifecycleManager(String name, long drainTimeout, TimeUnit unit) {
+        this.name = name;
+        this.drainTimeoutNanos = unit.toNanos(drainTimeout);
+    }
+
+    private static final class Registration {
+        final Phase phase;
+        final String name;
+        final Step step;
+
+        Registration(Phase phase, String name, Step step) {
+            this.phase = phase;
+            this.name = name;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Registers a shutdown step.
+     *
+     * @param phase The phase to run the step in.
+     * @param name A description of the step, used in the report.
+     * @param step The action.
+     * @return This manager, for chaining.
+     */
+    public synchronized LifecycleManager register(Phase phase, String name, Step step) {
+        if (report != null) {
+            throw new IllegalStateException(this.name + " is already shut down");
+        }
+        registrations.add(new Registration(phase, name, step));
+        return this;
+    }
+
+    /**
+     * Runs {@link #shutdown()} when the JVM is asked to exit, e.g. on Ctrl+C or SIGTERM.
+     */
+    public void installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!isShutdown()) {
+                System.out.println(name + " is shutting down...");
+                System.out.println(shutdown());
+            }
+        }, name + "-Shutdown"));
+    }
+
+    /**
+     * Returns whether shutdown has finished.
+     *
+     * @return {@code true} once {@link #shutdown()} has completed.
+     */
+    public boolean isShutdown() {
+        return terminated.getCount() == 0;
+    }
+
+    /**
+     * Blocks until {@link #shutdown()} has completed, e.g. to keep a server's main thread alive.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Runs all registered steps, phase by phase.
+     *
+     * @return What each step did and how long it took.
+     */
+    public synchronized Report shutdown() {
+        if (report != null) {
+            return report;
+        }
+        long start = System.nanoTime();
+        long drainDeadline = start + drainTimeoutNanos;
+        List<StepResult> results = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            long deadline = phase == Phase.CLOSE ? System.nanoTime() + CLOSE_GRACE_NANOS : drainDeadline;
+            for (Registration registration : registrations) {
+                if (registration.phase == phase) {
+                    results.add(runStep(registration, deadline));
+                }
+            }
+        }
+        report = new Report(name, results, System.nanoTime() - start);
+        terminated.countDown();
+        return report;
+    }
+
+    private static StepResult runStep(Registration registration, long deadline) {
+        long start = System.nanoTime();
+        String outcome;
+        try {
+            outcome = registration.step.run(deadline) ? "done" : "deadline passed, forced";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore the interrupted status; later steps still run
+            outcome = "interrupted";
+        } catch (Exception e) {
+            outcome = "failed: " + e;
+        }
+        return new StepResult(registration.phase, registration.name, System.nanoTime() - start, outcome);
+    }
+
+    /**
+     * Returns the time left until a deadline, for passing to {@code awaitTermination}-style methods.
+     *
+     * @param deadlineNanos A {@link System#nanoTime()} value.
+     * @return The nanoseconds left; zero or negative once the deadline has passed.
+     */
+    public static long remainingNanos(long deadlineNanos) {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * The outcome of one shutdown step.
+     */
+    public static final class StepResult {
+        public final Phase phase;
+        public final String name;
+        public final long nanos;
+        public final String outcome;
+
+        StepResult(Phase phase, String name, long nanos, String outcome) {
+            this.phase = phase;
+            this.name = name;
+            this.nanos = nanos;
+            this.outcome = outcome;
+        }
+
+        public boolean isClean() {
+            return outcome.equals("done");
+        }
+    }
+
+    /**
+     * The outcome of a shutdown: every step's result and the total duration.
+     */
+    public static final class Report {
+        public final String name;
+        public final List<StepResult> steps;
+        public final long totalNanos;
+
+        Report(String name, List<StepResult> steps, long totalNanos) {
+            this.name = name;
+            this.steps = steps;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Returns whether every step finished cleanly.
+         *
+         * @return {@code true} if no step failed or missed its deadline.
+         */
+        public boolean isClean() {
+            return steps.stream().allMatch(StepResult::isClean);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%s shut down in %.0f ms (%s):",
+                    name, totalNanos / 1e6, isClean() ? "clean" : "forced"));
+            for (StepResult step : steps) {
+                text.append(String.format("%n  %-15s %-40s %7.0f ms  %s", step.phase, step.name, step.nanos / 1e6, step.outcome));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package io.github.hridoy100;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class demonstrates basic operations of the main thread in Java.
- * It shows how to get the current thread, change its name, and
- * introduce delays using {@code Thread.sleep()}.
+ * It shows how to get the current thread and change its name, and runs a countdown with a
+ * pause between steps. The pauses are scheduled on a {@link HashedWheelTimer} rather than
+ * spent in {@code Thread.sleep()}, so the main thread simply waits for the countdown to end.
  */
 public class MainThread {
 
@@ -18,22 +23,30 @@ public class MainThread {
         System.out.println("After name change: " + currentThread);
 
         System.out.println("Starting countdown in main thread:");
-        // Loop to demonstrate a countdown with a pause
-        for (int i = 10; i > 0; i--) {
-            System.out.println("Countdown: " + i);
-            try {
-                // Pause the execution of the current thread for 500 milliseconds
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                // This exception is thrown if another thread interrupts this thread while it's sleeping.
-                System.out.println("Main Thread was interrupted during sleep.");
-                // It's good practice to re-interrupt the current thread so that higher-level
-                // code can be aware that an interruption occurred.
-                Thread.currentThread().interrupt();
-                // Optionally, break the loop or handle the interruption as appropriate for the application.
-                break;
-            }
+        AtomicInteger remaining = new AtomicInteger(10);
+        CountDownLatch finished = new CountDownLatch(1);
+        try (HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64, 1)) {
+            // One step every 500 milliseconds; the timer reschedules from the planned time, so the pauses don't drift
+            timer.scheduleAtFixedRate(() -> {
+                int count = remaining.getAndDecrement();
+                if (count > 0) {
+                    System.out.println("Countdown: " + count);
+                }
+                if (count <= 1) {
+                    finished.countDown();
+                }
+            }, 0, 500, TimeUnit.MILLISECONDS);
+
+            // Block until the countdown is over instead of sleeping in a loop
+            finished.await();
+            System.out.println("Countdown timing: " + timer.getDrift());
+        } catch (InterruptedException e) {
+            // This exception is thrown if another thread interrupts this thread while it's waiting.
+            System.out.println("Main Thread was interrupted while waiting.");
+            // It's good practice to re-interrupt the current thread so that higher-level
+            // code can be aware that an interruption occurred.
+            Thread.currentThread().interrupt();
         }
         System.out.println("Main Thread finished countdown.");
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,146 @@
 package io.github.hridoy100;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.TimeUnit; // For Thread.sleep with TimeUnit
+import java.util.function.BooleanSupplier;
 
 /**
  * This class demonstrates the Producer-Consumer pattern using a {@link BlockingQueue}.
  * It sets up one producer and multiple consumer threads that interact with a shared queue.
+ * <p>
+ * The queue is chosen with {@code -Dpc.queue=array|ring|transfer} (default {@code array}):
+ * an {@link ArrayBlockingQueue}, a {@link RingBufferQueue} waiting with
+ * {@code -Dpc.waitStrategy=BUSY_SPIN|YIELDING|PARKING} (default {@code PARKING}), or an
+ * unbounded {@link LinkedTransferQueue}. See {@link QueueBenchmark} for their throughput.
+ * {@code -Dpc.queue=events} instead passes item numbers through an {@link EventRing} of
+ * pre-allocated events, so neither side allocates per item (threads only, no timer or pool).
+ * See {@link AllocationBenchmark} for the bytes allocated per item.
+ * </p>
+ * <p>
+ * {@code -Dpc.batchSize=N} makes the producer publish and the consumers drain up to N items per
+ * queue call, the consumers waiting at most {@code -Dpc.lingerMillis} (default 100) for a batch to
+ * fill. The {@link PipelineMetrics} printed at the end show items per queue call and the
+ * end-to-end latency distribution.
+ * </p>
+ * <p>
+ * {@code -Dpc.consumers=pool} replaces the three consumer threads with a {@link ConsumerPool},
+ * a work-stealing pool with one worker per available processor. See {@link ConsumerPoolBenchmark}
+ * for how it scales.
+ * </p>
+ * <p>
+ * {@code -Dpc.timer=true} runs the producer and consumers as tasks on one
+ * {@link HashedWheelTimer} (a ticker thread and two workers) instead of a thread each that
+ * sleeps between items. See {@link TimerBenchmark} for how far that scales.
+ * </p>
+ * <p>
+ * At the end (or on Ctrl+C) a {@link LifecycleManager} shuts the pipeline down in phases:
+ * the producer is stopped, the consumers drain what is still queued (a poison pill per
+ * consumer, queued behind the last item) for up to {@code -Dpc.drainMillis} (default 5000),
+ * and any consumer still busy after that is interrupted. The report shows how long each
+ * phase took.
+ * </p>
  */
 public class PCBlockingQueue {
 
     private static final int QUEUE_CAPACITY = 4; // The maximum number of elements the queue can hold
     private static final long SIMULATION_DURATION_SECONDS = 10; // How long the simulation should run
+    private static final long CONSUME_MILLIS = 1000; // Simulated processing time per item in the consumer pool
+
+    /**
+     * Creates the shared queue selected by name.
+     *
+     * @param type One of {@code array}, {@code ring} or {@code transfer}.
+     * @return The queue.
+     */
+    static ItemQueue<Item> createQueue(String type) {
+        switch (type) {
+            case "array":
+                return ItemQueue.of(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+            case "ring":
+                WaitStrategy waitStrategy = WaitStrategy.valueOf(System.getProperty("pc.waitStrategy", "PARKING"));
+                return new RingBufferQueue<>(QUEUE_CAPACITY, waitStrategy);
+            case "transfer":
+                return ItemQueue.of(new LinkedTransferQueue<>()); // Unbounded: the capacity does not apply
+            default:
+                throw new IllegalArgumentException("Unknown queue type: " + type + " (expected array, ring or transfer)");
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
     public static void main(String[] args) {
         System.out.println("Producer-Consumer pattern demonstration using BlockingQueue started.");
 
-        // Create a BlockingQueue with a fixed capacity
-        BlockingQueue<String> sharedQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
-        System.out.println("Shared BlockingQueue created with capacity: " + QUEUE_CAPACITY);
+        // Create the shared queue (or event ring) with a fixed capacity
+        String queueType = System.getProperty("pc.queue", "array");
+        EventRing ring = null;
+        ItemQueue<Item> sharedQueue = null;
+        if (queueType.equals("events")) {
+            if (Boolean.getBoolean("pc.timer") || System.getProperty("pc.consumers", "threads").equals("pool")) {
+                throw new IllegalArgumentException("pc.queue=events runs on consumer threads; drop pc.timer and pc.consumers=pool");
+            }
+            ring = new EventRing(QUEUE_CAPACITY, WaitStrategy.valueOf(System.getProperty("pc.waitStrategy", "PARKING")));
+        } else {
+            sharedQueue = createQueue(queueType);
+        }
+        System.out.println("Shared queue " + (ring != null ? ring : sharedQueue) + " created with capacity: " + QUEUE_CAPACITY);
+
+        int batchSize = Integer.getInteger("pc.batchSize", 1);
+        long lingerMillis = Long.getLong("pc.lingerMillis", 100);
+        PipelineMetrics metrics = new PipelineMetrics(); // Shared by all producers and consumers
+        System.out.println("Batch size: " + batchSize + ", linger: " + lingerMillis + " ms");
+        HashedWheelTimer timer = Boolean.getBoolean("pc.timer")
+                ? new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512, 2) // Shared by the producer and consumers
+                : null;
 
         // Create and start producer threads
-        Producer producer1 = new Producer(sharedQueue, "Producer-1");
+        Producer producer1 = ring != null
+                ? new Producer(ring, "Producer-1", batchSize, metrics)
+                : new Producer(sharedQueue, "Producer-1", batchSize, metrics, timer);
         // If Producer's constructor starts the thread, no need to do it here.
         // If not, you would do: new Thread(producer1, "Producer-1-Thread").start();
 
-        // Create and start consumer threads
-        Consumer consumer1 = new Consumer(sharedQueue, "Consumer-1");
-        Consumer consumer2 = new Consumer(sharedQueue, "Consumer-2");
-        Consumer consumer3 = new Consumer(sharedQueue, "Consumer-3");
-        // Similar to producer, if Consumer's constructor starts the thread, no need here.
+        // Create and start consumer threads, or a work-stealing pool sized to the processors
+        List<Consumer> consumers = new ArrayList<>();
+        ConsumerPool<Item> consumerPool = null;
+        if (System.getProperty("pc.consumers", "threads").equals("pool")) {
+            int workers = Runtime.getRuntime().availableProcessors();
+            consumerPool = new ConsumerPool<>(sharedQueue, item -> {
+                metrics.recordHandled(item);
+                System.out.println(Thread.currentThread().getName() + " consumed: " + item);
+                sleepQuietly(CONSUME_MILLIS); // Simulate processing time
+            }, null, workers, workers, metrics::recordTake); // One item in flight per worker, like a consumer thread
+            System.out.println("Consumer pool started with " + consumerPool.getParallelism() + " workers.");
+        } else if (ring != null) {
+            consumers.add(new Consumer(ring, "Consumer-1", batchSize, metrics));
+            consumers.add(new Consumer(ring, "Consumer-2", batchSize, metrics));
+            consumers.add(new Consumer(ring, "Consumer-3", batchSize, metrics));
+        } else {
+            consumers.add(new Consumer(sharedQueue, "Consumer-1", batchSize, lingerMillis, metrics, timer));
+            consumers.add(new Consumer(sharedQueue, "Consumer-2", batchSize, lingerMillis, metrics, timer));
+            consumers.add(new Consumer(sharedQueue, "Consumer-3", batchSize, lingerMillis, metrics, timer));
+            // Similar to producer, if Consumer's constructor starts the thread, no need here.
+        }
+
+        LifecycleManager lifecycle = new LifecycleManager("Producer-Consumer pipeline",
+                Long.getLong("pc.drainMillis", 5000), TimeUnit.MILLISECONDS);
+        EventRing eventRing = ring;
+        ItemQueue<Item> itemQueue = sharedQueue;
+        BooleanSupplier offerPoison = ring != null
+                ? () -> eventRing.tryPublish(ItemEvent.POISON_ID)
+                : () -> itemQueue.offer(Item.POISON);
+        registerShutdownSteps(lifecycle, sharedQueue, offerPoison, producer1, consumers, consumerPool, timer);
+        lifecycle.installShutdownHook(); // Drain on Ctrl+C too
 
         System.out.println("Producer and Consumer threads initialized. Running simulation for " + SIMULATION_DURATION_SECONDS + " seconds.");
 
@@ -40,20 +151,80 @@ public class PCBlockingQueue {
             System.err.println("Main thread interrupted during simulation.");
             Thread.currentThread().interrupt(); // Restore the interrupted status
         } finally {
-            // Signal all threads to stop gracefully
-            System.out.println("\nSimulation duration ended. Signaling threads to stop...");
-            producer1.stopProducer();
-            consumer1.stopConsumer();
-            consumer2.stopConsumer();
-            consumer3.stopConsumer();
-
-            // Give threads a moment to finish their current tasks and stop
-            try {
-                TimeUnit.SECONDS.sleep(2);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            System.out.println("\nSimulation duration ended. Shutting down...");
+            System.out.println(lifecycle.shutdown());
+            System.out.println("Pipeline metrics: " + metrics);
+            if (consumerPool != null) {
+                System.out.println(consumerPool);
+            }
+            if (timer != null) {
+                System.out.println(timer);
             }
             System.out.println("Producer-Consumer pattern demonstration finished.");
         }
     }
+
+    /**
+     * Registers the pipeline's shutdown: stop producing, drain the queue, then force whatever is left.
+     */
+    private static void registerShutdownSteps(LifecycleManager lifecycle, ItemQueue<Item> sharedQueue, BooleanSupplier offerPoison,
+                                              Producer producer, List<Consumer> consumers, ConsumerPool<Item> consumerPool,
+                                              HashedWheelTimer timer) {
+        lifecycle.register(LifecycleManager.Phase.STOP_ACCEPTING, "stop the producer", deadline -> {
+            producer.stopProducer();
+            return producer.awaitTermination(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        });
+
+        if (consumerPool != null) {
+            lifecycle.register(LifecycleManager.Phase.DRAIN, "drain the queue into the consumer pool", deadline -> {
+                while (sharedQueue.size() > 0 && LifecycleManager.remainingNanos(deadline) > 0) {
+                    TimeUnit.MILLISECONDS.sleep(10); // The feeder is still taking items
+                }
+                return consumerPool.shutdown(Math.max(0, LifecycleManager.remainingNanos(deadline)), TimeUnit.NANOSECONDS)
+                        && sharedQueue.size() == 0;
+            });
+            lifecycle.register(LifecycleManager.Phase.CLOSE, "close the consumer pool", deadline -> {
+                consumerPool.close();
+                return true;
+            });
+        } else {
+            lifecycle.register(LifecycleManager.Phase.DRAIN, "drain the queue with poison pills", deadline -> {
+                for (int i = 0; i < consumers.size(); i++) {
+                    // One pill per consumer, behind the items still queued; wait for room if it is full
+                    while (!offerPoison.getAsBoolean()) {
+                        if (LifecycleManager.remainingNanos(deadline) <= 0) {
+                            return false;
+                        }
+                        TimeUnit.MILLISECONDS.sleep(10);
+                    }
+                }
+                for (Consumer consumer : consumers) {
+                    if (!consumer.awaitTermination(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            lifecycle.register(LifecycleManager.Phase.CLOSE, "interrupt consumers still busy", deadline -> {
+                boolean drained = true;
+                for (Consumer consumer : consumers) {
+                    if (!consumer.awaitTermination(0, TimeUnit.NANOSECONDS)) {
+                        drained = false;
+                        consumer.stopConsumer();
+                    }
+                }
+                for (Consumer consumer : consumers) {
+                    consumer.awaitTermination(LifecycleManager.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+                }
+                return drained;
+            });
+        }
+
+        if (timer != null) {
+            lifecycle.register(LifecycleManager.Phase.CLOSE, "close the timer", deadline -> {
+                timer.close();
+                return true;
+            });
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package io.github.hridoy100;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * This class is a {@code long} counter that occupies a cache line of its own.
+ * The producer and consumer cursors of a {@link RingBufferQueue} are updated by different
+ * threads on different cores. Without padding they could share a 64-byte cache line, and
+ * every update by one thread would invalidate the line in the other thread's cache
+ * ("false sharing"). Seven unused longs on each side keep neighbouring data off the line.
+ * <p>
+ * The padding lives in superclasses because the JVM lays out superclass fields first and
+ * does not reorder fields across the class hierarchy.
+ * </p>
+ */
+public class PaddedSequence extends PaddedSequenceValue {
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15; // Padding after the value
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedSequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Constructs a sequence with the given initial value.
+     *
+     * @param initialValue The starting value.
+     */
+    public PaddedSequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /**
+     * Returns the current value with acquire semantics.
+     *
+     * @return The current value.
+     */
+    public long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Sets the value with release semantics; writes made before are visible to a thread
+     * that later reads this value with {@link #get()}.
+     *
+     * @param newValue The new value.
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * Atomically sets the value if it currently equals the expected value.
+     *
+     * @param expected The expected current value.
+     * @param newValue The new value.
+     * @return {@code true} if the value was updated.
+     */
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+}
+
+/** Padding before the value. */
+class PaddedSequenceLeft {
+    @SuppressWarnings("unused")
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+/** Holds the value between the two paddings. */
+class PaddedSequenceValue extends PaddedSequenceLeft {
+    protected volatile long value;
+}
@@ -0,0 +1,84 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects the metrics of a producer-consumer pipeline, shared by all its
+ * {@link Producer}s and {@link Consumer}s:
+ * <ul>
+ *   <li>items per queue call on each side. A take, poll or drainTo takes a blocking queue's
+ *       lock once, and so does every call on a {@link RingBufferQueue} (as one claim), so on the
+ *       consumer side this is the number of items moved per lock acquisition. On the producer
+ *       side a blocking queue's putAll still locks per item;</li>
+ *   <li>the end-to-end latency of each item, from creation by the producer until a consumer
+ *       handles it.</li>
+ * </ul>
+ */
+public class PipelineMetrics {
+
+    private final LongAdder producedItems = new LongAdder();
+    private final LongAdder producerCalls = new LongAdder(); // put/putAll calls
+    private final LongAdder consumedItems = new LongAdder();
+    private final LongAdder consumerCalls = new LongAdder(); // take/poll/drainTo calls
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Records one producer call on the queue.
+     *
+     * @param items The number of items it inserted.
+     */
+    public void recordPut(int items) {
+        producerCalls.increment();
+        producedItems.add(items);
+    }
+
+    /**
+     * Records one consumer call on the queue.
+     *
+     * @param items The number of items it removed, possibly 0 (e.g. a poll that timed out).
+     */
+    public void recordTake(int items) {
+        consumerCalls.increment();
+        consumedItems.add(items);
+    }
+
+    /**
+     * Records that a consumer has handled an item.
+     *
+     * @param item The item handled.
+     */
+    public void recordHandled(Item item) {
+        recordHandled(item.getCreatedNanos());
+    }
+
+    /**
+     * Records that a consumer has handled an item, given only its creation time, e.g. read from an {@link ItemEvent}.
+     *
+     * @param createdNanos The {@link System#nanoTime()} at which the item was produced.
+     */
+    public void recordHandled(long createdNanos) {
+        latency.record(System.nanoTime() - createdNanos);
+    }
+
+    /**
+     * Returns the end-to-end latency distribution.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private static String perCall(long items, long calls) {
+        return calls == 0 ? "n/a" : String.format("%.2f", (double) items / calls);
+    }
+
+    @Override
+    public String toString() {
+        return "produced " + producedItems.sum() + " items in " + producerCalls.sum() + " queue calls ("
+                + perCall(producedItems.sum(), producerCalls.sum()) + " items/call), consumed "
+                + consumedItems.sum() + " items in " + consumerCalls.sum() + " queue calls ("
+                + perCall(consumedItems.sum(), consumerCalls.sum()) + " items/call), end-to-end latency: "
+                + latency;
+    }
+}
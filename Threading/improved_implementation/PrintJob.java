@@ -0,0 +1,158 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A print job submitted to a {@link PrintSpooler}: who it belongs to, how many pages it has,
+ * how urgent it is, and how far it has got.
+ * <p>
+ * The job records when it was submitted, when its first page was printed and when it finished,
+ * so callers can see how long it waited for a printer and how long printing took.
+ * </p>
+ */
+public class PrintJob implements Comparable<PrintJob> {
+
+    /** The stages a job goes through. */
+    public enum State { QUEUED, PRINTING, COMPLETED, CANCELLED }
+
+    private final long id; // Submission order, used to break priority ties
+    private final String owner; // The person who submitted the job
+    private final int pages; // Total number of pages
+    private final int priority; // Higher values are printed first
+    private final long submittedNanos = System.nanoTime();
+    private final CountDownLatch finished = new CountDownLatch(1); // Released when the job completes or is cancelled
+    private volatile long turn; // Position among queued jobs of the same priority; a job re-queued for its next slice goes to the back
+    private volatile State state = State.QUEUED;
+    private volatile int pagesPrinted;
+    private volatile long firstPageNanos;
+    private volatile long finishedNanos;
+    private volatile boolean cancelRequested;
+
+    /**
+     * Constructs a new PrintJob. Jobs are created by {@link PrintSpooler#submit}.
+     *
+     * @param id The job's submission number.
+     * @param owner The person who submitted the job.
+     * @param pages The number of pages.
+     * @param priority The job's priority; higher values are printed first.
+     */
+    PrintJob(long id, String owner, int pages, int priority) {
+        this.id = id;
+        this.owner = owner;
+        this.pages = pages;
+        this.priority = priority;
+        this.turn = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getPagesPrinted() {
+        return pagesPrinted;
+    }
+
+    /**
+     * Marks the job as cancelled; see {@link PrintSpooler#cancel}.
+     */
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Waits until the job has completed or been cancelled.
+     *
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return True if the job finished, false if the timeout elapsed first.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    /**
+     * Time from submission until its first page started printing, or until now if it is still queued.
+     *
+     * @return The waiting time in milliseconds.
+     */
+    public double getWaitMillis() {
+        long start = firstPageNanos;
+        long end = start != 0 ? start : finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return (end - submittedNanos) / 1e6;
+    }
+
+    /**
+     * Time from the first page until the job finished, or until now if it is still printing.
+     *
+     * @return The printing time in milliseconds; 0 if no page has been printed.
+     */
+    public double getPrintMillis() {
+        long start = firstPageNanos;
+        if (start == 0) {
+            return 0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return (end - start) / 1e6;
+    }
+
+    // The methods below are called by the spooler's printer threads.
+
+    void startPrinting() {
+        if (firstPageNanos == 0) {
+            firstPageNanos = System.nanoTime();
+        }
+        state = State.PRINTING;
+    }
+
+    void pagePrinted() {
+        pagesPrinted++; // Only one printer works on a job at a time
+    }
+
+    void setState(State state) {
+        this.state = state;
+        if (state == State.COMPLETED || state == State.CANCELLED) {
+            finishedNanos = System.nanoTime();
+            finished.countDown();
+        }
+    }
+
+    void requeue(long turn) {
+        this.turn = turn;
+        this.state = State.QUEUED;
+    }
+
+    /**
+     * Orders jobs by priority (highest first), then by turn (oldest first).
+     */
+    @Override
+    public int compareTo(PrintJob other) {
+        if (priority != other.priority) {
+            return Integer.compare(other.priority, priority);
+        }
+        return Long.compare(turn, other.turn);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Job #%d (%s, %d/%d pages, priority %d, %s, waited %.0fms, printed in %.0fms)",
+                id, owner, pagesPrinted, pages, priority, state, getWaitMillis(), getPrintMillis());
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A print spooler: people submit {@link PrintJob}s to a queue and return immediately, and one
+ * printer thread per {@link Printer} takes jobs from the queue and prints them.
+ * <p>
+ * Instead of every person holding a lock on a single printer for their whole job, submitting
+ * only adds to a queue, and throughput grows with the number of printers. Jobs are taken by
+ * priority, then in submission order.
+ * </p>
+ * <p>
+ * With {@link Interleaving#WHOLE_JOB} a printer prints a job from start to finish. With
+ * {@link Interleaving#ROUND_ROBIN} it prints a slice of a few pages and puts the job back at the
+ * end of its priority's line, so a short job is not stuck behind a long one (a job is never
+ * printed by two printers at once, but its slices may come out of different printers).
+ * </p>
+ */
+public class PrintSpooler {
+
+    /** How printers share their time between jobs. */
+    public enum Interleaving { WHOLE_JOB, ROUND_ROBIN }
+
+    private final PriorityBlockingQueue<PrintJob> queue = new PriorityBlockingQueue<>(); // Jobs waiting for a printer
+    private final Interleaving interleaving; // Whole jobs or slices of pagesPerSlice pages
+    private final int pagesPerSlice; // Pages printed per turn with ROUND_ROBIN
+    private final List<Thread> printerThreads = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(1); // Job numbers and turns
+    private final AtomicInteger unfinishedJobs = new AtomicInteger(); // Submitted but not yet completed or cancelled
+    private final AtomicInteger completedJobs = new AtomicInteger();
+    private final AtomicInteger cancelledJobs = new AtomicInteger();
+    private final AtomicLong pagesPrinted = new AtomicLong();
+    private volatile boolean running = true; // Cleared by shutdown(); printers stop once the queue is empty
+
+    /**
+     * Constructs a new PrintSpooler and starts one thread per printer.
+     *
+     * @param printers The printers to print on.
+     * @param interleaving How printers share their time between jobs.
+     * @param pagesPerSlice The pages printed per turn with {@link Interleaving#ROUND_ROBIN}.
+     */
+    public PrintSpooler(List<Printer> printers, Interleaving interleaving, int pagesPerSlice) {
+        if (printers.isEmpty() || pagesPerSlice < 1) {
+            throw new IllegalArgumentException("Need at least one printer and one page per slice");
+        }
+        this.interleaving = interleaving;
+        this.pagesPerSlice = pagesPerSlice;
+        for (Printer printer : printers) {
+            Thread thread = new Thread(() -> runPrinter(printer), "Spooler-" + printer.getName());
+            printerThreads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues a job and returns without waiting for it to be printed.
+     *
+     * @param owner The person submitting the job.
+     * @param pages The number of pages.
+     * @param priority The job's priority; higher values are printed first.
+     * @return The job, to wait for, cancel or inspect.
+     */
+    public PrintJob submit(String owner, int pages, int priority) {
+        if (!running) {
+            throw new IllegalStateException("The spooler is shut down");
+        }
+        PrintJob job = new PrintJob(nextId.getAndIncrement(), owner, pages, priority);
+        unfinishedJobs.incrementAndGet();
+        queue.add(job);
+        return job;
+    }
+
+    /**
+     * Cancels a job. A queued job is dropped at once; a job being printed stops after the current page.
+     *
+     * @param job The job to cancel.
+     */
+    public void cancel(PrintJob job) {
+        job.requestCancel();
+        if (queue.remove(job)) {
+            finish(job, PrintJob.State.CANCELLED); // No printer had it
+        }
+    }
+
+    /**
+     * The loop of one printer thread.
+     */
+    private void runPrinter(Printer printer) {
+        while (running || unfinishedJobs.get() > 0) {
+            PrintJob job;
+            try {
+                job = queue.poll(100, TimeUnit.MILLISECONDS); // Re-checks the stop condition at least this often
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job != null && !print(printer, job)) {
+                return; // Interrupted
+            }
+        }
+    }
+
+    /**
+     * Prints a job, or one slice of it, and either finishes it or queues it again.
+     *
+     * @return False if the printer thread was interrupted.
+     */
+    private boolean print(Printer printer, PrintJob job) {
+        int limit = interleaving == Interleaving.ROUND_ROBIN ? pagesPerSlice : job.getPages();
+        for (int printed = 0; printed < limit && job.getPagesPrinted() < job.getPages(); printed++) {
+            if (job.isCancelRequested()) {
+                break;
+            }
+            job.startPrinting();
+            try {
+                printer.printPage(job.getOwner(), job.getPagesPrinted() + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(job, PrintJob.State.CANCELLED);
+                return false;
+            }
+            job.pagePrinted();
+            pagesPrinted.incrementAndGet();
+        }
+
+        if (job.isCancelRequested()) {
+            finish(job, PrintJob.State.CANCELLED);
+        } else if (job.getPagesPrinted() == job.getPages()) {
+            finish(job, PrintJob.State.COMPLETED);
+        } else {
+            job.requeue(nextId.getAndIncrement()); // Behind every job of the same priority that is waiting
+            queue.add(job);
+        }
+        return true;
+    }
+
+    private void finish(PrintJob job, PrintJob.State state) {
+        job.setState(state);
+        (state == PrintJob.State.COMPLETED ? completedJobs : cancelledJobs).incrementAndGet();
+        unfinishedJobs.decrementAndGet();
+        System.out.println(job.getOwner() + "--> " + (state == PrintJob.State.COMPLETED ? "Completed printing: " : "Cancelled: ") + job);
+    }
+
+    /**
+     * Stops accepting jobs and waits for the printers to finish the queued ones.
+     *
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return True if all printers finished in time; otherwise they are interrupted.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : printerThreads) {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        boolean finished = true;
+        for (Thread thread : printerThreads) {
+            if (thread.isAlive()) {
+                finished = false;
+                thread.interrupt();
+            }
+        }
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PrintSpooler(%d printers, %s): %d jobs completed, %d cancelled, %d queued, %d pages printed",
+                printerThreads.size(), interleaving, completedJobs.get(), cancelledJobs.get(), queue.size(), pagesPrinted.get());
+    }
+}
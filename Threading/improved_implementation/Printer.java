@@ -0,0 +1,37 @@
+package io.github.hridoy100;
+
+/**
+ * This class represents a printer. It prints one page at a time and is driven by a
+ * single thread of a {@link PrintSpooler}, so it needs no locking of its own.
+ */
+public class Printer {
+
+    private static final long PAGE_MILLIS = 100; // Simulated time taken to print a page
+
+    private final String name; // The name of this printer
+
+    /**
+     * Constructs a new Printer.
+     *
+     * @param name The name of the printer.
+     */
+    public Printer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prints one page of an assignment.
+     *
+     * @param personName The name of the person whose assignment is being printed.
+     * @param pageNumber The number of the page, starting at 1.
+     * @throws InterruptedException If the printer is interrupted while printing.
+     */
+    public void printPage(String personName, int pageNumber) throws InterruptedException {
+        System.out.println(personName + "--> printed page #" + pageNumber + " on " + name);
+        Thread.sleep(PAGE_MILLIS);
+    }
+}
@@ -1,19 +1,55 @@
 package io.github.hridoy100;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit; // For Thread.sleep with TimeUnit
 
 /**
  * This class represents a producer in a Producer-Consumer pattern.
- * It continuously generates elements and puts them into a {@link BlockingQueue}.
+ * It continuously generates elements and puts them into a {@link BlockingQueue} or other {@link ItemQueue}.
  * Each producer runs in its own thread.
+ * <p>
+ * With a batch size above 1 the producer generates an array of items at a time and publishes it
+ * with a single {@link ItemQueue#putAll} call. A {@link RingBufferQueue} claims the whole batch
+ * at once; {@link BlockingQueue} has no blocking bulk insert, so its adapter still puts the
+ * items one by one.
+ * </p>
+ * <p>
+ * Given a {@link HashedWheelTimer}, the producer has no thread of its own: each step is a timer
+ * task that offers the next item (or batch) without blocking and schedules the following step
+ * {@code PRODUCE_MILLIS} per item later. If the queue is full, the items are kept and offered
+ * again after {@code RETRY_MILLIS}, so the waiting costs a timer entry instead of a thread.
+ * </p>
+ * <p>
+ * Given an {@link EventRing}, the producer publishes plain {@code long} item numbers into the
+ * ring's pre-allocated events, so producing allocates nothing per item. Printing every item
+ * would allocate a string each time, so in this mode progress is logged at most once per
+ * {@code LOG_INTERVAL_MILLIS}.
+ * </p>
  */
 public class Producer implements Runnable {
 
-    private final BlockingQueue<String> queue; // The shared queue to which to produce elements
+    private static final long PRODUCE_MILLIS = 300; // Simulated work per item
+    private static final long RETRY_MILLIS = 50; // With a timer: how soon to retry when the queue is full
+    private static final long LOG_INTERVAL_MILLIS = 1000; // With an event ring: least time between progress lines
+
+    private final ItemQueue<Item> queue; // The shared queue to which to produce elements, or null with an event ring
+    private final EventRing ring; // The shared ring to publish item numbers to, or null with a queue
     private final String name; // The name of this producer thread
+    private final int batchSize; // Items published per queue call
+    private final PipelineMetrics metrics; // Where queue calls are recorded
+    private final Thread thread; // The thread running this producer, or null when driven by a timer
+    private final HashedWheelTimer timer; // Schedules the steps when there is no thread
+    private final List<Item> unsent = new ArrayList<>(); // With a timer: items generated but not yet accepted by a full queue
+    private final CountDownLatch terminated = new CountDownLatch(1); // Released once the producer has stopped
+    private volatile HashedWheelTimer.Timeout nextStep; // With a timer: the scheduled next step
     private volatile boolean running = true; // Flag to control the thread's execution loop
     private int itemCounter = 0; // Counter for the items produced
+    private int loggedCounter = 0; // With an event ring: itemCounter at the last progress line
+    private long lastLogNanos = System.nanoTime(); // With an event ring: time of the last progress line
 
     /**
      * Constructs a new Producer.
@@ -21,22 +57,133 @@ public class Producer implements Runnable {
      * @param q The {@link BlockingQueue} to produce to.
      * @param name A descriptive name for this producer.
      */
-    public Producer(BlockingQueue<String> q, String name) {
+    public Producer(BlockingQueue<Item> q, String name) {
+        this(ItemQueue.of(q), name);
+    }
+
+    /**
+     * Constructs a new Producer on any {@link ItemQueue}, such as a {@link RingBufferQueue}.
+     *
+     * @param q The {@link ItemQueue} to produce to.
+     * @param name A descriptive name for this producer.
+     */
+    public Producer(ItemQueue<Item> q, String name) {
+        this(q, name, 1, new PipelineMetrics());
+    }
+
+    /**
+     * Constructs a new Producer that publishes items in batches.
+     *
+     * @param q The {@link ItemQueue} to produce to.
+     * @param name A descriptive name for this producer.
+     * @param batchSize The number of items generated and published together.
+     * @param metrics The metrics to record queue calls in.
+     */
+    public Producer(ItemQueue<Item> q, String name, int batchSize, PipelineMetrics metrics) {
+        this(q, name, batchSize, metrics, null);
+    }
+
+    /**
+     * Constructs a new Producer that runs on a thread of its own, or as tasks on a shared timer.
+     *
+     * @param q The {@link ItemQueue} to produce to.
+     * @param name A descriptive name for this producer.
+     * @param batchSize The number of items generated and published together.
+     * @param metrics The metrics to record queue calls in.
+     * @param timer The timer to schedule the producer's steps on, or null to start a thread.
+     */
+    public Producer(ItemQueue<Item> q, String name, int batchSize, PipelineMetrics metrics, HashedWheelTimer timer) {
+        this(q, null, name, batchSize, metrics, timer);
+    }
+
+    /**
+     * Constructs a new Producer that publishes item numbers into an {@link EventRing} without allocating.
+     *
+     * @param ring The {@link EventRing} to publish to.
+     * @param name A descriptive name for this producer.
+     * @param batchSize The number of items published together.
+     * @param metrics The metrics to record queue calls in.
+     */
+    public Producer(EventRing ring, String name, int batchSize, PipelineMetrics metrics) {
+        this(null, ring, name, batchSize, metrics, null);
+    }
+
+    private Producer(ItemQueue<Item> q, EventRing ring, String name, int batchSize, PipelineMetrics metrics,
+                     HashedWheelTimer timer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
         this.queue = q;
+        this.ring = ring;
         this.name = name;
+        this.batchSize = batchSize;
+        this.metrics = metrics;
+        this.timer = timer;
+        if (timer != null) {
+            this.thread = null;
+            System.out.println(name + " started on the timer...");
+            this.nextStep = timer.schedule(this::produceStep, 0, TimeUnit.MILLISECONDS);
+            return;
+        }
         // It's generally better to have the caller start the thread, but keeping original behavior for now.
-        new Thread(this, name).start();
+        this.thread = new Thread(this, name);
+        thread.start();
     }
 
     /**
      * Signals the producer thread to stop its execution gracefully.
-     * The {@code run} method's loop will terminate after the current operation completes.
+     * The {@code run} method's loop terminates; a wait for queue space or the simulated work is cut short.
      */
     public void stopProducer() {
         this.running = false;
-        // Interrupt the thread to unblock it if it's currently waiting on queue.put()
-        // This assumes the thread that calls stopProducer() has a reference to the Thread object.
-        // For this example, we'll rely on the 'running' flag.
+        if (thread == null) {
+            nextStep.cancel(); // Driven by a timer: just don't run the next step
+            System.out.println(name + " stopped.");
+            terminated.countDown();
+            return;
+        }
+        // Interrupt the thread to unblock it if it's currently waiting on queue.put(); once the
+        // consumers have stopped, nothing would ever make room for it otherwise
+        thread.interrupt();
+    }
+
+    /**
+     * Waits for the producer to stop after {@link #stopProducer()}.
+     *
+     * @param timeout How long to wait.
+     * @param unit The unit of {@code timeout}.
+     * @return {@code true} if the producer stopped in time.
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * One step of a timer-driven producer: offers the pending items and schedules the next step.
+     */
+    private void produceStep() {
+        if (!running) {
+            return;
+        }
+        if (unsent.isEmpty()) {
+            for (int i = 0; i < batchSize; i++) {
+                itemCounter++;
+                unsent.add(new Item(itemCounter));
+            }
+        }
+        int sent = 0;
+        while (sent < unsent.size() && queue.offer(unsent.get(sent))) { // Never blocks the timer's worker
+            sent++;
+        }
+        if (sent > 0) {
+            metrics.recordPut(sent);
+            System.out.println(name + " produced: " + unsent.get(0) + (sent > 1 ? " .. " + unsent.get(sent - 1) : ""));
+            unsent.subList(0, sent).clear();
+        }
+        // Simulate work being done before producing the next batch, or retry soon if the queue was full
+        long delayMillis = unsent.isEmpty() ? PRODUCE_MILLIS * batchSize : RETRY_MILLIS;
+        nextStep = timer.schedule(this::produceStep, delayMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -48,18 +195,35 @@ public class Producer implements Runnable {
         System.out.println(name + " started...");
         while (running) {
             try {
-                itemCounter++;
-                String item = "cake-" + itemCounter;
-                // put() is a blocking operation; it waits until space is available in the queue
-                queue.put(item);
-                System.out.println(name + " produced: " + item);
+                if (ring != null) {
+                    publishToRing();
+                } else if (batchSize == 1) {
+                    itemCounter++;
+                    Item item = new Item(itemCounter);
+                    // put() is a blocking operation; it waits until space is available in the queue
+                    queue.put(item);
+                    metrics.recordPut(1);
+                    System.out.println(name + " produced: " + item);
+                } else {
+                    Item[] batch = new Item[batchSize];
+                    for (int i = 0; i < batchSize; i++) {
+                        itemCounter++;
+                        batch[i] = new Item(itemCounter);
+                    }
+                    // One putAll() for the whole array
+                    queue.putAll(Arrays.asList(batch));
+                    metrics.recordPut(batchSize);
+                    System.out.println(name + " produced: " + batch[0] + " .. " + batch[batchSize - 1]);
+                }
 
-                // Simulate work being done before producing the next item
-                TimeUnit.MILLISECONDS.sleep(300);
+                // Simulate work being done before producing the next item (or batch)
+                TimeUnit.MILLISECONDS.sleep(PRODUCE_MILLIS * batchSize);
 
             } catch (InterruptedException e) {
                 // This exception is thrown if the thread is interrupted while waiting
-                System.err.println(name + " was interrupted while waiting to produce. Shutting down.");
+                if (running) { // Not an interrupt from stopProducer()
+                    System.err.println(name + " was interrupted while waiting to produce. Shutting down.");
+                }
                 Thread.currentThread().interrupt(); // Restore the interrupted status
                 running = false; // Stop the loop
             } catch (Exception e) {
@@ -69,5 +233,28 @@ public class Producer implements Runnable {
             }
         }
         System.out.println(name + " stopped.");
+        terminated.countDown();
+    }
+
+    /**
+     * Publishes the next item number (or run of numbers) into the event ring; nothing is allocated
+     * except the occasional progress line.
+     *
+     * @throws InterruptedException If interrupted while waiting for a free slot.
+     */
+    private void publishToRing() throws InterruptedException {
+        if (batchSize == 1) {
+            ring.publish(itemCounter + 1);
+        } else {
+            ring.publishRange(itemCounter + 1, batchSize); // One claim for the whole run, where slots are free
+        }
+        itemCounter += batchSize;
+        metrics.recordPut(batchSize);
+        long now = System.nanoTime();
+        if (now - lastLogNanos >= TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL_MILLIS)) {
+            System.out.println(name + " produced " + (itemCounter - loggedCounter) + " events up to cake-" + itemCounter + ".");
+            loggedCounter = itemCounter;
+            lastLogNanos = now;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package io.github.hridoy100;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * This class compares the throughput of the {@link ItemQueue} implementations in the
+ * single-producer/multi-consumer shape of {@link PCBlockingQueue}, without the simulated work:
+ * one producer hands a fixed number of items to several consumers as fast as it can.
+ * <p>
+ * Each queue is measured twice: one element per {@code put}/{@code take}, and in batches via
+ * {@code putAll}/{@code drainTo}. The payload strings are created before timing starts, so
+ * the numbers reflect the queue and not string allocation. The producer ends each run with one
+ * poison pill per consumer.
+ * </p>
+ * <p>
+ * Usage: {@code java io.github.hridoy100.QueueBenchmark [items] [consumers] [capacity]}.
+ * {@link WaitStrategy#BUSY_SPIN} is skipped when there are fewer cores than threads, since a
+ * spinning thread would then hold a core the thread it waits for needs.
+ * </p>
+ */
+public class QueueBenchmark {
+
+    private static final int BATCH_SIZE = 64; // Elements per putAll/drainTo in batch mode
+    private static final int MEASURED_ROUNDS = 3; // Timed runs per configuration, after one warm-up run
+    private static final String POISON_PILL = new String("POISON_PILL"); // Compared by identity
+
+    public static void main(String[] args) throws InterruptedException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        String[] payload = new String[items];
+        for (int i = 0; i < items; i++) {
+            payload[i] = "cake-" + i;
+        }
+
+        System.out.println("Queue benchmark: " + items + " items, 1 producer, " + consumers
+                + " consumers, capacity " + capacity + ", " + cores + " cores.");
+        System.out.printf("%-36s %14s %14s%n", "Queue", "single Mops/s", "batch Mops/s");
+
+        List<String> names = new ArrayList<>();
+        List<Supplier<ItemQueue<String>>> factories = new ArrayList<>();
+        names.add("ArrayBlockingQueue");
+        factories.add(() -> ItemQueue.of(new ArrayBlockingQueue<>(capacity)));
+        names.add("LinkedTransferQueue (unbounded)");
+        factories.add(() -> ItemQueue.of(new LinkedTransferQueue<>()));
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            names.add("RingBufferQueue " + waitStrategy);
+            boolean tooFewCores = waitStrategy == WaitStrategy.BUSY_SPIN && cores < consumers + 1;
+            factories.add(tooFewCores ? null : () -> new RingBufferQueue<>(capacity, waitStrategy));
+        }
+
+        for (int i = 0; i < factories.size(); i++) {
+            if (factories.get(i) == null) {
+                System.out.printf("%-36s %14s %14s%n", names.get(i), "skipped", "skipped");
+                continue;
+            }
+            double single = measure(factories.get(i), payload, consumers, false);
+            double batch = measure(factories.get(i), payload, consumers, true);
+            System.out.printf("%-36s %14.2f %14.2f%n", names.get(i), single, batch);
+        }
+    }
+
+    /**
+     * Runs one warm-up and {@link #MEASURED_ROUNDS} timed transfers and returns the best throughput.
+     *
+     * @return Millions of items per second.
+     */
+    private static double measure(Supplier<ItemQueue<String>> factory, String[] payload, int consumers,
+                                  boolean batched) throws InterruptedException {
+        runOnce(factory.get(), payload, consumers, batched);
+        double best = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long elapsedNanos = runOnce(factory.get(), payload, consumers, batched);
+            best = Math.max(best, payload.length / (elapsedNanos / 1_000.0));
+        }
+        return best;
+    }
+
+    /**
+     * Transfers all payload items from one producer to the consumers.
+     *
+     * @return The elapsed time in nanoseconds, from start until every consumer has finished.
+     */
+    private static long runOnce(ItemQueue<String> queue, String[] payload, int consumers,
+                                boolean batched) throws InterruptedException {
+        AtomicLong consumed = new AtomicLong();
+        Thread[] consumerThreads = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            consumerThreads[i] = new Thread(() -> consume(queue, batched, consumed), "BenchConsumer-" + i);
+        }
+        Thread producerThread = new Thread(() -> produce(queue, payload, consumers, batched), "BenchProducer");
+
+        long start = System.nanoTime();
+        for (Thread consumerThread : consumerThreads) {
+            consumerThread.start();
+        }
+        producerThread.start();
+        producerThread.join();
+        for (Thread consumerThread : consumerThreads) {
+            consumerThread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (consumed.get() != payload.length) {
+            throw new IllegalStateException(queue + " delivered " + consumed.get() + " of " + payload.length + " items");
+        }
+        return elapsed;
+    }
+
+    private static void produce(ItemQueue<String> queue, String[] payload, int consumers, boolean batched) {
+        try {
+            if (batched) {
+                List<String> all = Arrays.asList(payload);
+                for (int from = 0; from < payload.length; from += BATCH_SIZE) {
+                    queue.putAll(all.subList(from, Math.min(from + BATCH_SIZE, payload.length)));
+                }
+            } else {
+                for (String item : payload) {
+                    queue.put(item);
+                }
+            }
+            for (int i = 0; i < consumers; i++) {
+                queue.put(POISON_PILL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void consume(ItemQueue<String> queue, boolean batched, AtomicLong consumed) {
+        long count = 0;
+        try {
+            if (batched) {
+                List<String> batch = new ArrayList<>(BATCH_SIZE);
+                boolean done = false;
+                while (!done) {
+                    if (queue.drainTo(batch, BATCH_SIZE) == 0) {
+                        batch.add(queue.take()); // Nothing ready: wait for the next element
+                    }
+                    int pills = 0;
+                    for (String item : batch) {
+                        if (item == POISON_PILL) {
+                            pills++;
+                        } else {
+                            count++;
+                        }
+                    }
+                    batch.clear();
+                    if (pills > 0) {
+                        done = true;
+                        for (int i = 1; i < pills; i++) {
+                            queue.put(POISON_PILL); // Pills meant for other consumers go back
+                        }
+                    }
+                }
+            } else {
+                while (queue.take() != POISON_PILL) {
+                    count++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        consumed.addAndGet(count);
+    }
+}
@@ -0,0 +1,245 @@
+package io.github.hridoy100;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is a bounded, lock-free queue on a pre-allocated ring of slots, in the style of
+ * the LMAX Disruptor. It is an {@link ItemQueue}, so it can replace an
+ * {@link java.util.concurrent.ArrayBlockingQueue} between {@link Producer}s and {@link Consumer}s.
+ * <p>
+ * An {@code ArrayBlockingQueue} guards both ends with one {@code ReentrantLock}; every put and
+ * take contends for it and wakes waiters through condition variables. Here instead:
+ * </p>
+ * <ul>
+ *   <li>The slot array and a per-slot sequence array are allocated once, with a power-of-two
+ *       capacity so a position maps to a slot with a mask instead of a division.</li>
+ *   <li>The producer cursor ({@code tail}) and consumer cursor ({@code head}) are
+ *       {@link PaddedSequence}s on separate cache lines. Positions are claimed with a
+ *       compare-and-set on the cursor, so several producers or consumers may share the queue.</li>
+ *   <li>Each slot's sequence says whose turn it is: it equals the position when the slot is
+ *       free for the producer at that position, and the position + 1 once that producer has
+ *       published into it. A consumer frees a slot by setting it to the position + capacity,
+ *       the producer's position one lap later.</li>
+ *   <li>{@link #putAll(List)} claims a run of slots with a single compare-and-set and
+ *       {@link #drainTo(Collection, int)} consumes a run the same way, so a batch costs one
+ *       contended operation rather than one per element.</li>
+ *   <li>When the ring is full or empty the caller waits according to its {@link WaitStrategy}.</li>
+ * </ul>
+ *
+ * @param <E> The type of element held in the queue.
+ */
+public class RingBufferQueue<E> implements ItemQueue<E> {
+
+    private final Object[] slots; // Pre-allocated element slots
+    private final AtomicLongArray sequences; // Per-slot turn markers, see the class comment
+    private final int mask; // capacity - 1, maps a position to its slot
+    private final int capacity; // Number of slots, a power of two
+    private final WaitStrategy waitStrategy; // How to wait when the ring is full or empty
+    private final PaddedSequence tail = new PaddedSequence(0); // Next position a producer will claim
+    private final PaddedSequence head = new PaddedSequence(0); // Next position a consumer will claim
+
+    /**
+     * Constructs a ring buffer queue.
+     *
+     * @param requestedCapacity The minimum capacity; rounded up to the next power of two.
+     * @param waitStrategy The strategy used by threads waiting for space or elements.
+     */
+    public RingBufferQueue(int requestedCapacity, WaitStrategy waitStrategy) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i); // Slot i is free for the producer at position i
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the number of slots in the ring.
+     *
+     * @return The capacity, a power of two.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void put(E item) throws InterruptedException {
+        if (item == null) {
+            throw new NullPointerException("RingBufferQueue does not accept null elements");
+        }
+        int attempt = 0;
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = item;
+                    sequences.set(index, position + 1); // Publish: the element is now visible to consumers
+                    return;
+                }
+                // Another producer claimed this position; retry at the new tail
+            } else if (sequence < position) {
+                attempt = await(attempt); // The slot still holds an element from the previous lap: full
+            }
+        }
+    }
+
+    @Override
+    public boolean offer(E item) {
+        if (item == null) {
+            throw new NullPointerException("RingBufferQueue does not accept null elements");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = item;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false; // Full
+            }
+        }
+    }
+
+    @Override
+    public void putAll(List<? extends E> items) throws InterruptedException {
+        if (items.contains(null)) { // Checked up front: a claimed slot must always be published
+            throw new NullPointerException("RingBufferQueue does not accept null elements");
+        }
+        int offset = 0;
+        int attempt = 0;
+        while (offset < items.size()) {
+            long position = tail.get();
+            // Count how many consecutive slots from the tail are free, up to the remaining items
+            int free = 0;
+            int wanted = items.size() - offset;
+            while (free < wanted && sequences.get((int) (position + free) & mask) == position + free) {
+                free++;
+            }
+            if (free == 0) {
+                if (sequences.get((int) position & mask) < position) {
+                    attempt = await(attempt);
+                }
+                continue;
+            }
+            if (tail.compareAndSet(position, position + free)) { // One claim for the whole run
+                for (int i = 0; i < free; i++) {
+                    int index = (int) (position + i) & mask;
+                    slots[index] = items.get(offset + i);
+                    sequences.set(index, position + i + 1);
+                }
+                offset += free;
+                attempt = 0;
+            }
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    return consume(index, position);
+                }
+                // Another consumer took this position; retry at the new head
+            } else if (sequence < position + 1) {
+                attempt = await(attempt); // Nothing published at this position yet: empty
+            }
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int attempt = 0;
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    return consume(index, position);
+                }
+            } else if (sequence < position + 1) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return null; // Still empty when the time ran out
+                }
+                attempt = await(attempt);
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        while (true) {
+            long position = head.get();
+            // Count how many consecutive slots from the head are published
+            int available = 0;
+            while (available < maxElements
+                    && sequences.get((int) (position + available) & mask) == position + available + 1) {
+                available++;
+            }
+            if (available == 0) {
+                return 0;
+            }
+            if (head.compareAndSet(position, position + available)) { // One claim for the whole run
+                for (int i = 0; i < available; i++) {
+                    target.add(consume((int) (position + i) & mask, position + i));
+                }
+                return available;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Reads the element at a claimed position and hands the slot back to the producers.
+     */
+    @SuppressWarnings("unchecked")
+    private E consume(int index, long position) {
+        E item = (E) slots[index];
+        slots[index] = null; // Don't keep the element reachable until the slot is reused
+        sequences.set(index, position + capacity); // Free for the producer one lap later
+        return item;
+    }
+
+    /**
+     * Waits once according to the wait strategy, honouring interruption.
+     *
+     * @return The next attempt number.
+     */
+    private int await(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waitStrategy.idle(attempt);
+        return attempt + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferQueue(" + waitStrategy + ")";
+    }
+}
@@ -1,92 +1,108 @@
 package io.github.hridoy100;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 /**
- * This class demonstrates how to create and run a thread by implementing the {@link Runnable} interface.
- * It defines a task that a thread will execute.
+ * This class demonstrates a task defined by implementing the {@link Runnable} interface.
+ * Each call to {@code run()} performs one tick of a countdown; instead of a thread of its own
+ * that sleeps between ticks, the task is run every 500 ms by a shared {@link HashedWheelTimer}.
  */
 class ChildRunnableThread implements Runnable {
 
-    private final int threadNumber; // A unique identifier for this child thread
-    private final Thread thread; // The actual Thread object
-    private volatile boolean running = true; // Flag to control the thread's execution loop
+    private static final int TICKS = 5; // Number of countdown steps
+    private static final long TICK_MILLIS = 500; // Time between steps
+
+    private final int threadNumber; // A unique identifier for this child task
+    private final CountDownLatch finished = new CountDownLatch(1); // Released after the last tick or when stopped
+    private volatile HashedWheelTimer.Timeout timeout; // The periodic schedule of this task
+    private int tick = 0; // Ticks done so far; runs of one periodic task never overlap
 
     /**
-     * Constructs a new ChildRunnableThread.
+     * Constructs a new ChildRunnableThread and schedules its ticks.
      *
-     * @param threadNumber A unique number to identify this thread.
+     * @param threadNumber A unique number to identify this child task.
+     * @param timer The timer to run the ticks on.
      */
-    ChildRunnableThread(int threadNumber) {
+    ChildRunnableThread(int threadNumber, HashedWheelTimer timer) {
         this.threadNumber = threadNumber;
-        this.thread = new Thread(this, "ChildThread-" + threadNumber);
-        this.thread.start();
+        System.out.println("Child Thread " + threadNumber + " started.");
+        this.timeout = timer.scheduleAtFixedRate(this, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns whether the countdown is still running.
+     *
+     * @return True until the last tick or {@link #stopThread()}.
+     */
+    public boolean isAlive() {
+        return finished.getCount() > 0;
     }
 
     /**
-     * Returns the {@link Thread} object associated with this runnable.
+     * Waits until the countdown has finished.
      *
-     * @return The {@link Thread} object.
+     * @throws InterruptedException If the waiting thread is interrupted.
      */
-    public Thread getThread() {
-        return thread;
+    public void join() throws InterruptedException {
+        finished.await();
     }
 
     /**
-     * Signals the thread to stop its execution gracefully.
+     * Stops the countdown; no further ticks are run.
      */
     public void stopThread() {
-        this.running = false;
-        this.thread.interrupt(); // Interrupt the thread to unblock it if it's sleeping
+        timeout.cancel();
+        System.out.println("Child Thread " + threadNumber + " was stopped.");
+        finished.countDown();
     }
 
     /**
-     * The main execution logic for the child thread. It performs a simple countdown.
+     * One tick of the countdown, run on one of the timer's worker threads.
      */
     @Override
     public void run() {
-        System.out.println("Child Thread " + threadNumber + " started.");
-        for (int i = 0; i < 5 && running; i++) {
-            System.out.println("Child Thread " + threadNumber + ": " + i);
-            try {
-                Thread.sleep(500); // Simulate some work
-            } catch (InterruptedException e) {
-                System.out.println("Child Thread " + threadNumber + " was interrupted.");
-                Thread.currentThread().interrupt(); // Restore the interrupted status
-                running = false; // Stop the loop
-            }
+        System.out.println("Child Thread " + threadNumber + ": " + tick + " (on " + Thread.currentThread().getName() + ")");
+        if (++tick == TICKS) {
+            timeout.cancel(); // The last tick: don't run again
+            System.out.println("Child Thread " + threadNumber + " exiting.");
+            finished.countDown();
         }
-        System.out.println("Child Thread " + threadNumber + " exiting.");
     }
 }
 
 /**
- * This class demonstrates the creation and management of multiple threads
- * using the {@link Runnable} interface. It creates and starts two child threads,
- * waits for their completion using {@code join()}, and then reports their status.
+ * This class demonstrates running several periodic tasks defined with the {@link Runnable}
+ * interface on one shared timer, instead of starting a thread for each. It schedules two
+ * child tasks, waits for them to finish, and then reports their status.
  */
 public class RunnableThread {
     public static void main(String[] args) {
         System.out.println("Main Thread Started...");
 
-        // Create and start two child threads
-        ChildRunnableThread ob1 = new ChildRunnableThread(1);
-        ChildRunnableThread ob2 = new ChildRunnableThread(2);
+        // One ticker thread and one worker thread run every child task's ticks
+        try (HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64, 1)) {
+            ChildRunnableThread ob1 = new ChildRunnableThread(1, timer);
+            ChildRunnableThread ob2 = new ChildRunnableThread(2, timer);
 
-        System.out.println("Thread 1 is alive: " + ob1.getThread().isAlive());
-        System.out.println("Thread 2 is alive: " + ob2.getThread().isAlive());
+            System.out.println("Thread 1 is alive: " + ob1.isAlive());
+            System.out.println("Thread 2 is alive: " + ob2.isAlive());
 
-        try {
-            // Wait for both child threads to complete their execution
-            System.out.println("Waiting for child threads to finish...");
-            ob1.getThread().join();
-            ob2.getThread().join();
-        } catch (InterruptedException e) {
-            System.err.println("Main Thread interrupted while waiting for child threads.");
-            Thread.currentThread().interrupt(); // Restore the interrupted status
-        }
+            try {
+                // Wait for both child tasks to complete their countdown
+                System.out.println("Waiting for child threads to finish...");
+                ob1.join();
+                ob2.join();
+            } catch (InterruptedException e) {
+                System.err.println("Main Thread interrupted while waiting for child threads.");
+                Thread.currentThread().interrupt(); // Restore the interrupted status
+            }
 
-        System.out.println("Thread 1 is alive: " + ob1.getThread().isAlive());
-        System.out.println("Thread 2 is alive: " + ob2.getThread().isAlive());
+            System.out.println("Thread 1 is alive: " + ob1.isAlive());
+            System.out.println("Thread 2 is alive: " + ob2.isAlive());
+            System.out.println(timer);
+        }
 
         System.out.println("Main Thread Exited...");
     }
-}
\ No newline at end of file
+}
@@ -1,60 +1,35 @@
 package io.github.hridoy100;
 
-
-/**
- * This class represents a shared resource (a printer) that multiple threads
- * (Person objects) will try to access. The {@code printAssignment} method
- * is synchronized to ensure that only one thread can print at a time,
- * preventing race conditions.
- */
-class Printer {
-    /**
-     * Prints an assignment for a given person. This method is synchronized
-     * to ensure thread safety, meaning only one thread can execute this
-     * method at any given time.
-     *
-     * @param personName The name of the person whose assignment is being printed.
-     * @param numberOfPages The number of pages in the assignment.
-     */
-    public synchronized void printAssignment(String personName, int numberOfPages) {
-        System.out.println(personName + "--> Printing started...");
-        for (int i = 0; i < numberOfPages; i++) {
-            System.out.println(personName + "--> printed page #" + (i + 1));
-            try {
-                // Simulate time taken to print a page
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                System.err.println(personName + "--> Printing interrupted.");
-                Thread.currentThread().interrupt(); // Restore the interrupted status
-                break;
-            }
-        }
-        System.out.println(personName + "--> Completed printing.");
-    }
-}
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class represents a person who needs to print an assignment.
- * Each person runs as a separate thread and uses a shared {@link Printer} object.
+ * Each person runs as a separate thread and submits a job to the shared {@link PrintSpooler}.
  */
 class Person implements Runnable {
 
     private final String name; // The name of the person
-    private final Printer printer; // The shared printer resource
+    private final PrintSpooler spooler; // The shared print spooler
     private final int pages; // The number of pages the person needs to print
+    private final int priority; // The priority of the person's print job
     private final Thread thread; // The thread associated with this person
+    private volatile PrintJob job; // The submitted job, once the thread has run
 
     /**
      * Constructs a new Person.
      *
      * @param name The name of the person.
-     * @param printer The {@link Printer} instance to use.
+     * @param spooler The {@link PrintSpooler} to submit the job to.
      * @param pages The number of pages to print.
+     * @param priority The priority of the print job; higher values are printed first.
      */
-    Person(String name, Printer printer, int pages) {
+    Person(String name, PrintSpooler spooler, int pages, int priority) {
         this.name = name;
-        this.printer = printer;
+        this.spooler = spooler;
         this.pages = pages;
+        this.priority = priority;
         this.thread = new Thread(this, name);
         this.thread.start(); // Start the thread upon construction
     }
@@ -68,48 +43,82 @@ class Person implements Runnable {
         return thread;
     }
 
+    /**
+     * Returns the person's print job.
+     *
+     * @return The job, or null if it hasn't been submitted yet.
+     */
+    public PrintJob getJob() {
+        return job;
+    }
+
     /**
      * The main execution logic for the person thread.
-     * It calls the synchronized {@code printAssignment} method of the {@link Printer}.
+     * It submits the print job without blocking on the printer, then waits for the printout.
      */
     @Override
     public void run() {
-        // The synchronization is now handled within the Printer class's method.
-        // This thread simply calls the method.
-        printer.printAssignment(this.name, this.pages);
+        job = spooler.submit(this.name, this.pages, this.priority);
+        System.out.println(name + "--> Submitted " + pages + " pages.");
+        try {
+            job.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            System.err.println(name + "--> Interrupted while waiting for the printout.");
+            Thread.currentThread().interrupt(); // Restore the interrupted status
+        }
     }
 }
 
 /**
- * This class demonstrates thread synchronization using a shared {@link Printer} resource.
- * Multiple {@link Person} threads attempt to use the same printer, and synchronization
- * ensures that printing jobs are completed one after another without interleaving.
+ * This class demonstrates coordinating threads that share printers through a {@link PrintSpooler}.
+ * Each {@link Person} thread submits a job and continues; the spooler's printer threads take
+ * jobs by priority, so several printers work at once and no person holds a lock while printing.
+ * <p>
+ * Options: {@code -Dprint.printers=2}, {@code -Dprint.interleaving=WHOLE_JOB|ROUND_ROBIN} and
+ * {@code -Dprint.pagesPerSlice=2}.
+ * </p>
  */
 public class Synchronization {
     public static void main(String[] args) {
-        System.out.println("Main Thread Started: Demonstrating Thread Synchronization.");
+        System.out.println("Main Thread Started: Demonstrating a shared print spooler.");
 
-        // Create a single shared Printer instance
-        Printer sharedPrinter = new Printer();
+        // Create the printers and a spooler that drives them
+        List<Printer> printers = new ArrayList<>();
+        for (int i = 1; i <= Integer.getInteger("print.printers", 2); i++) {
+            printers.add(new Printer("Printer-" + i));
+        }
+        PrintSpooler spooler = new PrintSpooler(printers,
+                PrintSpooler.Interleaving.valueOf(System.getProperty("print.interleaving", "WHOLE_JOB")),
+                Integer.getInteger("print.pagesPerSlice", 2));
 
-        // Create multiple Person threads, all sharing the same printer
-        Person hridoy = new Person("Hridoy", sharedPrinter, 5);
-        Person mahim = new Person("Mahim", sharedPrinter, 10);
-        Person rayhan = new Person("Rayhan", sharedPrinter, 8);
+        // Create multiple Person threads, all sharing the same spooler
+        Person hridoy = new Person("Hridoy", spooler, 5, 1);
+        Person mahim = new Person("Mahim", spooler, 10, 1);
+        Person rayhan = new Person("Rayhan", spooler, 8, 1);
+        Person sadia = new Person("Sadia", spooler, 12, 0); // Low priority: printed when the printers are free
+        Person teacher = new Person("Teacher", spooler, 2, 5); // Urgent: printed before every waiting job
 
         System.out.println("All Person threads created and started. Waiting for them to finish...");
 
         try {
-            // Wait for all Person threads to complete their printing jobs
-            hridoy.getThread().join();
-            mahim.getThread().join();
-            rayhan.getThread().join();
+            // Sadia's printout is no longer needed; a queued job is dropped, a running one stops after the current page
+            Thread.sleep(300);
+            if (sadia.getJob() != null) {
+                spooler.cancel(sadia.getJob());
+            }
+
+            // Wait for all Person threads to receive their printouts
+            for (Person person : new Person[] {hridoy, mahim, rayhan, sadia, teacher}) {
+                person.getThread().join();
+            }
+            spooler.shutdown(10, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             System.err.println("Main Thread interrupted while waiting for Person threads to finish.");
             Thread.currentThread().interrupt(); // Restore the interrupted status
         }
 
         System.out.println("All Person threads have completed their tasks.");
+        System.out.println(spooler);
         System.out.println("Main Thread Exited.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package io.github.hridoy100;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class compares three ways of running many periodic jobs, such as the producers,
+ * consumers and countdowns of these examples, each of which wakes up, does a little work and
+ * waits again:
+ * <ul>
+ *   <li>one platform thread per job that sleeps until its next run,</li>
+ *   <li>a {@link ScheduledThreadPoolExecutor} with two threads,</li>
+ *   <li>a {@link HashedWheelTimer} with a 10 ms tick and two worker threads.</li>
+ * </ul>
+ * Every job records how late each run starts compared to its planned time (first run plus a
+ * whole number of periods). The report shows the runs completed, the lateness distribution
+ * and the number of live threads while the jobs run.
+ * <p>
+ * Usage: {@code java io.github.hridoy100.TimerBenchmark [jobs] [periodMillis] [seconds]}
+ * (defaults 2000, 500 and 5).
+ * </p>
+ */
+public class TimerBenchmark {
+
+    /**
+     * One periodic job: knows when it should run next and records how late it actually ran.
+     */
+    private static final class Job implements Runnable {
+        private final long periodNanos;
+        private final LatencyHistogram lateness;
+        private final LongAdder runs;
+        private long plannedNanos; // Runs of one job never overlap, so no synchronization is needed
+
+        Job(long firstNanos, long periodNanos, LatencyHistogram lateness, LongAdder runs) {
+            this.plannedNanos = firstNanos;
+            this.periodNanos = periodNanos;
+            this.lateness = lateness;
+            this.runs = runs;
+        }
+
+        @Override
+        public void run() {
+            lateness.record(System.nanoTime() - plannedNanos);
+            runs.increment();
+            plannedNanos += periodNanos;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long periodMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        System.out.println(jobs + " periodic jobs every " + periodMillis + " ms for " + seconds + " s on "
+                + Runtime.getRuntime().availableProcessors() + " cores:");
+        System.out.printf("%-22s %8s %8s %10s %10s %10s%n", "Scheduler", "threads", "runs", "p50 late", "p99 late", "max late");
+
+        for (String scheduler : new String[] {"thread per job", "ScheduledThreadPool", "HashedWheelTimer"}) {
+            LatencyHistogram lateness = new LatencyHistogram();
+            LongAdder runs = new LongAdder();
+            long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+            long first = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200); // Let every job get scheduled first
+            List<Job> jobList = new ArrayList<>();
+            for (int i = 0; i < jobs; i++) {
+                // Spread the first runs over one period, as independent timers would be
+                jobList.add(new Job(first + periodNanos * i / jobs, periodNanos, lateness, runs));
+            }
+
+            Runnable stop;
+            switch (scheduler) {
+                case "thread per job": {
+                    List<Thread> threads = new ArrayList<>();
+                    for (Job job : jobList) {
+                        Thread thread = new Thread(() -> {
+                            try {
+                                while (true) {
+                                    TimeUnit.NANOSECONDS.sleep(Math.max(0, job.plannedNanos - System.nanoTime()));
+                                    job.run();
+                                }
+                            } catch (InterruptedException e) {
+                                // Stopped
+                            }
+                        });
+                        thread.setDaemon(true);
+                        thread.start();
+                        threads.add(thread);
+                    }
+                    stop = () -> threads.forEach(Thread::interrupt);
+                    break;
+                }
+                case "ScheduledThreadPool": {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2);
+                    for (Job job : jobList) {
+                        executor.scheduleAtFixedRate(job, job.plannedNanos - System.nanoTime(), periodNanos, TimeUnit.NANOSECONDS);
+                    }
+                    stop = executor::shutdownNow;
+                    break;
+                }
+                default: {
+                    HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512, 2);
+                    for (Job job : jobList) {
+                        timer.scheduleAtFixedRate(job, job.plannedNanos - System.nanoTime(), periodNanos, TimeUnit.NANOSECONDS);
+                    }
+                    stop = timer::close;
+                    break;
+                }
+            }
+
+            // Measure a fixed window from the planned first run; starting thousands of threads takes a while
+            TimeUnit.NANOSECONDS.sleep(first + TimeUnit.SECONDS.toNanos(seconds) - System.nanoTime());
+            int liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            long runsDone = runs.sum();
+            stop.run();
+            System.out.printf("%-22s %8d %8d %8.1fms %8.1fms %8.1fms%n", scheduler, liveThreads, runsDone,
+                    lateness.percentileMicros(50) / 1000.0, lateness.percentileMicros(99) / 1000.0, lateness.maxMicros() / 1000.0);
+            TimeUnit.MILLISECONDS.sleep(500); // Let the stopped threads exit before the next run
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This enum defines how a thread waits in the {@link RingBufferQueue} when the ring is
+ * full (producer) or empty (consumer). There are no locks or condition variables to
+ * signal; a waiting thread simply re-checks the ring after each call to {@link #idle(int)}.
+ * The strategies trade latency against CPU use:
+ * <ul>
+ *   <li>{@link #BUSY_SPIN}: lowest latency, burns a whole core per waiting thread. Only
+ *       sensible with at least one core per producer and consumer.</li>
+ *   <li>{@link #YIELDING}: spins briefly, then gives up the time slice.</li>
+ *   <li>{@link #PARKING}: spins, yields, then parks for short periods; uses almost no CPU
+ *       when idle, at the cost of some wake-up latency.</li>
+ * </ul>
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+
+    YIELDING {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    PARKING {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100; // Attempts spent spinning before backing off
+    private static final int YIELD_TRIES = 100; // Attempts spent yielding before parking (PARKING only)
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100); // Park duration per attempt
+
+    /**
+     * Waits once before the caller re-checks the ring.
+     *
+     * @param attempt How many times the caller has already waited for the current operation.
+     */
+    abstract void idle(int attempt);
+}
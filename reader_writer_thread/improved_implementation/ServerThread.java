@@ -0,0 +1,233 @@
+package io.github.hridoy100;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+
+/**
+ * This class represents the I/O side of a single client connection.
+ * It reads objects from the client and hands them to the shared {@link EchoStages}
+ * processing stage (which converts them to uppercase), then a dedicated writer thread
+ * sends the responses back in the order the requests arrived.
+ * <p>
+ * Two request styles are understood on the same connection: a plain {@link String}
+ * and an {@link EchoFrame} carrying a correlation id for pipelined clients.
+ * Responses are flushed in batches: the writer keeps writing while more requests
+ * are already buffered and only flushes once the client has nothing else queued or
+ * the batch is full, so the {@link WriterThread} can send without waiting for replies.
+ * </p>
+ */
+class ServerThread implements Runnable {
+
+    private static final int MAX_BATCH = 64; // Upper bound on responses written before a forced flush
+    // The smallest complete request (an empty String) is 3 bytes; fewer buffered bytes can only be a
+    // stream control marker such as TC_RESET or the start of a partial frame, so we flush rather than wait.
+    private static final int MIN_REQUEST_BYTES = 3;
+    // Queued by the reader when the client is done, telling the writer to finish up and close the socket
+    private static final PendingResponse END_OF_STREAM = new PendingResponse(null, null, 0L);
+
+    private final Socket clientSocket; // The socket connected to the client
+    private final EchoStages stages; // The shared processing stage
+    private final boolean logMessages; // Whether every message is printed (disabled for benchmarks)
+    private final BlockingQueue<PendingResponse> outbound; // Responses in request order, bounded per connection
+    private volatile boolean inputPending = false; // Set by the reader when another request is already buffered
+    private volatile boolean running = true; // Flag to control the thread's execution loop
+
+    /**
+     * A response the writer stage is waiting for, together with the time its request was read.
+     */
+    private static final class PendingResponse {
+        final Object request; // The original request, kept for logging
+        final EchoStages.StagedResponse response; // Completed by the processing stage
+        final long readAt; // System.nanoTime() when the request was read
+
+        PendingResponse(Object request, EchoStages.StagedResponse response, long readAt) {
+            this.request = request;
+            this.response = response;
+            this.readAt = readAt;
+        }
+    }
+
+    /**
+     * Constructs a new ServerThread to handle communication with a specific client.
+     * The reader {@link Thread} is created and started upon construction; it starts
+     * the writer thread once the object streams are set up.
+     *
+     * @param clientSocket The {@link Socket} connected to the client.
+     * @param stages The processing stage shared by all connections.
+     * @param logMessages {@code true} to print every received and sent message.
+     */
+    ServerThread(Socket clientSocket, EchoStages stages, boolean logMessages) {
+        this.clientSocket = clientSocket;
+        this.stages = stages;
+        this.logMessages = logMessages;
+        this.outbound = new ArrayBlockingQueue<>(stages.getConnectionWindow());
+        // Start the thread immediately upon construction
+        new Thread(this, "ClientHandler-" + clientSocket.getInetAddress().getHostAddress()).start();
+    }
+
+    /**
+     * Signals the thread to stop its execution gracefully.
+     */
+    public void stopThread() {
+        this.running = false;
+    }
+
+    /**
+     * The reader stage. It continuously reads objects from the client and submits
+     * them for processing; it never waits for a response itself.
+     */
+    @Override
+    public void run() {
+        System.out.println("ServerThread started for client: " + clientSocket.getInetAddress().getHostAddress());
+        boolean writerStarted = false;
+
+        // The streams are not closed here: closing them would close the socket while the
+        // writer may still be sending responses. The writer closes the socket when done.
+        try {
+            // The buffered stream lets us ask how many request bytes are already waiting
+            BufferedInputStream in = new BufferedInputStream(clientSocket.getInputStream());
+            ObjectInputStream ois = new ObjectInputStream(in);
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+            oos.flush(); // Push the stream header out so the client's ObjectInputStream can start
+
+            new Thread(() -> writeResponses(oos), "ClientWriter-" + clientSocket.getInetAddress().getHostAddress()).start();
+            writerStarted = true;
+
+            while (running) {
+                Object receivedObject = ois.readObject(); // Blocking call, waits for client message
+                long readAt = System.nanoTime();
+
+                if (receivedObject == null) {
+                    System.out.println("Client disconnected gracefully (received null object).");
+                    break; // Exit loop if client sends null or disconnects
+                }
+                if (logMessages) {
+                    System.out.println("From Client " + clientSocket.getInetAddress().getHostAddress() + ": " + receivedObject);
+                }
+
+                // Publish whether more input is waiting before queueing this request, so the
+                // writer sees the up-to-date value once it has written this response
+                inputPending = in.available() >= MIN_REQUEST_BYTES;
+                // put() blocks when this connection already has a full window of unwritten responses
+                outbound.put(new PendingResponse(receivedObject, stages.submit(receivedObject), readAt));
+            }
+        } catch (IOException e) {
+            // This often means the client disconnected unexpectedly or an I/O error occurred
+            if (running) { // Only log if the thread was not intentionally stopped
+                System.err.println("ServerThread I/O error for client " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+            }
+        } catch (ClassNotFoundException e) {
+            System.err.println("ServerThread ClassNotFoundException for client " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            System.err.println("ServerThread interrupted for client " + clientSocket.getInetAddress().getHostAddress());
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("ServerThread unexpected error for client " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            inputPending = false;
+            if (writerStarted) {
+                // Let the writer send what is still pending; it closes the socket afterwards
+                try {
+                    outbound.put(END_OF_STREAM);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closeSocket();
+                }
+            } else {
+                closeSocket();
+            }
+        }
+    }
+
+    /**
+     * The writer stage. It waits for each response in request order, writes it and
+     * flushes in batches, then closes the socket once the reader has finished.
+     *
+     * @param oos The stream used to send responses.
+     */
+    private void writeResponses(ObjectOutputStream oos) {
+        StageMetrics metrics = stages.getMetrics();
+        int unflushed = 0; // Responses written since the last flush
+
+        try {
+            while (true) {
+                PendingResponse pending = outbound.take();
+                if (pending == END_OF_STREAM) {
+                    break;
+                }
+                if (!pending.response.isDone() && unflushed > 0) {
+                    // Do not hold finished responses back while the next one is still being processed
+                    oos.reset();
+                    oos.flush();
+                    unflushed = 0;
+                }
+
+                Object response;
+                try {
+                    response = pending.response.join();
+                } catch (CompletionException e) {
+                    response = "ERROR: " + e.getCause().getMessage();
+                }
+                long writeStart = System.nanoTime();
+                metrics.writeWait().record(writeStart - pending.response.completedAt());
+
+                if (response != null) {
+                    oos.writeObject(response);
+                    unflushed++;
+                    if (logMessages) {
+                        System.out.println("Sent to Client " + clientSocket.getInetAddress().getHostAddress() + ": " + response);
+                    }
+                } else {
+                    System.out.println("Received unexpected object type from client: " + pending.request.getClass().getName());
+                }
+
+                // Flush when the client has no further request queued for us or the batch is full,
+                // so a burst of pipelined requests is answered with a single write.
+                if (unflushed > 0 && (unflushed >= MAX_BATCH || (outbound.isEmpty() && !inputPending))) {
+                    oos.reset(); // Drop back-references so the handle table does not grow forever
+                    oos.flush();
+                    unflushed = 0;
+                }
+
+                long writtenAt = System.nanoTime();
+                metrics.write().record(writtenAt - writeStart);
+                metrics.endToEnd().record(writtenAt - pending.readAt);
+            }
+            if (unflushed > 0) {
+                oos.flush();
+            }
+        } catch (IOException e) {
+            if (running) { // Only log if the thread was not intentionally stopped
+                System.err.println("ServerThread writer I/O error for client " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSocket();
+            System.out.println("ServerThread terminated for client: " + clientSocket.getInetAddress().getHostAddress());
+        }
+    }
+
+    /**
+     * Closes the client socket if it is still open.
+     */
+    private void closeSocket() {
+        if (clientSocket != null && !clientSocket.isClosed()) {
+            try {
+                clientSocket.close();
+                System.out.println("Client socket closed for " + clientSocket.getInetAddress().getHostAddress());
+            } catch (IOException e) {
+                System.err.println("Error closing client socket for " + clientSocket.getInetAddress().getHostAddress() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.hridoy100;
+
+import java.io.Serializable;
+
+/**
+ * A single request or response in the pipelined echo protocol.
+ * The correlation id lets a client keep several requests in flight on one
+ * connection and match every response to the request that produced it,
+ * instead of waiting for each reply before sending the next message.
+ */
+public class EchoFrame implements Serializable {
+
+    // A unique identifier for serialization. Recommended for Serializable classes.
+    private static final long serialVersionUID = 1L;
+
+    private final long correlationId; // Chosen by the client, echoed back unchanged by the server
+    private final String payload; // The message text (request) or the processed text (response)
+
+    /**
+     * Constructs a new EchoFrame.
+     *
+     * @param correlationId The id used to match the response to its request.
+     * @param payload The message content carried by this frame.
+     */
+    public EchoFrame(long correlationId, String payload) {
+        this.correlationId = correlationId;
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the correlation id of this frame.
+     *
+     * @return The correlation id.
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Returns the message content of this frame.
+     *
+     * @return The payload string.
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Creates the response frame for this request, keeping the same correlation id.
+     *
+     * @param responsePayload The processed message to send back.
+     * @return A new frame carrying the response.
+     */
+    public EchoFrame reply(String responsePayload) {
+        return new EchoFrame(correlationId, responsePayload);
+    }
+
+    @Override
+    public String toString() {
+        return "EchoFrame{id=" + correlationId + ", payload='" + payload + "'}";
+    }
+}
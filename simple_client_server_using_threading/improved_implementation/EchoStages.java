@@ -0,0 +1,177 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * This class is the processing stage shared by all connections of the echo server.
+ * Connection threads only do I/O: each {@link ServerThread} reads requests (reader stage),
+ * hands them to {@link #submit(Object)}, and its writer stage waits for the returned
+ * futures in request order. The transformation itself runs on a fixed worker pool fed
+ * by a bounded queue, so CPU-heavy work neither blocks socket reads nor needs one
+ * thread per connection, and processing scales with the number of cores.
+ * <p>
+ * When the processing queue is full, the reader that tries to submit blocks until a
+ * slot frees up. That stops it from reading its socket, which pushes back on the client
+ * through TCP flow control instead of letting requests pile up in memory.
+ * </p>
+ * Configuration (system properties, all optional):
+ * <ul>
+ *   <li>{@code echo.workers}: processing threads (default: available processors)</li>
+ *   <li>{@code echo.queueCapacity}: requests waiting for a worker (default 1024)</li>
+ *   <li>{@code echo.connectionWindow}: unwritten responses per connection (default 256)</li>
+ * </ul>
+ */
+public class EchoStages {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_CONNECTION_WINDOW = 256;
+
+    /**
+     * The future returned by {@link #submit(Object)}. It also remembers when processing
+     * finished, so the writer stage can measure how long a response waited to be written.
+     */
+    public static final class StagedResponse extends CompletableFuture<Object> {
+        private volatile long completedAt; // System.nanoTime() when processing finished
+
+        /**
+         * Returns the time processing finished, or 0 if it has not finished yet.
+         *
+         * @return The completion time in {@link System#nanoTime()} units.
+         */
+        public long completedAt() {
+            return completedAt;
+        }
+    }
+
+    private final ThreadPoolExecutor workers; // The processing stage
+    private final Function<String, String> transformation; // The business logic applied to each message
+    private final int connectionWindow; // Maximum responses a connection may have pending for its writer
+    private final StageMetrics metrics = new StageMetrics(); // Per-stage latency statistics
+
+    /**
+     * Creates the processing stage.
+     *
+     * @param workerThreads Number of processing threads.
+     * @param queueCapacity Number of requests that may wait for a free worker.
+     * @param connectionWindow Number of responses each connection may have waiting for its writer.
+     * @param transformation The function applied to every message.
+     */
+    public EchoStages(int workerThreads, int queueCapacity, int connectionWindow, Function<String, String> transformation) {
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "EchoWorker-" + workerNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    // Queue full: block the submitting reader instead of rejecting the request
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Processing stage has been shut down");
+                    }
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for the processing queue", e);
+                    }
+                });
+        this.workers.prestartAllCoreThreads(); // The blocking hand-off above assumes all workers exist
+        this.transformation = transformation;
+        this.connectionWindow = connectionWindow;
+    }
+
+    /**
+     * Creates the processing stage from the {@code echo.*} system properties, using
+     * upper-casing (the original echo behaviour) as the transformation.
+     *
+     * @return The configured stage.
+     */
+    public static EchoStages fromSystemProperties() {
+        int workerThreads = Integer.getInteger("echo.workers", Runtime.getRuntime().availableProcessors());
+        int queueCapacity = Integer.getInteger("echo.queueCapacity", DEFAULT_QUEUE_CAPACITY);
+        int connectionWindow = Integer.getInteger("echo.connectionWindow", DEFAULT_CONNECTION_WINDOW);
+        return new EchoStages(workerThreads, queueCapacity, connectionWindow, String::toUpperCase);
+    }
+
+    /**
+     * Hands a request to the processing stage.
+     *
+     * @param request The object read from the client.
+     * @return A future completed with the response, or with {@code null} for unsupported request types.
+     */
+    public StagedResponse submit(Object request) {
+        StagedResponse response = new StagedResponse();
+        long enqueuedAt = System.nanoTime();
+        workers.execute(() -> {
+            long startedAt = System.nanoTime();
+            metrics.queueWait().record(startedAt - enqueuedAt);
+            Object result = null;
+            RuntimeException failure = null;
+            try {
+                result = process(request);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            response.completedAt = System.nanoTime(); // Set before completing so the writer always sees it
+            metrics.processing().record(response.completedAt - startedAt);
+            if (failure == null) {
+                response.complete(result);
+            } else {
+                response.completeExceptionally(failure);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Applies the transformation to a single request.
+     *
+     * @param request The object read from the client.
+     * @return The response object, or {@code null} if the request type is not supported.
+     */
+    private Object process(Object request) {
+        if (request instanceof String) {
+            return transformation.apply((String) request);
+        }
+        if (request instanceof EchoFrame) {
+            EchoFrame frame = (EchoFrame) request;
+            return frame.reply(transformation.apply(frame.getPayload()));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the maximum number of responses a connection may have waiting for its writer.
+     *
+     * @return The per-connection window.
+     */
+    public int getConnectionWindow() {
+        return connectionWindow;
+    }
+
+    /**
+     * Returns the latency statistics of all stages.
+     *
+     * @return The stage metrics.
+     */
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops accepting new requests; requests already queued are still processed.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
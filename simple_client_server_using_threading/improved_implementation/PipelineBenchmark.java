@@ -0,0 +1,125 @@
+package io.github.hridoy100;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class compares the throughput of the stop-and-wait protocol used by {@link Client}
+ * with the pipelined protocol of {@link PipelinedClient} on the loopback interface.
+ * It starts an in-process echo server on a free port using the same {@link ServerThread}
+ * and {@link EchoStages} as {@link Server}, so both modes are measured against identical
+ * server code. The stage latency metrics are printed at the end of the run.
+ * <p>
+ * Run: {@code java io.github.hridoy100.PipelineBenchmark [messages]}
+ * </p>
+ */
+public class PipelineBenchmark {
+
+    private static final int DEFAULT_MESSAGES = 20_000; // Requests sent per measured run
+    private static final int[] WINDOWS = {1, 8, 32, 128}; // In-flight limits tried in pipelined mode
+    private static final String PAYLOAD = "hello pipelined world"; // Request text used for every message
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MESSAGES;
+
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            int port = serverSocket.getLocalPort();
+            EchoStages stages = EchoStages.fromSystemProperties();
+            Thread acceptor = new Thread(() -> acceptLoop(serverSocket, stages), "Benchmark-Acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            System.out.println("Echo server listening on loopback port " + port + ", " + messages + " messages per run.");
+
+            // Warm-up so that both modes run with JIT-compiled code
+            runStopAndWait(port, messages / 4);
+            runPipelined(port, messages / 4, 32);
+
+            double baseline = runStopAndWait(port, messages);
+            System.out.printf("%-16s %8s %14s %10s%n", "mode", "window", "msgs/sec", "speedup");
+            System.out.printf("%-16s %8d %14.0f %9.2fx%n", "stop-and-wait", 1, baseline, 1.0);
+            for (int window : WINDOWS) {
+                double throughput = runPipelined(port, messages, window);
+                System.out.printf("%-16s %8d %14.0f %9.2fx%n", "pipelined", window, throughput, throughput / baseline);
+            }
+            System.out.println(stages.getMetrics().snapshot());
+            stages.shutdown();
+        }
+    }
+
+    /**
+     * Accepts benchmark connections and hands each one to a quiet {@link ServerThread}.
+     *
+     * @param serverSocket The listening socket.
+     * @param stages The processing stage shared by the benchmark connections.
+     */
+    private static void acceptLoop(ServerSocket serverSocket, EchoStages stages) {
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket clientSocket = serverSocket.accept();
+                clientSocket.setTcpNoDelay(true);
+                new ServerThread(clientSocket, stages, false);
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.err.println("Benchmark acceptor error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends every message and waits for its reply before sending the next one.
+     *
+     * @param port The server port.
+     * @param messages The number of round trips.
+     * @return The measured throughput in messages per second.
+     */
+    private static double runStopAndWait(int port, int messages) throws IOException, ClassNotFoundException {
+        try (
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()))
+        ) {
+            socket.setTcpNoDelay(true);
+            oos.flush(); // Send the stream header before blocking on the server's header
+            ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                if (i % 1024 == 0) {
+                    oos.reset(); // Keep the handle table bounded, as the pipelined client does
+                }
+                oos.writeObject(PAYLOAD + i);
+                oos.flush();
+                ois.readObject(); // Wait for the reply before sending the next request
+            }
+            return messages / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * Sends every message through a {@link PipelinedClient} with the given window.
+     *
+     * @param port The server port.
+     * @param messages The number of requests.
+     * @param window The maximum number of requests in flight.
+     * @return The measured throughput in messages per second.
+     */
+    private static double runPipelined(int port, int messages, int window) throws Exception {
+        try (PipelinedClient client = new PipelinedClient(InetAddress.getLoopbackAddress().getHostAddress(), port, window)) {
+            long start = System.nanoTime();
+            CompletableFuture<String> last = null;
+            for (int i = 0; i < messages; i++) {
+                last = client.send(PAYLOAD + i);
+            }
+            client.flush();
+            last.get(); // The server answers in order, so the last reply arrives last
+            return messages / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+}
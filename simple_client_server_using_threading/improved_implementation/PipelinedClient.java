@@ -0,0 +1,225 @@
+package io.github.hridoy100;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * This class represents a client that pipelines requests to the echo server.
+ * Instead of waiting for each reply (as {@link Client} does), it keeps up to a fixed
+ * number of {@link EchoFrame} requests in flight and matches the responses to their
+ * requests by correlation id on a separate reader thread.
+ * <p>
+ * Requests are written without flushing; the stream is flushed when the in-flight
+ * window is full, when {@link #flush()} is called, or before the caller would block.
+ * This lets the server answer a whole batch of requests with a single write.
+ * </p>
+ */
+public class PipelinedClient implements Closeable {
+
+    private static final String SERVER_ADDRESS = "127.0.0.1"; // The IP address of the server
+    private static final int SERVER_PORT = 22222; // The port number the server is listening on
+    private static final int DEFAULT_WINDOW = 32; // Requests allowed in flight by the console client
+
+    private final Socket socket; // The socket connected to the server
+    private final ObjectOutputStream oos; // Stream used to send request frames
+    private final ObjectInputStream ois; // Stream used to receive response frames
+    private final Semaphore window; // One permit per request that may be in flight
+    private final Map<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>(); // Pending requests by id
+    private final Thread responseReader; // Completes pending futures as responses arrive
+    private long nextCorrelationId = 0; // Guarded by oos
+    private boolean resetPending = false; // Guarded by oos; set after each flush
+    private volatile boolean running = true; // Flag to control the reader thread's loop
+    private volatile IOException failure; // Set (under oos) by the reader once no more responses can arrive
+
+    /**
+     * Connects to the echo server and starts the response reader thread.
+     *
+     * @param host The server address.
+     * @param port The server port.
+     * @param maxInFlight The maximum number of requests that may await a response at once.
+     * @throws IOException If the connection or the object streams cannot be set up.
+     */
+    public PipelinedClient(String host, int port, int maxInFlight) throws IOException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true); // Batching is done by us, not by Nagle's algorithm
+        this.oos = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.oos.flush(); // Send the stream header so the server's ObjectInputStream can start
+        this.ois = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.window = new Semaphore(maxInFlight);
+        this.responseReader = new Thread(this::readResponses, "PipelinedClient-Reader");
+        this.responseReader.setDaemon(true);
+        this.responseReader.start();
+    }
+
+    /**
+     * Sends a request without waiting for its response. Blocks only when the
+     * in-flight window is full, after flushing the requests written so far.
+     *
+     * @param message The message to send.
+     * @return A future completed with the server's response.
+     * @throws IOException If the request cannot be written, or the connection is already closed.
+     * @throws InterruptedException If interrupted while waiting for window space.
+     */
+    public CompletableFuture<String> send(String message) throws IOException, InterruptedException {
+        checkOpen();
+        if (!window.tryAcquire()) {
+            flush(); // Let the server see what is queued before we block on its replies
+            window.acquire(); // The reader releases the permits of failed requests, so this cannot wait forever
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        synchronized (oos) {
+            if (failure != null) {
+                window.release(); // The request is not sent, so it does not take a slot
+                checkOpen();
+            }
+            long correlationId = ++nextCorrelationId;
+            inFlight.put(correlationId, response);
+            if (resetPending) {
+                // Reset before the next frame rather than after a flush, so a flushed batch
+                // never ends with a bare TC_RESET marker that the server would wait on
+                oos.reset();
+                resetPending = false;
+            }
+            oos.writeObject(new EchoFrame(correlationId, message));
+        }
+        return response;
+    }
+
+    /**
+     * Fails fast once the reader has stopped: a request sent now would never get a response.
+     *
+     * @throws IOException If the connection is closed.
+     */
+    private void checkOpen() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Flushes all requests written so far to the server.
+     *
+     * @throws IOException If the stream cannot be flushed.
+     */
+    public void flush() throws IOException {
+        synchronized (oos) {
+            oos.flush();
+            resetPending = true; // Drop back-references before the next batch so the handle table stays small
+        }
+    }
+
+    /**
+     * Returns the number of requests currently waiting for a response.
+     *
+     * @return The in-flight request count.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * The loop executed by the response reader thread. Each response completes the
+     * future of its request and frees one slot of the in-flight window.
+     */
+    private void readResponses() {
+        try {
+            while (running) {
+                Object received = ois.readObject();
+                if (received instanceof EchoFrame) {
+                    EchoFrame frame = (EchoFrame) received;
+                    CompletableFuture<String> pending = inFlight.remove(frame.getCorrelationId());
+                    if (pending != null) {
+                        pending.complete(frame.getPayload());
+                        window.release();
+                    } else {
+                        System.err.println("Response for unknown correlation id " + frame.getCorrelationId());
+                    }
+                } else if (received != null) {
+                    System.out.println("Received unexpected object from server: " + received.getClass().getName());
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            if (running) { // Only log if the client was not intentionally closed
+                System.err.println("PipelinedClient reader error: " + e.getMessage());
+            }
+        } finally {
+            // Nothing more will arrive; fail every request still waiting for an answer. The flag is set
+            // under oos, so a request registered after this sweep is refused by send() instead
+            IOException closed = new IOException("Connection closed before a response was received");
+            synchronized (oos) {
+                failure = closed;
+            }
+            for (Long correlationId : inFlight.keySet()) {
+                CompletableFuture<String> pending = inFlight.remove(correlationId);
+                if (pending != null) {
+                    pending.completeExceptionally(closed);
+                    window.release(); // Wakes a sender waiting for a slot; it then sees the failure
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes outstanding requests and closes the connection.
+     *
+     * @throws IOException If an I/O error occurs while closing.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            flush();
+        } finally {
+            socket.close(); // Also unblocks the reader thread
+        }
+    }
+
+    /**
+     * Interactive console client: every line typed is sent immediately and the
+     * upper-cased response is printed whenever it arrives, without blocking input.
+     */
+    public static void main(String[] args) {
+        System.out.println("Pipelined client application started.");
+
+        try (
+            Scanner scanner = new Scanner(System.in);
+            PipelinedClient client = new PipelinedClient(SERVER_ADDRESS, SERVER_PORT, DEFAULT_WINDOW)
+        ) {
+            System.out.println("Successfully connected to server at " + SERVER_ADDRESS + ":" + SERVER_PORT);
+            System.out.println("Type your messages and press Enter. Type 'exit' to quit.");
+
+            while (scanner.hasNextLine()) {
+                String messageToSend = scanner.nextLine();
+                if ("exit".equalsIgnoreCase(messageToSend)) {
+                    System.out.println("Exiting client application.");
+                    break;
+                }
+                client.send(messageToSend)
+                      .thenAccept(response -> System.out.println("Received from server: '" + response + "'"));
+                client.flush(); // Interactive input: do not hold the request back for batching
+            }
+        } catch (IOException e) {
+            System.err.println("Client error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            System.err.println("Client interrupted while waiting for the server.");
+            Thread.currentThread().interrupt();
+        } finally {
+            System.out.println("Client application terminated.");
+        }
+    }
+}
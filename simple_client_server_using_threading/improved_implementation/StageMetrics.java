@@ -0,0 +1,89 @@
+package io.github.hridoy100;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects latency statistics for every stage of the staged echo server
+ * (see {@link EchoStages}). Each stage keeps a count, a running total and a maximum,
+ * all updated without locks so that recording never slows the stage being measured.
+ */
+public class StageMetrics {
+
+    /**
+     * Latency statistics for a single stage.
+     */
+    public static class Stage {
+        private final String name; // Display name of the stage
+        private final LongAdder count = new LongAdder(); // Number of recorded samples
+        private final LongAdder totalNanos = new LongAdder(); // Sum of all samples
+        private final AtomicLong maxNanos = new AtomicLong(); // Largest sample seen so far
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records one latency sample.
+         *
+         * @param nanos The measured duration in nanoseconds.
+         */
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Returns a one-line summary of this stage (samples, mean and max in microseconds).
+         *
+         * @return The formatted summary.
+         */
+        public String summary() {
+            long samples = count.sum();
+            long meanMicros = samples == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / samples);
+            long maxMicros = TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+            return String.format("%-12s samples=%-10d mean=%6dus max=%8dus", name, samples, meanMicros, maxMicros);
+        }
+    }
+
+    private final Stage queueWait = new Stage("queue-wait"); // From hand-off by the reader until a worker starts
+    private final Stage processing = new Stage("processing"); // Time spent in the transformation itself
+    private final Stage writeWait = new Stage("write-wait"); // From processing done until the writer picks it up
+    private final Stage write = new Stage("write"); // Serializing (and flushing) the response
+    private final Stage endToEnd = new Stage("end-to-end"); // From request read until response written
+
+    public Stage queueWait() {
+        return queueWait;
+    }
+
+    public Stage processing() {
+        return processing;
+    }
+
+    public Stage writeWait() {
+        return writeWait;
+    }
+
+    public Stage write() {
+        return write;
+    }
+
+    public Stage endToEnd() {
+        return endToEnd;
+    }
+
+    /**
+     * Returns a multi-line snapshot of all stages, suitable for periodic console output.
+     *
+     * @return The formatted snapshot.
+     */
+    public String snapshot() {
+        return "Stage metrics:\n  " + queueWait.summary()
+                + "\n  " + processing.summary()
+                + "\n  " + writeWait.summary()
+                + "\n  " + write.summary()
+                + "\n  " + endToEnd.summary();
+    }
+}
@@ -0,0 +1,257 @@
+package io.github.hridoy100;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * This class represents the event-driven mode of the server. Like {@link Server}'s
+ * iterative mode it runs on a single thread, but instead of blocking on one client at a
+ * time it registers every connection with one NIO {@link Selector} and only touches a
+ * socket when the operating system reports it ready. A client that is idle or slow
+ * therefore no longer makes the others wait in the accept backlog.
+ * <p>
+ * The wire protocol is unchanged: clients still use {@link java.io.ObjectOutputStream}
+ * and {@link java.io.ObjectInputStream}, and {@link StringStreamCodec} translates
+ * between those streams and the non-blocking buffers used here.
+ * </p>
+ */
+public class SelectorServer implements Closeable {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024; // Read buffer per connection
+    private static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024; // Largest single message accepted
+
+    /**
+     * The state of one client connection, kept as the attachment of its selection key.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final String address; // Remote address, for log messages
+        final StringStreamCodec codec = new StringStreamCodec(); // Decoder state for this client's stream
+        final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>(); // Responses not yet fully written
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE); // Kept in write mode between reads
+        boolean closeAfterWrite = false; // Set when the client asked to exit
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.address = channel.socket().getInetAddress().getHostAddress();
+        }
+    }
+
+    private final int port;
+    private final boolean verbose; // Log every message, as the iterative mode does
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running = true;
+    private int openConnections = 0;
+
+    /**
+     * Creates the server. Call {@link #bind(int)} and then {@link #serve()}.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @param verbose Whether to log each connection and message.
+     */
+    public SelectorServer(int port, boolean verbose) {
+        this.port = port;
+        this.verbose = verbose;
+    }
+
+    /**
+     * Opens the selector and the listening channel.
+     *
+     * @param backlog The listen backlog.
+     * @return The port actually bound.
+     * @throws IOException If the port cannot be bound.
+     */
+    public int bind(int backlog) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), backlog);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the event loop on the calling thread until {@link #close()} is called.
+     *
+     * @throws IOException If the selector itself fails.
+     */
+    public void serve() throws IOException {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (IOException e) {
+                        if (key.attachment() == null) {
+                            System.err.println("Error accepting client connection: " + e.getMessage());
+                            continue;
+                        }
+                        // One client's failure must never stop the loop serving all the others
+                        if (verbose) {
+                            System.out.println("Client disconnected or communication error: " + e.getMessage());
+                        }
+                        closeConnection(key);
+                    }
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    System.err.println("Error closing channel: " + e.getMessage());
+                }
+            }
+            selector.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        // Drain every pending connection, not just one, so a burst empties the backlog quickly
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+            openConnections++;
+            if (verbose) {
+                System.out.println("Client connected from " + connection.address + " (" + openConnections + " open)");
+            }
+            // The client's ObjectInputStream constructor blocks until it sees our stream header
+            connection.pendingWrites.add(StringStreamCodec.header());
+            try {
+                write(key);
+            } catch (IOException e) {
+                closeConnection(key);
+            }
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (connection.channel.read(connection.readBuffer) < 0) {
+            closeConnection(key);
+            return;
+        }
+
+        connection.readBuffer.flip();
+        String message;
+        while (!connection.closeAfterWrite && (message = connection.codec.decode(connection.readBuffer)) != null) {
+            handleMessage(connection, message);
+        }
+        connection.readBuffer.compact();
+
+        if (!connection.readBuffer.hasRemaining()) {
+            growReadBuffer(connection); // Full but still no complete message: it is larger than the buffer
+        }
+        if (!connection.pendingWrites.isEmpty() || connection.closeAfterWrite) {
+            write(key); // Try right away; most responses fit in the socket buffer
+        }
+    }
+
+    private void handleMessage(Connection connection, String message) {
+        if (verbose) {
+            System.out.println("Received from " + connection.address + ": '" + message + "'");
+        }
+        if ("exit".equalsIgnoreCase(message)) {
+            if (verbose) {
+                System.out.println("Client requested to exit. Closing connection.");
+            }
+            connection.closeAfterWrite = true;
+            return;
+        }
+        // Process the message (convert to uppercase), exactly as the iterative mode does
+        connection.pendingWrites.add(StringStreamCodec.encode(message.toUpperCase()));
+    }
+
+    private void growReadBuffer(Connection connection) throws IOException {
+        int capacity = connection.readBuffer.capacity();
+        if (capacity >= MAX_BUFFER_SIZE) {
+            throw new IOException("Message exceeds " + MAX_BUFFER_SIZE + " bytes");
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.min(capacity * 2, MAX_BUFFER_SIZE));
+        connection.readBuffer.flip();
+        larger.put(connection.readBuffer);
+        connection.readBuffer = larger;
+    }
+
+    /**
+     * Writes as much pending output as the socket accepts without blocking. Interest in
+     * OP_WRITE is only kept while output remains, so idle connections cost nothing.
+     */
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        while (!connection.pendingWrites.isEmpty()) {
+            ByteBuffer buffer = connection.pendingWrites.peek();
+            connection.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break; // Socket buffer full; wait for the selector to report it writable
+            }
+            connection.pendingWrites.poll();
+        }
+
+        if (connection.pendingWrites.isEmpty()) {
+            if (connection.closeAfterWrite) {
+                closeConnection(key);
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            // Stop reading until the client drains its responses, so a client that never
+            // reads cannot make the server buffer without bound
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void closeConnection(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing client connection: " + e.getMessage());
+        }
+        openConnections--;
+        if (verbose) {
+            System.out.println("Client connection closed (" + openConnections + " open).");
+        }
+    }
+
+    /**
+     * Stops the event loop. The loop thread then closes the listening channel and all
+     * client connections, so no channel is touched from two threads at once.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+}
@@ -9,92 +9,146 @@ import java.net.Socket;
 /**
  * This class represents a simple server application that listens for client connections,
  * receives messages, converts them to uppercase, and sends them back to the client.
- * It handles one client at a time without multithreading.
+ * It never starts extra threads and can run in one of two modes:
+ * <ul>
+ *   <li>{@code iterative} (default): handles one client at a time; other clients wait
+ *       in the accept backlog until the current one disconnects.</li>
+ *   <li>{@code nio}: a single-threaded event loop ({@link SelectorServer}) that serves
+ *       all connected clients at once through one NIO selector.</li>
+ * </ul>
+ * Usage: {@code java io.github.hridoy100.Server [iterative|nio]}
+ * (see {@link ServerModeBenchmark} for a comparison of the two).
  */
 public class Server {
 
     private static final int SERVER_PORT = 22222; // The port number the server will listen on
+    private static final int BACKLOG = 1024; // Connections the OS may queue before we accept them
 
     public static void main(String[] args) {
-        System.out.println("Server application started.");
+        boolean nioMode = args.length > 0 && "nio".equalsIgnoreCase(args[0]);
+        System.out.println("Server application started in " + (nioMode ? "nio" : "iterative") + " mode.");
+
+        if (nioMode) {
+            SelectorServer selectorServer = new SelectorServer(SERVER_PORT, true);
+            try {
+                selectorServer.bind(BACKLOG);
+                System.out.println("Server listening on port " + SERVER_PORT + "...");
+                selectorServer.serve();
+            } catch (IOException e) {
+                System.err.println("Server error: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                selectorServer.close();
+                System.out.println("Server application terminated.");
+            }
+            return;
+        }
+
         ServerSocket serverSocket = null; // Declare outside try-with-resources to close in finally
 
         try {
-            serverSocket = new ServerSocket(SERVER_PORT);
+            serverSocket = new ServerSocket(SERVER_PORT, BACKLOG);
             System.out.println("Server listening on port " + SERVER_PORT + "...");
+            serveIteratively(serverSocket, true);
+        } catch (IOException e) {
+            // Handle errors related to server socket creation or acceptance
+            System.err.println("Server error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Ensure the server socket is closed when the server application terminates
+            if (serverSocket != null && !serverSocket.isClosed()) {
+                try {
+                    serverSocket.close();
+                    System.out.println("Server socket closed.");
+                } catch (IOException e) {
+                    System.err.println("Error closing server socket: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            System.out.println("Server application terminated.");
+        }
+    }
 
-            // Infinite loop to continuously accept new client connections
-            while (true) {
+    /**
+     * The iterative mode: accepts and serves one client at a time until the server socket
+     * is closed.
+     *
+     * @param serverSocket The bound server socket.
+     * @param verbose Whether to log each connection and message.
+     */
+    static void serveIteratively(ServerSocket serverSocket, boolean verbose) {
+        // Infinite loop to continuously accept new client connections
+        while (!serverSocket.isClosed()) {
+            if (verbose) {
                 System.out.println("Waiting for a client to connect...");
-                // Accept a new client connection
-                // This is a blocking call; the server waits here until a client connects
-                try (Socket clientSocket = serverSocket.accept();
-                     ObjectInputStream ois = new ObjectInputStream(clientSocket.getInputStream());
-                     ObjectOutputStream oos = new ObjectOutputStream(clientSocket.getOutputStream())) {
+            }
+            // Accept a new client connection
+            // This is a blocking call; the server waits here until a client connects
+            try (Socket clientSocket = serverSocket.accept();
+                 ObjectInputStream ois = new ObjectInputStream(clientSocket.getInputStream());
+                 ObjectOutputStream oos = new ObjectOutputStream(clientSocket.getOutputStream())) {
 
+                if (verbose) {
                     System.out.println("Client connected from " + clientSocket.getInetAddress().getHostAddress());
+                }
 
-                    String receivedMessage;
-                    // Loop to continuously receive messages from the connected client
-                    while (true) {
-                        try {
-                            // Read object from client
-                            Object clientObject = ois.readObject();
+                String receivedMessage;
+                // Loop to continuously receive messages from the connected client
+                while (true) {
+                    try {
+                        // Read object from client
+                        Object clientObject = ois.readObject();
 
-                            if (clientObject instanceof String) {
-                                receivedMessage = (String) clientObject;
+                        if (clientObject instanceof String) {
+                            receivedMessage = (String) clientObject;
+                            if (verbose) {
                                 System.out.println("Received from client: '" + receivedMessage + "'");
+                            }
 
-                                // If client sends "exit", break the inner loop to close this client's connection
-                                if ("exit".equalsIgnoreCase(receivedMessage)) {
+                            // If client sends "exit", break the inner loop to close this client's connection
+                            if ("exit".equalsIgnoreCase(receivedMessage)) {
+                                if (verbose) {
                                     System.out.println("Client requested to exit. Closing connection.");
-                                    break;
                                 }
+                                break;
+                            }
 
-                                // Process the message (convert to uppercase)
-                                String serverResponse = receivedMessage.toUpperCase();
+                            // Process the message (convert to uppercase)
+                            String serverResponse = receivedMessage.toUpperCase();
 
-                                // Send the processed message back to the client
-                                oos.writeObject(serverResponse);
-                                oos.flush(); // Ensure the message is sent immediately
+                            // Send the processed message back to the client
+                            oos.writeObject(serverResponse);
+                            oos.flush(); // Ensure the message is sent immediately
+                            if (verbose) {
                                 System.out.println("Sent to client: '" + serverResponse + "'");
-                            } else {
-                                System.out.println("Received unexpected object type from client: " + clientObject.getClass().getName());
-                                // Optionally, send an error back to the client or close connection
-                                break; // Break to close connection for unexpected input
                             }
-                        } catch (IOException e) {
-                            // Client disconnected or other communication error
+                        } else {
+                            System.out.println("Received unexpected object type from client: " + clientObject.getClass().getName());
+                            // Optionally, send an error back to the client or close connection
+                            break; // Break to close connection for unexpected input
+                        }
+                    } catch (IOException e) {
+                        // Client disconnected or other communication error
+                        if (verbose) {
                             System.out.println("Client disconnected or communication error: " + e.getMessage());
-                            break; // Break the inner loop to handle next client
-                        } catch (ClassNotFoundException e) {
-                            System.err.println("Error deserializing object from client: " + e.getMessage());
-                            e.printStackTrace();
-                            break; // Break to close connection for deserialization error
                         }
+                        break; // Break the inner loop to handle next client
+                    } catch (ClassNotFoundException e) {
+                        System.err.println("Error deserializing object from client: " + e.getMessage());
+                        e.printStackTrace();
+                        break; // Break to close connection for deserialization error
                     }
-                } catch (IOException e) {
-                    System.err.println("Error accepting client connection or setting up streams: " + e.getMessage());
-                    e.printStackTrace();
                 }
-                System.out.println("Client connection closed.");
-            }
-        } catch (IOException e) {
-            // Handle errors related to server socket creation or acceptance
-            System.err.println("Server error: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            // Ensure the server socket is closed when the server application terminates
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                try {
-                    serverSocket.close();
-                    System.out.println("Server socket closed.");
-                } catch (IOException e) {
-                    System.err.println("Error closing server socket: " + e.getMessage());
-                    e.printStackTrace();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break; // The server is shutting down
                 }
+                System.err.println("Error accepting client connection or setting up streams: " + e.getMessage());
+                e.printStackTrace();
+            }
+            if (verbose) {
+                System.out.println("Client connection closed.");
             }
-            System.out.println("Server application terminated.");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package io.github.hridoy100;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class compares the two modes of {@link Server} head to head. For each mode it
+ * starts the server in-process on a free loopback port, then connects many clients at
+ * the same moment. Every client behaves like {@link Client}: it sends a String with
+ * {@link ObjectOutputStream}, waits for the upper-cased reply, and repeats.
+ * <p>
+ * The iterative mode serves the clients one after another, so the last client waits for
+ * all the others before getting its first reply. The NIO mode interleaves them on its
+ * single thread. Both servers use one thread; the client threads only generate load.
+ * </p>
+ * Usage: {@code java io.github.hridoy100.ServerModeBenchmark [clients] [messagesPerClient]}
+ */
+public class ServerModeBenchmark {
+
+    private static final int DEFAULT_CLIENTS = 200;
+    private static final int DEFAULT_MESSAGES_PER_CLIENT = 100;
+    private static final int BACKLOG = 4096; // Large enough that no benchmark client is refused
+
+    /**
+     * Results of one benchmark run.
+     */
+    private static final class Result {
+        final AtomicLong messages = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong firstReplies = new AtomicLong();
+        final AtomicLong firstReplyTotalNanos = new AtomicLong(); // Start until each client's first reply
+        final AtomicLong firstReplyMaxNanos = new AtomicLong();
+        final AtomicLong roundTripTotalNanos = new AtomicLong();
+        long elapsedNanos;
+    }
+
+    /** A server started by {@link ServerMode}: the port it listens on and how to stop it. */
+    private static final class RunningServer implements Closeable {
+        final int port;
+        final Closeable stopAction; // Only I/O can fail while stopping; nothing here waits or can be interrupted
+
+        RunningServer(int port, Closeable stopAction) {
+            this.port = port;
+            this.stopAction = stopAction;
+        }
+
+        @Override
+        public void close() throws IOException {
+            stopAction.close();
+        }
+    }
+
+    /** Starts one of the server modes on a free port of the given address. */
+    private interface ServerMode {
+        RunningServer start(InetAddress address) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int messagesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MESSAGES_PER_CLIENT;
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+
+        System.out.println("Server mode benchmark: " + clients + " concurrent clients x "
+                + messagesPerClient + " round trips, one server thread per mode.");
+
+        ServerMode iterative = address -> {
+            ServerSocket serverSocket = new ServerSocket(0, BACKLOG, address);
+            startDaemon("IterativeServer", () -> Server.serveIteratively(serverSocket, false));
+            return new RunningServer(serverSocket.getLocalPort(), serverSocket::close);
+        };
+        ServerMode nio = address -> {
+            SelectorServer selectorServer = new SelectorServer(0, false);
+            int port = selectorServer.bind(BACKLOG);
+            startDaemon("SelectorServer", () -> {
+                try {
+                    selectorServer.serve();
+                } catch (IOException e) {
+                    System.err.println("Selector server error: " + e.getMessage());
+                }
+            });
+            return new RunningServer(port, selectorServer::close);
+        };
+
+        // Warm up both code paths so the measured runs are not dominated by JIT compilation
+        run(nio, loopback, Math.min(clients, 20), 200);
+        run(iterative, loopback, Math.min(clients, 20), 200);
+
+        System.out.printf("%n%-10s %12s %14s %16s %16s %14s %9s%n",
+                "mode", "elapsed(ms)", "msgs/sec", "mean 1st(ms)", "max 1st(ms)", "mean rtt(us)", "failures");
+        print("iterative", run(iterative, loopback, clients, messagesPerClient));
+        print("nio", run(nio, loopback, clients, messagesPerClient));
+    }
+
+    private static Result run(ServerMode mode, InetAddress address, int clients, int messagesPerClient) throws Exception {
+        Result result = new Result();
+        try (RunningServer server = mode.start(address)) {
+            int port = server.port;
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Thread> clientThreads = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                int clientNumber = i;
+                Thread thread = new Thread(() -> {
+                    try {
+                        startSignal.await();
+                        runClient(address, port, clientNumber, messagesPerClient, result);
+                    } catch (IOException | ClassNotFoundException e) {
+                        result.failures.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "BenchmarkClient-" + i);
+                thread.start();
+                clientThreads.add(thread);
+            }
+
+            long startedAt = System.nanoTime();
+            startSignal.countDown();
+            for (Thread thread : clientThreads) {
+                thread.join();
+            }
+            result.elapsedNanos = System.nanoTime() - startedAt;
+        }
+        return result;
+    }
+
+    /**
+     * One client session, equivalent to {@link Client} typing messages as fast as possible.
+     */
+    private static void runClient(InetAddress address, int port, int clientNumber, int messages, Result result)
+            throws IOException, ClassNotFoundException {
+        long startedAt = System.nanoTime();
+        try (Socket socket = new Socket(address, port)) {
+            socket.setTcpNoDelay(true);
+            ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            oos.flush(); // Send the stream header before waiting for the server's
+            ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            for (int i = 0; i < messages; i++) {
+                String message = "client-" + clientNumber + " message-" + i;
+                long sentAt = System.nanoTime();
+                oos.writeObject(message);
+                oos.flush();
+                Object reply = ois.readObject();
+                long receivedAt = System.nanoTime();
+
+                if (!message.toUpperCase().equals(reply)) {
+                    throw new IOException("Unexpected reply: " + reply);
+                }
+                if (i == 0) {
+                    long firstReply = receivedAt - startedAt;
+                    result.firstReplies.incrementAndGet();
+                    result.firstReplyTotalNanos.addAndGet(firstReply);
+                    result.firstReplyMaxNanos.accumulateAndGet(firstReply, Math::max);
+                }
+                result.roundTripTotalNanos.addAndGet(receivedAt - sentAt);
+                result.messages.incrementAndGet();
+            }
+        }
+    }
+
+    private static void startDaemon(String name, Runnable body) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void print(String mode, Result result) {
+        long messages = Math.max(1, result.messages.get());
+        double seconds = result.elapsedNanos / 1e9;
+        System.out.printf("%-10s %12d %14.0f %16.1f %16.1f %14.1f %9d%n",
+                mode,
+                TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos),
+                result.messages.get() / seconds,
+                result.firstReplyTotalNanos.get() / 1e6 / Math.max(1, result.firstReplies.get()),
+                result.firstReplyMaxNanos.get() / 1e6,
+                result.roundTripTotalNanos.get() / 1e3 / messages,
+                result.failures.get());
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.hridoy100;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads and writes the small part of the Java Object Serialization stream
+ * format that a String-only peer uses, working directly on {@link ByteBuffer}s.
+ * <p>
+ * {@link java.io.ObjectInputStream} can only block until a whole object has arrived,
+ * which does not work on a non-blocking channel where a message may arrive in pieces.
+ * This codec instead reports "not enough data yet" and resumes once more bytes are read,
+ * so a selector-based server can talk to the unchanged {@link Client}, which still uses
+ * {@link java.io.ObjectOutputStream} and {@link java.io.ObjectInputStream}.
+ * </p>
+ * Supported: the stream header, {@code TC_STRING}, {@code TC_LONGSTRING},
+ * {@code TC_REFERENCE} to an earlier string, and {@code TC_RESET}. Anything else
+ * (for example a serialized object) is reported as a {@link StreamCorruptedException}.
+ */
+public class StringStreamCodec {
+
+    /** The four bytes every object stream starts with: magic 0xACED, version 5. */
+    public static final byte[] STREAM_HEADER = {(byte) 0xAC, (byte) 0xED, 0x00, 0x05};
+
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_RESET = 0x79;
+    private static final byte TC_LONGSTRING = 0x7C;
+    private static final int BASE_WIRE_HANDLE = 0x7E0000; // Handle number of the first object in a stream
+
+    private boolean headerRead = false; // Whether the peer's stream header has been consumed
+    private final List<String> handles = new ArrayList<>(); // Strings read so far, indexed by handle
+
+    /**
+     * Decodes the next String from the buffer. If the buffer does not yet hold a complete
+     * message, nothing is consumed and {@code null} is returned.
+     *
+     * @param in A buffer in read mode (after {@code flip()}).
+     * @return The next String, or {@code null} if more data is needed.
+     * @throws StreamCorruptedException If the stream contains something other than Strings.
+     */
+    public String decode(ByteBuffer in) throws StreamCorruptedException {
+        while (true) {
+            if (!headerRead) {
+                if (in.remaining() < STREAM_HEADER.length) {
+                    return null;
+                }
+                for (byte expected : STREAM_HEADER) {
+                    if (in.get() != expected) {
+                        throw new StreamCorruptedException("Invalid object stream header");
+                    }
+                }
+                headerRead = true;
+            }
+            if (!in.hasRemaining()) {
+                return null;
+            }
+
+            int start = in.position();
+            byte typeCode = in.get(start);
+            switch (typeCode) {
+                case TC_RESET:
+                    in.position(start + 1);
+                    handles.clear();
+                    continue; // A reset carries no data; look at what follows it
+                case TC_STRING:
+                    if (in.remaining() < 3) {
+                        return null;
+                    }
+                    return readString(in, start + 3, in.getShort(start + 1) & 0xFFFF);
+                case TC_LONGSTRING:
+                    if (in.remaining() < 9) {
+                        return null;
+                    }
+                    long length = in.getLong(start + 1);
+                    if (length > Integer.MAX_VALUE - 9) {
+                        throw new StreamCorruptedException("String too long: " + length + " bytes");
+                    }
+                    return readString(in, start + 9, (int) length);
+                case TC_REFERENCE:
+                    if (in.remaining() < 5) {
+                        return null;
+                    }
+                    int index = in.getInt(start + 1) - BASE_WIRE_HANDLE;
+                    if (index < 0 || index >= handles.size()) {
+                        throw new StreamCorruptedException("Invalid back-reference handle");
+                    }
+                    in.position(start + 5);
+                    return handles.get(index);
+                default:
+                    throw new StreamCorruptedException(String.format("Unsupported type code 0x%02X", typeCode));
+            }
+        }
+    }
+
+    private String readString(ByteBuffer in, int dataStart, int length) throws StreamCorruptedException {
+        if (in.limit() - dataStart < length) {
+            return null; // Wait until the whole string has arrived
+        }
+        String value = decodeModifiedUtf8(in, dataStart, length);
+        in.position(dataStart + length);
+        handles.add(value);
+        return value;
+    }
+
+    /**
+     * Encodes a String the way {@link java.io.ObjectOutputStream#writeObject} does, without
+     * back-references, so the result can be written straight to a channel.
+     *
+     * @param value The String to encode.
+     * @return A buffer in read mode holding the encoded message.
+     */
+    public static ByteBuffer encode(String value) {
+        int utfLength = modifiedUtf8Length(value);
+        boolean longString = utfLength > 0xFFFF;
+        ByteBuffer out = ByteBuffer.allocate((longString ? 9 : 3) + utfLength);
+        if (longString) {
+            out.put(TC_LONGSTRING).putLong(utfLength);
+        } else {
+            out.put(TC_STRING).putShort((short) utfLength);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                out.put((byte) c);
+            } else if (c <= 0x07FF) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    private static int modifiedUtf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+        }
+        return length;
+    }
+
+    private static String decodeModifiedUtf8(ByteBuffer in, int start, int length) throws StreamCorruptedException {
+        char[] chars = new char[length];
+        int count = 0;
+        int i = start;
+        int end = start + length;
+        while (i < end) {
+            int b = in.get(i) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                i++;
+            } else if ((b & 0xE0) == 0xC0 && i + 1 < end) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (in.get(i + 1) & 0x3F));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0 && i + 2 < end) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((in.get(i + 1) & 0x3F) << 6) | (in.get(i + 2) & 0x3F));
+                i += 3;
+            } else {
+                throw new StreamCorruptedException("Malformed modified UTF-8 string");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Convenience for writers that need the header as a buffer.
+     *
+     * @return A new buffer in read mode holding {@link #STREAM_HEADER}.
+     */
+    public static ByteBuffer header() {
+        return ByteBuffer.wrap(STREAM_HEADER.clone());
+    }
+
+}